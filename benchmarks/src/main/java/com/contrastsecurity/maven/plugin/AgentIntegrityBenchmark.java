@@ -0,0 +1,102 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the {@code install} goal's verification of the installed agent against a synthetic
+ * agent about the size of the real Contrast Java agent, compared with hashing the agent alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AgentIntegrityBenchmark {
+
+  private Path directory;
+  private Path agent;
+
+  @Setup
+  public void setup() throws IOException {
+    directory = Files.createTempDirectory("contrast-agent-benchmark");
+    agent = directory.resolve("contrast.jar");
+    writeAgent(agent);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(agent);
+    Files.deleteIfExists(directory);
+  }
+
+  @Benchmark
+  public String verify() throws IOException {
+    return AgentIntegrity.verify(agent);
+  }
+
+  @Benchmark
+  public String sha256() throws IOException {
+    return Digests.sha256(agent);
+  }
+
+  /**
+   * Writes a JAR of classes with random content so that compression does not make the agent
+   * trivially small.
+   */
+  private static void writeAgent(final Path file) throws IOException {
+    final Random random = new Random(0);
+    final byte[] content = new byte[ENTRY_SIZE];
+    try (JarOutputStream jar =
+        new JarOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+      for (int i = 0; i < ENTRIES; i++) {
+        random.nextBytes(content);
+        jar.putNextEntry(new JarEntry("com/contrastsecurity/agent/Class" + i + ".class"));
+        jar.write(content);
+        jar.closeEntry();
+      }
+    }
+  }
+
+  private static final int ENTRIES = 8_000;
+  private static final int ENTRY_SIZE = 5 * 1024;
+}
@@ -0,0 +1,110 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares JMH results in JSON ({@code -rf json}) with a baseline recorded the same way, and exits
+ * with a non-zero status when any benchmark regressed by more than the allowed percentage. Scores
+ * are compared as average time per operation, so a higher score is a regression.
+ *
+ * <p>Usage: {@code java -cp target/benchmarks.jar
+ * com.contrastsecurity.maven.plugin.BaselineComparison baseline.json results.json [percent]}
+ */
+public final class BaselineComparison {
+
+  public static void main(final String[] args) throws IOException {
+    if (args.length < 2 || args.length > 3) {
+      System.err.println("Usage: BaselineComparison <baseline.json> <results.json> [percent]");
+      System.exit(2);
+    }
+    final double allowed = args.length == 3 ? Double.parseDouble(args[2]) : DEFAULT_PERCENT;
+    final Map<String, Double> baseline = read(Paths.get(args[0]));
+    final Map<String, Double> results = read(Paths.get(args[1]));
+    int regressions = 0;
+    for (final Map.Entry<String, Double> result : results.entrySet()) {
+      final Double before = baseline.get(result.getKey());
+      if (before == null) {
+        System.out.printf("NEW        %s %.3f%n", result.getKey(), result.getValue());
+        continue;
+      }
+      final double change = (result.getValue() - before) / before * 100;
+      final boolean regressed = change > allowed;
+      if (regressed) {
+        regressions++;
+      }
+      System.out.printf(
+          "%-10s %s %.3f -> %.3f (%+.1f%%)%n",
+          regressed ? "REGRESSED" : "OK", result.getKey(), before, result.getValue(), change);
+    }
+    for (final String missing : baseline.keySet()) {
+      if (!results.containsKey(missing)) {
+        System.out.printf("MISSING    %s%n", missing);
+      }
+    }
+    if (regressions > 0) {
+      System.out.printf("%d benchmarks regressed by more than %.1f%%%n", regressions, allowed);
+      System.exit(1);
+    }
+  }
+
+  /**
+   * @return average time per operation by benchmark name and parameters
+   */
+  private static Map<String, Double> read(final Path file) throws IOException {
+    final JsonArray benchmarks;
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      benchmarks = JsonParser.parseReader(reader).getAsJsonArray();
+    }
+    final Map<String, Double> scores = new TreeMap<>();
+    for (final JsonElement element : benchmarks) {
+      final JsonObject benchmark = element.getAsJsonObject();
+      final StringBuilder key = new StringBuilder(benchmark.get("benchmark").getAsString());
+      final JsonObject params = benchmark.getAsJsonObject("params");
+      if (params != null) {
+        final Map<String, String> sorted = new TreeMap<>();
+        for (final Map.Entry<String, JsonElement> param : params.entrySet()) {
+          sorted.put(param.getKey(), param.getValue().getAsString());
+        }
+        for (final Map.Entry<String, String> param : sorted.entrySet()) {
+          key.append(' ').append(param.getKey()).append('=').append(param.getValue());
+        }
+      }
+      final JsonObject metric = benchmark.getAsJsonObject("primaryMetric");
+      scores.put(key.toString(), metric.get("score").getAsDouble());
+    }
+    return scores;
+  }
+
+  private static final double DEFAULT_PERCENT = 10;
+}
@@ -0,0 +1,82 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the {@code install} goal's argLine and session metadata, which every module of a
+ * reactor computes. The existing argLine grows with the number of options to cover builds that
+ * configure many system properties.
+ *
+ * <p>The session metadata comes from CI environment variables, so compare results with a baseline
+ * only when both were recorded with the same environment.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstallAgentBenchmark {
+
+  /** Number of options in the existing argLine */
+  @Param({"0", "50", "500"})
+  public int options;
+
+  private ContrastInstallAgentMojo mojo;
+  private String argLine;
+
+  @Setup
+  public void setup() {
+    mojo = new ContrastInstallAgentMojo();
+    mojo.setLog(new NoopLog());
+    mojo.setAppName("benchmark-application");
+    mojo.setServerName("benchmark-server");
+    mojo.contrastAgentLocation = "/build/target/contrast.jar";
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < options; i++) {
+      sb.append(" -Dbenchmark.option.").append(i).append("=value-").append(i);
+    }
+    argLine = sb.toString().trim();
+  }
+
+  @Benchmark
+  public String buildArgLine() {
+    return mojo.buildArgLine(argLine);
+  }
+
+  @Benchmark
+  public String computeSessionMetadata() {
+    return mojo.computeSessionMetadata();
+  }
+}
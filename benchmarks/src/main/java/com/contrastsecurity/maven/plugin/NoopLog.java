@@ -0,0 +1,83 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.maven.plugin.logging.Log;
+
+/** Discards all messages, so that benchmarks measure the plugin rather than console output */
+final class NoopLog implements Log {
+
+  @Override
+  public boolean isDebugEnabled() {
+    return false;
+  }
+
+  @Override
+  public void debug(final CharSequence content) {}
+
+  @Override
+  public void debug(final CharSequence content, final Throwable error) {}
+
+  @Override
+  public void debug(final Throwable error) {}
+
+  @Override
+  public boolean isInfoEnabled() {
+    return false;
+  }
+
+  @Override
+  public void info(final CharSequence content) {}
+
+  @Override
+  public void info(final CharSequence content, final Throwable error) {}
+
+  @Override
+  public void info(final Throwable error) {}
+
+  @Override
+  public boolean isWarnEnabled() {
+    return false;
+  }
+
+  @Override
+  public void warn(final CharSequence content) {}
+
+  @Override
+  public void warn(final CharSequence content, final Throwable error) {}
+
+  @Override
+  public void warn(final Throwable error) {}
+
+  @Override
+  public boolean isErrorEnabled() {
+    return false;
+  }
+
+  @Override
+  public void error(final CharSequence content) {}
+
+  @Override
+  public void error(final CharSequence content, final Throwable error) {}
+
+  @Override
+  public void error(final Throwable error) {}
+}
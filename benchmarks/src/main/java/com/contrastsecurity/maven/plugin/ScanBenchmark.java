@@ -0,0 +1,208 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the {@code scan} goal's artifact hashing and streaming, and its processing of the
+ * SARIF results, against a large synthetic WAR and a large synthetic set of results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScanBenchmark {
+
+  private Path directory;
+  private Path war;
+  private Path slimmed;
+  private String sarif;
+  private SarifProcessor unfiltered;
+  private SarifProcessor filtering;
+
+  @Setup
+  public void setup() throws IOException {
+    directory = Files.createTempDirectory("contrast-scan-benchmark");
+    war = directory.resolve("app.war");
+    slimmed = directory.resolve("app-slim.war");
+    writeWar(war);
+    sarif = sarif(RESULTS);
+    unfiltered = new SarifProcessor(Collections.emptyList(), Collections.emptyList());
+    filtering =
+        new SarifProcessor(Arrays.asList("error", "warning"), Arrays.asList("reflected-xss"));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(slimmed);
+    Files.deleteIfExists(war);
+    Files.deleteIfExists(directory);
+  }
+
+  @Benchmark
+  public String sha256() throws IOException {
+    return Digests.sha256(war);
+  }
+
+  @Benchmark
+  public int slim() throws IOException {
+    return new ArtifactSlimmer(Collections.emptyList()).slim(war, slimmed);
+  }
+
+  @Benchmark
+  public int slimKeepingLibraries() throws IOException {
+    return new ArtifactSlimmer(Arrays.asList("org.example:library-1*")).slim(war, slimmed);
+  }
+
+  @Benchmark
+  public SarifProcessor.Summary summarizeResults() throws IOException {
+    return unfiltered.process(new StringReader(sarif), null);
+  }
+
+  @Benchmark
+  public SarifProcessor.Summary filterResults() throws IOException {
+    return filtering.process(new StringReader(sarif), new NullWriter());
+  }
+
+  /**
+   * Writes a WAR with application classes and nested libraries, each nested library with the {@code
+   * pom.properties} from which the slimmer reads its coordinates. Entries are stored with random
+   * content so that compression does not make the archive trivially small.
+   */
+  private static void writeWar(final Path file) throws IOException {
+    final Random random = new Random(0);
+    final byte[] content = new byte[ENTRY_SIZE];
+    try (ZipOutputStream zos =
+        new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+      for (int i = 0; i < CLASSES; i++) {
+        random.nextBytes(content);
+        zos.putNextEntry(new ZipEntry("WEB-INF/classes/com/example/Class" + i + ".class"));
+        zos.write(content);
+        zos.closeEntry();
+      }
+      for (int i = 0; i < LIBRARIES; i++) {
+        zos.putNextEntry(new ZipEntry("WEB-INF/lib/library-" + i + ".jar"));
+        writeLibrary(zos, i, random, content);
+        zos.closeEntry();
+      }
+    }
+  }
+
+  private static void writeLibrary(
+      final OutputStream out, final int i, final Random random, final byte[] content)
+      throws IOException {
+    // do not close the nested stream, because that would close the WAR
+    final ZipOutputStream library = new ZipOutputStream(out);
+    library.putNextEntry(
+        new ZipEntry("META-INF/maven/org.example/library-" + i + "/pom.properties"));
+    library.write(
+        ("groupId=org.example\nartifactId=library-" + i + "\nversion=1.0\n")
+            .getBytes(StandardCharsets.UTF_8));
+    library.closeEntry();
+    for (int j = 0; j < CLASSES_PER_LIBRARY; j++) {
+      random.nextBytes(content);
+      library.putNextEntry(new ZipEntry("org/example/library" + i + "/Class" + j + ".class"));
+      library.write(content);
+      library.closeEntry();
+    }
+    library.finish();
+  }
+
+  /** SARIF with results spread across levels, rules, and baseline states */
+  private static String sarif(final int results) {
+    final String[] levels = {"error", "warning", "note", "none"};
+    final String[] rules = {"sql-injection", "reflected-xss", "path-traversal", "crypto-bad-mac"};
+    final String[] states = {"new", "unchanged", "updated"};
+    final StringBuilder sb = new StringBuilder(results * 512);
+    sb.append("{\"version\":\"2.1.0\",\"runs\":[{")
+        .append("\"tool\":{\"driver\":{\"name\":\"Contrast Scan\"}},\"results\":[");
+    for (int i = 0; i < results; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append("{\"ruleId\":\"")
+          .append(rules[i % rules.length])
+          .append("\",\"level\":\"")
+          .append(levels[i % levels.length])
+          .append("\",\"baselineState\":\"")
+          .append(states[i % states.length])
+          .append("\",\"message\":{\"text\":\"Untrusted data flows to a sensitive sink\"},")
+          .append("\"locations\":[{\"physicalLocation\":{\"artifactLocation\":{\"uri\":")
+          .append("\"com/example/Class")
+          .append(i)
+          .append(".java\"},\"region\":{\"startLine\":")
+          .append(i % 500 + 1)
+          .append("}}}]}");
+    }
+    sb.append("]}]}");
+    return sb.toString();
+  }
+
+  /** Discards the filtered SARIF, since Java 8 lacks {@code Writer.nullWriter()} */
+  private static final class NullWriter extends Writer {
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) {}
+
+    @Override
+    public void write(final String str, final int off, final int len) {}
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+  }
+
+  private static final int RESULTS = 10_000;
+  private static final int CLASSES = 2_000;
+  private static final int LIBRARIES = 200;
+  private static final int CLASSES_PER_LIBRARY = 50;
+  private static final int ENTRY_SIZE = 2048;
+}
@@ -0,0 +1,163 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.contrastsecurity.http.RuleSeverity;
+import com.contrastsecurity.models.Trace;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the {@code verify} goal's severity filter and its vulnerability reports, which the
+ * goal renders once for every vulnerability that Contrast reports.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VerifyBenchmark {
+
+  /** Number of vulnerabilities to report */
+  @Param({"1000", "100000"})
+  public int vulnerabilities;
+
+  private Trace[] traces;
+  private Path directory;
+
+  @Setup
+  public void setup() throws IOException {
+    traces = new Trace[vulnerabilities];
+    for (int i = 0; i < vulnerabilities; i++) {
+      traces[i] = new SyntheticTrace(i);
+    }
+    directory = Files.createTempDirectory("contrast-verify-benchmark");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    for (final TraceReportRenderer.Format format : TraceReportRenderer.Format.values()) {
+      Files.deleteIfExists(directory.resolve(fileName(format)));
+    }
+    Files.deleteIfExists(directory);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public EnumSet<RuleSeverity> getSeverityList() {
+    return ContrastVerifyMojo.getSeverityList("Low");
+  }
+
+  /** Renders every vulnerability for the build log, as the goal does for logged vulnerabilities */
+  @Benchmark
+  public void renderTraceReports(final Blackhole blackhole) throws IOException {
+    try (TraceReportRenderer renderer =
+        new TraceReportRenderer(directory, EnumSet.noneOf(TraceReportRenderer.Format.class))) {
+      for (final Trace trace : traces) {
+        blackhole.consume(renderer.render(trace));
+      }
+    }
+  }
+
+  /** Writes every vulnerability to the text, JSON, and JUnit reports */
+  @Benchmark
+  public void writeTraceReports() throws IOException {
+    try (TraceReportRenderer renderer =
+        new TraceReportRenderer(directory, EnumSet.allOf(TraceReportRenderer.Format.class))) {
+      for (final Trace trace : traces) {
+        renderer.write(trace);
+      }
+    }
+  }
+
+  private static String fileName(final TraceReportRenderer.Format format) {
+    switch (format) {
+      case JSON:
+        return TraceReportRenderer.JSON_FILE_NAME;
+      case JUNIT:
+        return TraceReportRenderer.JUNIT_FILE_NAME;
+      default:
+        return TraceReportRenderer.TEXT_FILE_NAME;
+    }
+  }
+
+  /** Vulnerability with a title that includes unlicensed markers and characters to escape */
+  static final class SyntheticTrace extends Trace {
+
+    private final String title;
+    private final String uuid;
+    private final String severity;
+
+    SyntheticTrace(final int i) {
+      title =
+          "SQL Injection from {{#unlicensed}}\"id\" parameter{{/unlicensed}} on \"/users/"
+              + i
+              + "\" & <admin>";
+      uuid = String.format("ABCD-%08d", i);
+      severity = SEVERITIES[i % SEVERITIES.length];
+    }
+
+    @Override
+    public String getTitle() {
+      return title;
+    }
+
+    @Override
+    public String getUuid() {
+      return uuid;
+    }
+
+    @Override
+    public String getRule() {
+      return "sql-injection";
+    }
+
+    @Override
+    public String getSeverity() {
+      return severity;
+    }
+
+    @Override
+    public String getLikelihood() {
+      return "Likely";
+    }
+
+    private static final String[] SEVERITIES = {"Note", "Low", "Medium", "High", "Critical"};
+  }
+}
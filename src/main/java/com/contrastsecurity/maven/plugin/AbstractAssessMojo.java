@@ -20,6 +20,9 @@ package com.contrastsecurity.maven.plugin;
  * #L%
  */
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Parameter;
 
@@ -27,16 +30,14 @@ import org.apache.maven.plugins.annotations.Parameter;
 abstract class AbstractAssessMojo extends AbstractContrastMojo {
 
   /**
-   * As near as I can tell, there doesn't appear to be any way to share data between Mojo phases.
-   * However, we need to compute the appVersion in the install phase and then use the
-   * computedAppVersion in the verify phase. Setting the field to static is the only way I found for
-   * it to work.
-   *
-   * @deprecated [JG] the Maven solution for the aforementioned issue is to save the information to
-   *     the file system between goals, so we will deprecate this static field in favor of that
-   *     approach
+   * The appVersion computed by the install goal. The install goal saves it to the module's {@link
+   * AssessState} from which the verify goal reads it, and the verify goal fails when there is none.
    */
-  @Deprecated static String computedAppVersion;
+  String computedAppVersion;
+
+  /** Directory in which the install goal saves state for the verify goal of the same module */
+  @Parameter(defaultValue = "${project.build.directory}/contrast", readonly = true)
+  private File stateDirectory;
 
   /**
    * Override the reported application name.
@@ -69,6 +70,30 @@ abstract class AbstractAssessMojo extends AbstractContrastMojo {
     }
   }
 
+  /**
+   * @return the module's {@link AssessState}, or empty state if the install goal has not saved any
+   * @throws MojoFailureException when fails to read the state
+   */
+  AssessState readState() throws MojoFailureException {
+    try {
+      return AssessState.read(getStateFile());
+    } catch (final IOException e) {
+      throw new MojoFailureException("Unable to read " + getStateFile(), e);
+    }
+  }
+
+  /**
+   * @param state state to save for the module
+   * @throws IOException when fails to write the state
+   */
+  void writeState(final AssessState state) throws IOException {
+    state.write(getStateFile());
+  }
+
+  private Path getStateFile() {
+    return stateDirectory.toPath().resolve(STATE_FILE_NAME);
+  }
+
   String getAppName() {
     return appName;
   }
@@ -95,4 +120,11 @@ abstract class AbstractAssessMojo extends AbstractContrastMojo {
   void setServerName(String serverName) {
     this.serverName = serverName;
   }
+
+  /** For testing. Maven will set the field directly */
+  void setStateDirectory(final File stateDirectory) {
+    this.stateDirectory = stateDirectory;
+  }
+
+  private static final String STATE_FILE_NAME = "assess.properties";
 }
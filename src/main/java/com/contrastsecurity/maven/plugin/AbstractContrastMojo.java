@@ -22,11 +22,19 @@ package com.contrastsecurity.maven.plugin;
 
 import com.contrastsecurity.sdk.ContrastSDK;
 import com.contrastsecurity.sdk.UserAgentProduct;
+import java.io.File;
+import java.io.IOException;
 import java.net.Authenticator;
 import java.net.InetSocketAddress;
 import java.net.PasswordAuthentication;
 import java.net.Proxy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.settings.Settings;
@@ -36,7 +44,8 @@ import org.apache.maven.settings.Settings;
  * selection (multi-tenancy), and proxy configuration.
  *
  * <p>Extensions of this class use the {@link #connectToContrast()} to obtain an instance of the
- * {@link ContrastSDK} with which they can make requests to Contrast.
+ * {@link ContrastSDK} with which they can make requests to Contrast, and {@link #measure(Goal)} to
+ * record the {@link BuildMetrics} of their execution.
  */
 abstract class AbstractContrastMojo extends AbstractMojo {
 
@@ -46,6 +55,12 @@ abstract class AbstractContrastMojo extends AbstractMojo {
   @Parameter(defaultValue = "${maven.version}", readonly = true)
   private String mavenVersion;
 
+  @Parameter(defaultValue = "${session}", readonly = true)
+  private MavenSession session;
+
+  @Parameter(defaultValue = "${mojoExecution}", readonly = true)
+  private MojoExecution mojoExecution;
+
   /**
    * User name for communicating with Contrast. Agent users lack permissions required by this
    * plugin. <a href="https://docs.contrastsecurity.com/en/personal-keys.html">Find your personal
@@ -115,6 +130,67 @@ abstract class AbstractContrastMojo extends AbstractMojo {
   @Parameter(property = "proxyPort")
   private int proxyPort;
 
+  /**
+   * Directory in which the plugin caches data retrieved from Contrast between builds, such as the
+   * organization's application names and downloaded agents.
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "contrastCacheDirectory", defaultValue = "${user.home}/.m2/contrast")
+  private File cacheDirectory;
+
+  /**
+   * When true, writes the time that each goal spends in each of its phases, the number of requests
+   * it makes to Contrast, and the number of bytes it transfers, to {@code metricsFile}.
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "contrastMetrics", defaultValue = "false")
+  private boolean metrics;
+
+  /**
+   * JSON file to which goals write their metrics when {@code metrics} is true. Every goal that
+   * executes in the module adds its metrics to the file.
+   *
+   * @since 2.14
+   */
+  @Parameter(defaultValue = "${project.build.directory}/contrast/metrics.json")
+  private File metricsFile;
+
+  /**
+   * When true, goals that write metrics also write them in the <a
+   * href="https://openmetrics.io">OpenMetrics</a> text format, to a file next to {@code
+   * metricsFile} with the extension {@code .txt}
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "contrastOpenMetrics", defaultValue = "false")
+  private boolean openMetrics;
+
+  /**
+   * Number of times to retry a request to Contrast which fails due to a network error or a server
+   * error. Requests which are not safe to repeat, such as starting a scan, are retried only when
+   * Contrast cannot have processed them. When many consecutive requests fail, every goal in the
+   * build pauses its requests until Contrast recovers.
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "contrastRequestRetries", defaultValue = "3")
+  private int requestRetries;
+
+  private BuildMetrics buildMetrics;
+
+  private RetryPolicy retryPolicy;
+
+  /** Body of a goal, which {@link #measure(Goal)} executes */
+  interface Goal {
+
+    /**
+     * @throws MojoFailureException when the goal fails
+     */
+    void execute() throws MojoFailureException;
+  }
+
   String getMavenVersion() {
     return mavenVersion;
   }
@@ -123,6 +199,120 @@ abstract class AbstractContrastMojo extends AbstractMojo {
     this.mavenVersion = mavenVersion;
   }
 
+  MavenSession getSession() {
+    return session;
+  }
+
+  MojoExecution getMojoExecution() {
+    return mojoExecution;
+  }
+
+  /** For testing. Maven will set the field directly */
+  void setSession(final MavenSession session) {
+    this.session = session;
+  }
+
+  /** For testing. Maven will set the field directly */
+  void setSettings(final Settings settings) {
+    this.settings = settings;
+  }
+
+  /** For testing. Maven will set the field directly */
+  void setMojoExecution(final MojoExecution mojoExecution) {
+    this.mojoExecution = mojoExecution;
+  }
+
+  /** For testing. Maven will set the field directly */
+  void setMetrics(final boolean metrics, final File metricsFile, final boolean openMetrics) {
+    this.metrics = metrics;
+    this.metricsFile = metricsFile;
+    this.openMetrics = openMetrics;
+  }
+
+  /**
+   * @return metrics of this goal's execution
+   */
+  synchronized BuildMetrics getMetrics() {
+    if (buildMetrics == null) {
+      buildMetrics =
+          mojoExecution == null
+              ? new BuildMetrics(getClass().getSimpleName(), null)
+              : new BuildMetrics(mojoExecution.getGoal(), mojoExecution.getExecutionId());
+    }
+    return buildMetrics;
+  }
+
+  /** For testing. Maven will set the field directly */
+  void setRequestRetries(final int requestRetries) {
+    this.requestRetries = requestRetries;
+  }
+
+  /** For testing. Maven builds the policy from the {@code requestRetries} parameter */
+  synchronized void setRetryPolicy(final RetryPolicy retryPolicy) {
+    this.retryPolicy = retryPolicy;
+  }
+
+  /**
+   * @return policy with which goals retry failed requests to Contrast, sharing the build's {@link
+   *     CircuitBreaker}
+   */
+  synchronized RetryPolicy getRetryPolicy() {
+    if (retryPolicy == null) {
+      final CircuitBreaker breaker =
+          session == null
+              ? newCircuitBreaker()
+              : SessionContext.get(
+                  session, CircuitBreaker.class, AbstractContrastMojo::newCircuitBreaker);
+      retryPolicy =
+          new RetryPolicy(
+              requestRetries + 1,
+              RETRY_INITIAL_DELAY,
+              RETRY_MAX_DELAY,
+              breaker,
+              CIRCUIT_BREAKER_MAX_WAIT,
+              new Random(),
+              Clock.SYSTEM,
+              getLog(),
+              getMetrics());
+    }
+    return retryPolicy;
+  }
+
+  private static CircuitBreaker newCircuitBreaker() {
+    return new CircuitBreaker(
+        CIRCUIT_BREAKER_THRESHOLD, CIRCUIT_BREAKER_OPEN_DURATION, Clock.SYSTEM);
+  }
+
+  /**
+   * Executes the body of a goal, then writes the goal's metrics when {@link #metrics} is true,
+   * whether or not the goal succeeded. Failing to write the metrics does not fail the goal.
+   *
+   * @param goal body of the goal
+   * @throws MojoFailureException when the goal fails
+   */
+  void measure(final Goal goal) throws MojoFailureException {
+    final BuildMetrics recorded = getMetrics();
+    boolean succeeded = false;
+    try {
+      goal.execute();
+      succeeded = true;
+    } finally {
+      recorded.finish(succeeded);
+      if (metrics && metricsFile != null) {
+        final BuildMetrics.Reports reports =
+            session == null
+                ? new BuildMetrics.Reports()
+                : SessionContext.get(
+                    session, BuildMetrics.Reports.class, BuildMetrics.Reports::new);
+        try {
+          reports.write(metricsFile.toPath(), recorded, openMetrics);
+        } catch (final IOException e) {
+          getLog().warn("Unable to write the Contrast metrics to " + metricsFile, e);
+        }
+      }
+    }
+  }
+
   String getUserName() {
     return userName;
   }
@@ -163,12 +353,53 @@ abstract class AbstractContrastMojo extends AbstractMojo {
     this.organizationId = organizationId;
   }
 
+  File getCacheDirectory() {
+    return cacheDirectory;
+  }
+
+  void setCacheDirectory(final File cacheDirectory) {
+    this.cacheDirectory = cacheDirectory;
+  }
+
+  /**
+   * @return ContrastSDK configured to connect with the authentication and proxy parameters defined
+   *     by this abstract mojo. Goals and modules with the same parameters share one ContrastSDK for
+   *     the duration of the build.
+   * @throws MojoFailureException when fails to connect to Contrast
+   */
+  ContrastSDK connectToContrast() throws MojoFailureException {
+    try (BuildMetrics.Span ignored = getMetrics().span("connect")) {
+      return session == null ? createContrastSDK() : connectToSharedContrast();
+    }
+  }
+
+  private ContrastSDK connectToSharedContrast() throws MojoFailureException {
+    final org.apache.maven.settings.Proxy proxySettings =
+        settings == null ? null : settings.getActiveProxy();
+    final List<Object> key =
+        Arrays.asList(
+            url,
+            userName,
+            serviceKey,
+            apiKey,
+            mavenVersion,
+            useProxy,
+            proxyHost,
+            proxyPort,
+            proxySettings == null ? null : proxySettings.getHost(),
+            proxySettings == null ? null : proxySettings.getPort(),
+            proxySettings == null ? null : proxySettings.getUsername(),
+            proxySettings == null ? null : proxySettings.getPassword());
+    return SessionContext.get(session, ContrastConnections.class, ContrastConnections::new)
+        .get(key, this::createContrastSDK);
+  }
+
   /**
    * @return new ContrastSDK configured to connect with the authentication and proxy parameters
    *     defined by this abstract mojo
    * @throws MojoFailureException when fails to connect to Contrast
    */
-  ContrastSDK connectToContrast() throws MojoFailureException {
+  private ContrastSDK createContrastSDK() throws MojoFailureException {
     final Proxy proxy = getProxy();
     final UserAgentProduct maven = getUserAgentProduct();
     try {
@@ -237,4 +468,10 @@ abstract class AbstractContrastMojo extends AbstractMojo {
 
     return proxy;
   }
+
+  private static final Duration RETRY_INITIAL_DELAY = Duration.ofSeconds(1);
+  private static final Duration RETRY_MAX_DELAY = Duration.ofSeconds(30);
+  private static final int CIRCUIT_BREAKER_THRESHOLD = 5;
+  private static final Duration CIRCUIT_BREAKER_OPEN_DURATION = Duration.ofSeconds(30);
+  private static final Duration CIRCUIT_BREAKER_MAX_WAIT = Duration.ofMinutes(5);
 }
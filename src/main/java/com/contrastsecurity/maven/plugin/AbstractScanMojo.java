@@ -0,0 +1,554 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.contrastsecurity.sdk.ContrastSDK;
+import com.contrastsecurity.sdk.scan.Scan;
+import com.contrastsecurity.sdk.scan.ScanSummary;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Parameter;
+
+/**
+ * Abstract mojo for mojos that retrieve Contrast Scan results. Handles waiting for a scan to
+ * complete, writing its results in SARIF to the file system, summarizing the results in the
+ * console, and failing the build when the results exceed the configured thresholds.
+ */
+abstract class AbstractScanMojo extends AbstractContrastMojo {
+
+  /** When {@code true}, will output a summary of the scan results to the console (build log). */
+  @Parameter(defaultValue = "" + true)
+  private boolean consoleOutput;
+
+  /**
+   * File path to where the scan results (in <a href="https://sarifweb.azurewebsites.net">SARIF</a>)
+   * will be written at the conclusion of the scan. Note: the {@code scan} goal writes no results
+   * when its {@code waitForResults} is {@code false}; the {@code scan-await} goal writes them
+   * instead.
+   */
+  @Parameter(
+      defaultValue =
+          "${project.build.directory}/contrast-scan-reports/contrast-scan-results.sarif.json")
+  private File outputPath;
+
+  /**
+   * Maximum time (in milliseconds) to wait for a Scan to complete. Scans that exceed this threshold
+   * fail this goal.
+   */
+  @Parameter(defaultValue = "" + 5 * 60 * 1000)
+  private long timeoutMs;
+
+  /**
+   * How to wait for scan results. {@code adaptive} polls for the scan's status on a schedule
+   * derived from how long the project's previous scans took and the size of the artifact, recorded
+   * in {@code contrastCacheDirectory}. {@code fixed} polls at the Contrast SDK's fixed interval.
+   *
+   * @since 2.14
+   */
+  @Parameter(defaultValue = "adaptive")
+  private String scanWaitStrategy;
+
+  /**
+   * SARIF levels ({@code error}, {@code warning}, {@code note}, {@code none}) of the scan results
+   * to include in the summary and in the filtered results. Includes every level when empty.
+   *
+   * @since 2.14
+   */
+  @Parameter private List<String> sarifLevels;
+
+  /**
+   * IDs of the rules whose scan results are excluded from the summary and from the filtered
+   * results.
+   *
+   * @since 2.14
+   */
+  @Parameter private List<String> sarifExcludedRules;
+
+  /**
+   * When {@code true}, writes a second copy of the scan results without the results excluded by
+   * {@code sarifLevels} and {@code sarifExcludedRules}, next to {@code outputPath} with the
+   * extension {@code .filtered.sarif.json}.
+   *
+   * @since 2.14
+   */
+  @Parameter(defaultValue = "" + false)
+  private boolean writeFilteredResults;
+
+  /**
+   * Compression applied to the scan results as they are written: {@code none} or {@code gzip}. When
+   * {@code gzip}, the results are written to {@code outputPath} with the extension {@code .gz}
+   * appended, and the uncompressed results are never written to disk.
+   *
+   * @since 2.14
+   */
+  @Parameter(defaultValue = "none")
+  private String outputCompression;
+
+  /**
+   * Maximum number of scan results before the build fails, or {@code -1} for no limit. The scan
+   * goal evaluates every threshold on the results that remain after applying {@code sarifLevels}
+   * and {@code sarifExcludedRules}, and writes its verdict in JSON next to the results, with the
+   * extension {@code .verdict.json}.
+   *
+   * @since 2.14
+   */
+  @Parameter(defaultValue = "-1")
+  private int maxResults;
+
+  /**
+   * Maximum number of scan results of each SARIF level before the build fails, e.g. {@code
+   * <error>0</error>}. Results without a level have the SARIF default level {@code warning}.
+   *
+   * @since 2.14
+   */
+  @Parameter private Map<String, String> maxResultsByLevel;
+
+  /**
+   * Maximum number of scan results of each rule before the build fails, keyed by rule ID e.g.
+   * {@code <sql-injection>0</sql-injection>}.
+   *
+   * @since 2.14
+   */
+  @Parameter private Map<String, String> maxResultsByRule;
+
+  /**
+   * When true, the result thresholds count only the results that are new since the project's
+   * previous scan.
+   *
+   * @since 2.14
+   */
+  @Parameter(defaultValue = "" + false)
+  private boolean newResultsOnly;
+
+  private ContrastSDK contrast;
+
+  private ScanWaiter waiter;
+
+  private ScanGate gate;
+
+  /**
+   * @return connection to Contrast, once {@link #initialize()} has been called
+   */
+  ContrastSDK getContrast() {
+    return contrast;
+  }
+
+  File getOutputPath() {
+    return outputPath;
+  }
+
+  /** visible for testing */
+  void setOutputPath(final File outputPath) {
+    this.outputPath = outputPath;
+  }
+
+  long getTimeoutMs() {
+    return timeoutMs;
+  }
+
+  /** visible for testing */
+  boolean isConsoleOutput() {
+    return consoleOutput;
+  }
+
+  /** visible for testing */
+  void setConsoleOutput(final boolean consoleOutput) {
+    this.consoleOutput = consoleOutput;
+  }
+
+  /** visible for testing */
+  void setSarifExcludedRules(final List<String> sarifExcludedRules) {
+    this.sarifExcludedRules = sarifExcludedRules;
+  }
+
+  /** visible for testing */
+  void setOutputCompression(final String outputCompression) {
+    this.outputCompression = outputCompression;
+  }
+
+  /**
+   * Waits for the scan to complete, writes results in SARIF to the file system, and optionally
+   * displays a summary of the results in the console.
+   *
+   * @param scan the scan to wait for and retrieve the results of
+   * @param started when the scan started
+   * @param artifact the file that the scan analyzes
+   * @param outputFile file to which the SARIF results are written
+   * @param console where the summary is written
+   * @param scheduler executor used to poll for the scan's completion and download results
+   * @return stage which completes once the results have been retrieved
+   */
+  CompletableFuture<Void> retrieveResults(
+      final Scan scan,
+      final Instant started,
+      final Path artifact,
+      final Path outputFile,
+      final Consumer<String> console,
+      final ScheduledExecutorService scheduler) {
+    final Path reportsDirectory = outputFile.getParent();
+    try {
+      Files.createDirectories(reportsDirectory);
+    } catch (final IOException e) {
+      final CompletableFuture<Void> failed = new CompletableFuture<>();
+      failed.completeExceptionally(
+          new MojoFailureException("Failed to create Contrast Scan reports directory", e));
+      return failed;
+    }
+
+    final BuildMetrics.Span waiting = getMetrics().span("scan.wait");
+    return waiter
+        .await(scan, started, artifact, scheduler, console)
+        .whenComplete((completed, error) -> waiting.close())
+        .thenAcceptAsync(
+            completed -> {
+              try (BuildMetrics.Span ignored = getMetrics().span("results.download")) {
+                saveResults(completed, outputFile, gate, console);
+              } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+              } catch (final MojoFailureException e) {
+                throw new CompletionException(e);
+              }
+            },
+            scheduler)
+        .toCompletableFuture();
+  }
+
+  /**
+   * Downloads the scan's results in SARIF to the file system, and summarizes them on the console.
+   * Processes the results as they download, in one pass, to count the results and to optionally
+   * write the filtered results. Only retrieves the scan's summary from Contrast when the results
+   * lack the information needed to count new and fixed results. Finally, evaluates the results
+   * against the configured thresholds and writes the verdict.
+   *
+   * <p>visible for testing
+   *
+   * @param scan the completed scan
+   * @param outputFile file to which the SARIF results are written
+   * @param gate thresholds against which to evaluate the results
+   * @param console where the summary is written
+   * @throws IOException when fails to download or write the results
+   * @throws MojoFailureException when the results exceed the thresholds
+   */
+  void saveResults(
+      final Scan scan, final Path outputFile, final ScanGate gate, final Consumer<String> console)
+      throws IOException, MojoFailureException {
+    final SarifProcessor processor =
+        new SarifProcessor(
+            sarifLevels == null ? Collections.emptyList() : sarifLevels,
+            sarifExcludedRules == null ? Collections.emptyList() : sarifExcludedRules);
+    final Path resultsFile = compressedPath(outputFile);
+    final Path temp = resultsFile.resolveSibling(resultsFile.getFileName() + ".tmp");
+    final Path filteredFile =
+        writeFilteredResults
+            ? compressedPath(siblingPath(outputFile, ".filtered" + SARIF_EXTENSION))
+            : null;
+    final SarifProcessor.Summary summary;
+    try {
+      final InputStream download =
+          getRetryPolicy().execute("download the scan results", true, scan::sarif);
+      try (Reader sarif =
+              new InputStreamReader(
+                  new TeeInputStream(
+                      getMetrics().count(download, BuildMetrics.BYTES_DOWNLOADED),
+                      openResults(temp)),
+                  StandardCharsets.UTF_8);
+          Writer filtered =
+              filteredFile == null
+                  ? null
+                  : new OutputStreamWriter(openResults(filteredFile), StandardCharsets.UTF_8)) {
+        summary = processor.process(sarif, filtered);
+        // copy any trailing whitespace, so that the saved results are identical to the download
+        final char[] rest = new char[1024];
+        while (sarif.read(rest) != -1) {
+          // discard
+        }
+      }
+      AtomicFiles.move(temp, resultsFile);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+
+    if (summary.excludedResults() > 0) {
+      console.accept("Excluded " + summary.excludedResults() + " results by level or rule");
+    }
+    if (summary.isBaselined()) {
+      writeSummaryToConsole(
+          summary.totalResults(), summary.newResults(), summary.fixedResults(), console);
+    } else if (summary.excludedResults() > 0) {
+      // Contrast's summary counts the excluded results, and without the baseline state the new and
+      // fixed results that remain cannot be counted, so only the remaining total is reported
+      console.accept("Scan completed");
+      if (consoleOutput) {
+        console.accept("Total Results\t" + summary.totalResults());
+      }
+    } else {
+      writeSummaryToConsole(
+          getRetryPolicy().execute("retrieve the scan summary", true, scan::summary), console);
+    }
+
+    final ScanGate.Verdict verdict = gate.evaluate(summary);
+    final Path verdictFile = siblingPath(outputFile, VERDICT_EXTENSION);
+    verdict.write(verdictFile);
+    if (!verdict.passed()) {
+      for (final ScanGate.Violation violation : verdict.violations()) {
+        console.accept(violation.toString());
+      }
+      throw new MojoFailureException(
+          "Contrast Scan results exceed the configured thresholds, see " + verdictFile);
+    }
+  }
+
+  /**
+   * @param file file to which results are written
+   * @return stream which writes to the file, compressed according to {@link #outputCompression}
+   * @throws IOException when fails to open the file
+   */
+  private OutputStream openResults(final Path file) throws IOException {
+    final OutputStream out = Files.newOutputStream(file);
+    try {
+      return isGzip()
+          ? new GZIPOutputStream(out, OUTPUT_BUFFER_SIZE)
+          : new BufferedOutputStream(out, OUTPUT_BUFFER_SIZE);
+    } catch (final IOException e) {
+      out.close();
+      throw e;
+    }
+  }
+
+  /**
+   * @param file file to which results are written
+   * @return path to the file with the extension for {@link #outputCompression} appended
+   */
+  private Path compressedPath(final Path file) {
+    return isGzip() ? file.resolveSibling(file.getFileName() + ".gz") : file;
+  }
+
+  private boolean isGzip() {
+    return "gzip".equals(outputCompression);
+  }
+
+  /**
+   * @param outputFile file to which the SARIF results are written
+   * @return file in which the {@code scan} goal records a scan for the {@code scan-await} goal
+   */
+  static Path handlePath(final Path outputFile) {
+    return siblingPath(outputFile, HANDLE_EXTENSION);
+  }
+
+  /**
+   * @param outputFile file to which the SARIF results are written
+   * @param extension extension of the related file, which replaces the SARIF extension
+   * @return file related to the SARIF results, such as the filtered results
+   */
+  private static Path siblingPath(final Path outputFile, final String extension) {
+    final String name = outputFile.getFileName().toString();
+    final String base =
+        name.endsWith(SARIF_EXTENSION)
+            ? name.substring(0, name.length() - SARIF_EXTENSION.length())
+            : name;
+    return outputFile.resolveSibling(base + extension);
+  }
+
+  /**
+   * Waits for results to be retrieved. Translates all errors that could occur while retrieving
+   * results to a {@code MojoFailureException}.
+   *
+   * @param results stage which completes once the results have been retrieved
+   * @param timeout maximum time (in milliseconds) to wait
+   * @throws MojoFailureException when fails to retrieve scan results for unexpected reasons
+   * @throws MojoFailureException when the wait for scan results operation times out
+   */
+  void awaitResults(final CompletableFuture<Void> results, final long timeout)
+      throws MojoFailureException {
+    try {
+      results.get(timeout, TimeUnit.MILLISECONDS);
+    } catch (final ExecutionException e) {
+      // try to unwrap the extraneous ExecutionException
+      final Throwable cause = e.getCause();
+      // ExecutionException should always have a cause, but its constructor does not enforce this,
+      // so check if the cause is null
+      final Throwable inner = cause == null ? e : cause;
+      if (inner instanceof MojoFailureException) {
+        throw (MojoFailureException) inner;
+      }
+      throw new MojoFailureException("Failed to retrieve Contrast Scan results", inner);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MojoFailureException("Interrupted while retrieving Contrast Scan results", e);
+    } catch (final TimeoutException e) {
+      final Duration duration = Duration.ofMillis(timeoutMs);
+      final String durationString =
+          duration.toMinutes() > 0
+              ? duration.toMinutes() + " minutes"
+              : (duration.toMillis() / 1000) + " seconds";
+      throw new MojoFailureException(
+          "Failed to retrieve Contrast Scan results in " + durationString, e);
+    }
+  }
+
+  /**
+   * visible for testing
+   *
+   * @param summary the scan summary to write to console
+   * @param consoleLogger describes a console logger where each accepted string is printed to a new
+   *     line
+   */
+  void writeSummaryToConsole(final ScanSummary summary, final Consumer<String> consoleLogger) {
+    writeSummaryToConsole(
+        summary.totalResults(),
+        summary.totalNewResults(),
+        summary.totalFixedResults(),
+        consoleLogger);
+  }
+
+  private void writeSummaryToConsole(
+      final int totalResults,
+      final int newResults,
+      final int fixedResults,
+      final Consumer<String> consoleLogger) {
+    consoleLogger.accept("Scan completed");
+    if (consoleOutput) {
+      consoleLogger.accept("New Results\t" + newResults);
+      consoleLogger.accept("Fixed Results\t" + fixedResults);
+      consoleLogger.accept("Total Results\t" + totalResults);
+    }
+  }
+
+  /**
+   * Must be called after Maven has completed field injection.
+   *
+   * <p>I don't believe Maven has a post-injection callback that we bind to this method, so the
+   * {@link #execute()} method calls this before continuing.
+   *
+   * <p>This is useful for tests to initialize the {@link ContrastSDK} without running the whole
+   * {@link #execute()} method
+   *
+   * @throws IllegalStateException when has already been initialized
+   * @throws MojoFailureException when the configuration is invalid or cannot connect to Contrast
+   */
+  synchronized void initialize() throws MojoFailureException {
+    if (contrast != null) {
+      throw new IllegalStateException("Already initialized");
+    }
+    // validate the configuration before connecting, so that a misconfigured build fails fast
+    if (outputCompression != null
+        && !"none".equals(outputCompression)
+        && !"gzip".equals(outputCompression)) {
+      throw new MojoFailureException(
+          "Unsupported outputCompression "
+              + outputCompression
+              + ". Supported compressions are none and gzip");
+    }
+    gate =
+        new ScanGate(
+            maxResults,
+            parseThresholds("maxResultsByLevel", maxResultsByLevel),
+            parseThresholds("maxResultsByRule", maxResultsByRule),
+            newResultsOnly);
+    contrast = connectToContrast();
+    waiter = createScanWaiter();
+  }
+
+  /**
+   * @param parameter name of the parameter that configures the thresholds
+   * @param thresholds configured thresholds, or {@code null}
+   * @return the thresholds as numbers
+   * @throws MojoFailureException when a threshold is not a number
+   */
+  private static Map<String, Integer> parseThresholds(
+      final String parameter, final Map<String, String> thresholds) throws MojoFailureException {
+    if (thresholds == null) {
+      return Collections.emptyMap();
+    }
+    final Map<String, Integer> parsed = new HashMap<>();
+    for (final Map.Entry<String, String> entry : thresholds.entrySet()) {
+      try {
+        parsed.put(entry.getKey(), Integer.parseInt(String.valueOf(entry.getValue()).trim()));
+      } catch (final NumberFormatException e) {
+        throw new MojoFailureException(
+            parameter + " " + entry.getKey() + " must be a number, but was " + entry.getValue(),
+            e);
+      }
+    }
+    return parsed;
+  }
+
+  /**
+   * @return {@link ScanWaiter} for the configured {@link #scanWaitStrategy}
+   * @throws MojoFailureException when the strategy is not supported
+   */
+  private ScanWaiter createScanWaiter() throws MojoFailureException {
+    switch (scanWaitStrategy == null ? "adaptive" : scanWaitStrategy) {
+      case "adaptive":
+        return new AdaptiveScanWaiter(
+            getCacheDirectory() == null ? null : getCacheDirectory().toPath(),
+            getOrganizationId(),
+            Clock.SYSTEM);
+      case "fixed":
+        return (scan, started, artifact, scheduler, console) ->
+            scan.await(scheduler)
+                .thenApply(
+                    completed -> {
+                      final long elapsed = System.currentTimeMillis() - started.toEpochMilli();
+                      console.accept(
+                          String.format(
+                              "Scan results available after %.1f seconds", elapsed / 1000.0));
+                      return completed;
+                    });
+      default:
+        throw new MojoFailureException(
+            "Unsupported scanWaitStrategy "
+                + scanWaitStrategy
+                + ". Supported strategies are adaptive and fixed");
+    }
+  }
+
+  private static final String SARIF_EXTENSION = ".sarif.json";
+  private static final String VERDICT_EXTENSION = ".verdict.json";
+  private static final String HANDLE_EXTENSION = ".scan.properties";
+  private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+}
@@ -0,0 +1,207 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.contrastsecurity.sdk.scan.Scan;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.apache.maven.plugin.MojoFailureException;
+
+/**
+ * Waits for a scan to complete by polling its status on a schedule adapted to how long the scan is
+ * expected to take, rather than at a fixed interval.
+ *
+ * <p>The expected duration comes from the durations of the project's previous scans (see {@link
+ * ScanDurations}), or from the size of the artifact when the project has no previous scans or the
+ * plugin has no cache directory in which to record them. The first poll happens halfway to the
+ * expected completion time, and each following poll halves the remaining time, so that few requests
+ * are made early in a long scan while results are noticed soon after the scan completes. Once the
+ * scan is overdue, the delay between polls doubles up to a maximum.
+ */
+final class AdaptiveScanWaiter implements ScanWaiter {
+
+  private final Path cacheDirectory;
+  private final String organizationId;
+  private final Clock clock;
+
+  /**
+   * @param cacheDirectory directory in which the plugin caches data retrieved from Contrast, or
+   *     {@code null} to estimate scan durations from the size of the artifact alone
+   * @param organizationId organization to which scanned projects belong
+   * @param clock source of the current time
+   */
+  AdaptiveScanWaiter(final Path cacheDirectory, final String organizationId, final Clock clock) {
+    this.cacheDirectory = cacheDirectory;
+    this.organizationId = organizationId;
+    this.clock = clock;
+  }
+
+  @Override
+  public CompletionStage<Scan> await(
+      final Scan scan,
+      final Instant started,
+      final Path artifact,
+      final ScheduledExecutorService scheduler,
+      final Consumer<String> console) {
+    final long size = sizeOf(artifact);
+    final ScanDurations durations =
+        cacheDirectory == null
+            ? null
+            : ScanDurations.forProject(cacheDirectory, organizationId, scan.projectId());
+    Duration expected = defaultEstimate(size);
+    if (durations != null) {
+      try {
+        expected = durations.estimate(size).orElse(expected);
+      } catch (final IOException e) {
+        // estimate from the size of the artifact
+      }
+    }
+    console.accept("Expecting scan results in about " + expected.getSeconds() + " seconds");
+    final Poll poll =
+        new Poll(
+            scan, started.toEpochMilli(), size, expected.toMillis(), durations, scheduler, console);
+    poll.schedule(nextDelay(expected.toMillis(), clock.millis() - poll.start, 0));
+    return poll.result;
+  }
+
+  /**
+   * visible for testing
+   *
+   * @param expected expected duration (in milliseconds) of the scan
+   * @param elapsed time (in milliseconds) since the scan started
+   * @param previous previous delay (in milliseconds) between polls
+   * @return delay (in milliseconds) before the next poll
+   */
+  static long nextDelay(final long expected, final long elapsed, final long previous) {
+    final long delay = elapsed < expected ? (expected - elapsed) / 2 : previous * 2;
+    return Math.max(MIN_DELAY.toMillis(), Math.min(MAX_DELAY.toMillis(), delay));
+  }
+
+  /**
+   * visible for testing
+   *
+   * @param size size (in bytes) of the artifact to scan
+   * @return rough expected duration of a project's first scan
+   */
+  static Duration defaultEstimate(final long size) {
+    return DEFAULT_ESTIMATE.plus(DEFAULT_ESTIMATE_PER_MEGABYTE.multipliedBy(size / 1_000_000));
+  }
+
+  private static long sizeOf(final Path artifact) {
+    try {
+      return Files.size(artifact);
+    } catch (final IOException e) {
+      return 0;
+    }
+  }
+
+  /** Polls the status of one scan until it completes */
+  private final class Poll implements Runnable {
+
+    private final Scan scan;
+    private final long size;
+    private final long expected;
+    private final ScanDurations durations;
+    private final ScheduledExecutorService scheduler;
+    private final Consumer<String> console;
+    private final long start;
+    private final CompletableFuture<Scan> result = new CompletableFuture<>();
+    private int requests;
+    private long delay;
+
+    private Poll(
+        final Scan scan,
+        final long start,
+        final long size,
+        final long expected,
+        final ScanDurations durations,
+        final ScheduledExecutorService scheduler,
+        final Consumer<String> console) {
+      this.scan = scan;
+      this.size = size;
+      this.expected = expected;
+      this.durations = durations;
+      this.scheduler = scheduler;
+      this.console = console;
+      this.start = start;
+    }
+
+    private void schedule(final long delay) {
+      this.delay = delay;
+      try {
+        scheduler.schedule(this, delay, TimeUnit.MILLISECONDS);
+      } catch (final RejectedExecutionException e) {
+        result.completeExceptionally(e);
+      }
+    }
+
+    @Override
+    public void run() {
+      if (result.isDone()) {
+        return;
+      }
+      final Scan current;
+      try {
+        requests++;
+        current = scan.refresh();
+      } catch (final IOException | RuntimeException e) {
+        result.completeExceptionally(e);
+        return;
+      }
+      final long elapsed = clock.millis() - start;
+      if (current.isFailed()) {
+        result.completeExceptionally(
+            new MojoFailureException("Contrast Scan failed: " + current.errorMessage()));
+        return;
+      }
+      if (!current.isFinished()) {
+        schedule(nextDelay(expected, elapsed, delay));
+        return;
+      }
+      console.accept(
+          String.format(
+              "Scan results available after %.1f seconds and %d status requests",
+              elapsed / 1000.0, requests));
+      if (durations != null) {
+        try {
+          durations.record(Duration.ofMillis(elapsed), size);
+        } catch (final IOException e) {
+          console.accept("Failed to record scan duration: " + e.getMessage());
+        }
+      }
+      result.complete(current);
+    }
+  }
+
+  private static final Duration MIN_DELAY = Duration.ofSeconds(2);
+  private static final Duration MAX_DELAY = Duration.ofMinutes(1);
+  private static final Duration DEFAULT_ESTIMATE = Duration.ofSeconds(30);
+  private static final Duration DEFAULT_ESTIMATE_PER_MEGABYTE = Duration.ofSeconds(1);
+}
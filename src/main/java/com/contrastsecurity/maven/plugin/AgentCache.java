@@ -0,0 +1,174 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Content-addressed, file system cache of Contrast Java agents shared by all builds on a machine.
+ *
+ * <p>Agents are stored per organization under a file name derived from the SHA-256 of their
+ * contents. Each organization directory contains a small pointer file which records the hash of the
+ * most recently downloaded agent and when it was downloaded. The pointer is considered fresh for
+ * the configured time-to-live, after which the agent must be downloaded again to revalidate it.
+ *
+ * <p>All writes go to a temporary file in the same directory followed by an atomic rename, so
+ * concurrent builds never observe a partially written agent or pointer.
+ */
+final class AgentCache {
+
+  private final Path directory;
+  private final Duration ttl;
+
+  /**
+   * @param directory root directory of the cache
+   * @param ttl how long a downloaded agent may be used before it must be revalidated
+   */
+  AgentCache(final Path directory, final Duration ttl) {
+    this.directory = directory;
+    this.ttl = ttl;
+  }
+
+  /**
+   * Finds a fresh agent for the given organization.
+   *
+   * @param organizationId organization to which the agent belongs
+   * @param now the current time
+   * @return path to the cached agent, or empty if there is no fresh agent in the cache
+   * @throws IOException when fails to read the cache
+   */
+  Optional<Path> find(final String organizationId, final Instant now) throws IOException {
+    final Properties properties =
+        AtomicFiles.readProperties(directory(organizationId).resolve(POINTER_NAME));
+    final String sha256 = properties.getProperty(SHA256_KEY);
+    final String downloaded = properties.getProperty(DOWNLOADED_KEY);
+    if (sha256 == null || downloaded == null) {
+      return Optional.empty();
+    }
+    final Instant expiration;
+    try {
+      expiration = Instant.ofEpochMilli(Long.parseLong(downloaded)).plus(ttl);
+    } catch (final NumberFormatException e) {
+      return Optional.empty();
+    }
+    if (!now.isBefore(expiration)) {
+      return Optional.empty();
+    }
+    final Path agent = agentPath(organizationId, sha256);
+    return Files.exists(agent) ? Optional.of(agent) : Optional.empty();
+  }
+
+  /**
+   * Moves a newly downloaded agent into the cache and marks it as the latest agent for the
+   * organization. When the cache already contains an identical agent, the download is discarded and
+   * only the time at which the agent was last validated is updated.
+   *
+   * @param organizationId organization to which the agent belongs
+   * @param download the downloaded agent, which should reside in {@link #directory(String)} so that
+   *     it may be moved into place atomically
+   * @param now the time at which the agent was downloaded
+   * @return path to the cached agent
+   * @throws IOException when fails to write to the cache
+   */
+  Path store(final String organizationId, final AgentDownload download, final Instant now)
+      throws IOException {
+    final Path organizationDirectory = directory(organizationId);
+    Files.createDirectories(organizationDirectory);
+    final Path cached = agentPath(organizationId, download.sha256());
+    try {
+      if (!Files.exists(cached)) {
+        AtomicFiles.move(download.file(), cached);
+      }
+    } finally {
+      Files.deleteIfExists(download.file());
+    }
+    writePointer(organizationDirectory, download.sha256(), now);
+    return cached;
+  }
+
+  /**
+   * @param organizationId organization to which agents belong
+   * @return directory in which the organization's agents are cached, and to which new agents should
+   *     be downloaded
+   */
+  Path directory(final String organizationId) {
+    return directory.resolve(AtomicFiles.safeFileName(organizationId));
+  }
+
+  /**
+   * Places a cached agent at the given destination. Prefers a hard link to avoid copying the agent,
+   * and falls back to copying the agent when the file system does not support links (e.g. the cache
+   * and the destination are on different volumes).
+   *
+   * @param cached path to the cached agent
+   * @param destination where the agent should be placed
+   * @throws IOException when fails to link or copy the agent
+   */
+  static void install(final Path cached, final Path destination) throws IOException {
+    final Path temp =
+        destination.resolveSibling(destination.getFileName() + "." + System.nanoTime() + ".tmp");
+    try {
+      try {
+        Files.createLink(temp, cached);
+      } catch (final IOException | UnsupportedOperationException e) {
+        Files.copy(cached, temp, StandardCopyOption.REPLACE_EXISTING);
+      }
+      AtomicFiles.move(temp, destination);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * @param cached path to an agent returned by this cache
+   * @return hex encoded SHA-256 which the agent should have, from which its file name is derived
+   */
+  static String sha256(final Path cached) {
+    final String name = cached.getFileName().toString();
+    return name.substring(AGENT_PREFIX.length(), name.length() - AGENT_SUFFIX.length());
+  }
+
+  private void writePointer(
+      final Path organizationDirectory, final String sha256, final Instant now) throws IOException {
+    final Properties properties = new Properties();
+    properties.setProperty(SHA256_KEY, sha256);
+    properties.setProperty(DOWNLOADED_KEY, Long.toString(now.toEpochMilli()));
+    AtomicFiles.writeProperties(
+        organizationDirectory.resolve(POINTER_NAME), properties, "Latest Contrast Java agent");
+  }
+
+  private Path agentPath(final String organizationId, final String sha256) {
+    return directory(organizationId).resolve(AGENT_PREFIX + sha256 + AGENT_SUFFIX);
+  }
+
+  private static final String AGENT_PREFIX = "contrast-";
+  private static final String AGENT_SUFFIX = ".jar";
+  private static final String POINTER_NAME = "latest.properties";
+  private static final String SHA256_KEY = "sha256";
+  private static final String DOWNLOADED_KEY = "downloaded";
+}
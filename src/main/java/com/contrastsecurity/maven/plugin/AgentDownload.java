@@ -0,0 +1,135 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+
+/**
+ * A Contrast Java agent which has been streamed from Contrast to a temporary file.
+ *
+ * <p>The agent is copied from the HTTP response to the file system through a small, fixed-size
+ * buffer, and its SHA-256 is computed along the way, so memory use does not depend on the size of
+ * the agent. Callers are responsible for moving the file to its final location.
+ */
+final class AgentDownload {
+
+  private final Path file;
+  private final long size;
+  private final String sha256;
+
+  private AgentDownload(final Path file, final long size, final String sha256) {
+    this.file = file;
+    this.size = size;
+    this.sha256 = sha256;
+  }
+
+  /**
+   * Streams the agent to a new temporary file in the given directory. The directory should reside
+   * on the same file system as the agent's final location so that the file may be moved there
+   * atomically.
+   *
+   * @param is agent contents; not closed by this method
+   * @param directory directory in which to create the temporary file
+   * @return new {@link AgentDownload}
+   * @throws IOException when fails to read the agent, fails to write the temporary file, or the
+   *     downloaded file is not a JAR
+   */
+  static AgentDownload to(final InputStream is, final Path directory) throws IOException {
+    Files.createDirectories(directory);
+    final Path temp = Files.createTempFile(directory, "contrast", ".jar.tmp");
+    try {
+      final MessageDigest digest = Digests.sha256();
+      final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+      final ReadableByteChannel source = Channels.newChannel(is);
+      long size = 0;
+      try (FileChannel destination =
+          FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        while (source.read(buffer) != -1) {
+          buffer.flip();
+          digest.update(buffer.array(), buffer.arrayOffset(), buffer.limit());
+          while (buffer.hasRemaining()) {
+            size += destination.write(buffer);
+          }
+          buffer.clear();
+        }
+        destination.force(true);
+      }
+      if (size < JAR_MAGIC.length) {
+        throw new IOException("Downloaded agent is empty or truncated (" + size + " bytes)");
+      }
+      verifyJarMagic(temp);
+      return new AgentDownload(temp, size, Digests.toHex(digest.digest()));
+    } catch (final IOException | RuntimeException e) {
+      Files.deleteIfExists(temp);
+      throw e;
+    }
+  }
+
+  private static void verifyJarMagic(final Path file) throws IOException {
+    final ByteBuffer header = ByteBuffer.allocate(JAR_MAGIC.length);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      while (header.hasRemaining() && channel.read(header) != -1) {
+        // keep reading until the header is full
+      }
+    }
+    for (int i = 0; i < JAR_MAGIC.length; i++) {
+      if (header.get(i) != JAR_MAGIC[i]) {
+        throw new IOException("Downloaded agent is not a JAR file");
+      }
+    }
+  }
+
+  /**
+   * @return temporary file to which the agent was downloaded
+   */
+  Path file() {
+    return file;
+  }
+
+  /**
+   * @return size of the agent in bytes
+   */
+  long size() {
+    return size;
+  }
+
+  /**
+   * @return hex encoded SHA-256 of the agent
+   */
+  String sha256() {
+    return sha256;
+  }
+
+  /** Size of the buffer used to copy the agent, independent of the agent's size. */
+  private static final int BUFFER_SIZE = 8 * 1024;
+
+  /** Local file header signature with which every JAR begins. */
+  private static final byte[] JAR_MAGIC = {0x50, 0x4b, 0x03, 0x04};
+}
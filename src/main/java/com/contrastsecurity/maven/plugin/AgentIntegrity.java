@@ -0,0 +1,205 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+
+/**
+ * Verifies that an installed Contrast Java agent is an intact JAR before the agent is handed to the
+ * forked test JVM, which otherwise crashes long after the install goal when given a corrupt agent.
+ *
+ * <p>The agent is mapped into memory once. The ZIP end of central directory record and every
+ * central directory entry are validated against the bounds of the file, which detects truncated
+ * agents and agents followed by stale bytes, and the whole mapping is hashed with SHA-256 to
+ * compare against the hash recorded when the agent was downloaded. Mapping avoids copying the agent
+ * through an intermediate buffer, so verifying a typical agent adds tens of milliseconds to the
+ * install goal, most of which is spent hashing. Java 8 offers no way to unmap the file, so the
+ * mapping is released when it is garbage collected.
+ */
+final class AgentIntegrity {
+
+  /**
+   * Validates the structure of the given agent and compares its SHA-256 to the expected hash.
+   *
+   * @param agent agent to verify
+   * @param expectedSha256 hex encoded SHA-256 which the agent should have
+   * @throws IOException when fails to read the agent, the agent is not a well-formed JAR, or its
+   *     hash differs from the expected hash
+   */
+  static void verify(final Path agent, final String expectedSha256) throws IOException {
+    final String sha256 = verify(agent);
+    if (!sha256.equalsIgnoreCase(expectedSha256)) {
+      throw new IOException(
+          "Agent "
+              + agent
+              + " has SHA-256 "
+              + sha256
+              + " but SHA-256 "
+              + expectedSha256
+              + " was expected");
+    }
+  }
+
+  /**
+   * Validates the structure of the given agent.
+   *
+   * @param agent agent to verify
+   * @return hex encoded SHA-256 of the agent
+   * @throws IOException when fails to read the agent, or the agent is not a well-formed JAR
+   */
+  static String verify(final Path agent) throws IOException {
+    final MappedByteBuffer mapped;
+    try (FileChannel channel = FileChannel.open(agent, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("Agent " + agent + " is too large (" + size + " bytes)");
+      }
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+    mapped.order(ByteOrder.LITTLE_ENDIAN);
+    validateCentralDirectory(agent, mapped);
+    final MessageDigest digest = Digests.sha256();
+    mapped.clear();
+    digest.update(mapped);
+    return Digests.toHex(digest.digest());
+  }
+
+  private static void validateCentralDirectory(final Path agent, final MappedByteBuffer zip)
+      throws IOException {
+    final int eocd = findEndOfCentralDirectory(zip);
+    if (eocd < 0) {
+      throw corrupt(agent, "end of central directory not found, the agent may be truncated");
+    }
+    long entries = zip.getShort(eocd + 10) & 0xFFFF;
+    long directorySize = zip.getInt(eocd + 12) & 0xFFFFFFFFL;
+    long directoryOffset = zip.getInt(eocd + 16) & 0xFFFFFFFFL;
+    long directoryEnd = eocd;
+    if (entries == 0xFFFF || directorySize == 0xFFFFFFFFL || directoryOffset == 0xFFFFFFFFL) {
+      final int locator = eocd - ZIP64_LOCATOR_SIZE;
+      if (locator < 0 || zip.getInt(locator) != ZIP64_LOCATOR_SIGNATURE) {
+        throw corrupt(agent, "ZIP64 end of central directory locator not found");
+      }
+      final long record = zip.getLong(locator + 8);
+      if (record < 0
+          || record + ZIP64_EOCD_SIZE > locator
+          || zip.getInt((int) record) != ZIP64_EOCD_SIGNATURE) {
+        throw corrupt(agent, "ZIP64 end of central directory not found");
+      }
+      entries = zip.getLong((int) record + 32);
+      directorySize = zip.getLong((int) record + 40);
+      directoryOffset = zip.getLong((int) record + 48);
+      directoryEnd = record;
+    }
+    if (directoryOffset < 0
+        || directorySize < 0
+        || directoryOffset + directorySize != directoryEnd) {
+      throw corrupt(agent, "central directory does not end where the end record begins");
+    }
+
+    long position = directoryOffset;
+    for (long i = 0; i < entries; i++) {
+      if (position + CENTRAL_HEADER_SIZE > directoryEnd
+          || zip.getInt((int) position) != CENTRAL_HEADER_SIGNATURE) {
+        throw corrupt(agent, "central directory entry " + i + " is malformed");
+      }
+      final int p = (int) position;
+      final long compressedSize = zip.getInt(p + 20) & 0xFFFFFFFFL;
+      final long localOffset = zip.getInt(p + 42) & 0xFFFFFFFFL;
+      if (compressedSize != 0xFFFFFFFFL && localOffset != 0xFFFFFFFFL) {
+        validateLocalHeader(agent, zip, localOffset, compressedSize, directoryOffset);
+      }
+      position +=
+          CENTRAL_HEADER_SIZE
+              + (zip.getShort(p + 28) & 0xFFFF)
+              + (zip.getShort(p + 30) & 0xFFFF)
+              + (zip.getShort(p + 32) & 0xFFFF);
+    }
+    if (position != directoryEnd) {
+      throw corrupt(agent, "central directory size does not match its entries");
+    }
+  }
+
+  private static void validateLocalHeader(
+      final Path agent,
+      final MappedByteBuffer zip,
+      final long offset,
+      final long compressedSize,
+      final long directoryOffset)
+      throws IOException {
+    if (offset + LOCAL_HEADER_SIZE > directoryOffset
+        || zip.getInt((int) offset) != LOCAL_HEADER_SIGNATURE) {
+      throw corrupt(agent, "local file header at offset " + offset + " is malformed");
+    }
+    final long end =
+        offset
+            + LOCAL_HEADER_SIZE
+            + (zip.getShort((int) offset + 26) & 0xFFFF)
+            + (zip.getShort((int) offset + 28) & 0xFFFF)
+            + compressedSize;
+    if (end > directoryOffset) {
+      throw corrupt(agent, "entry at offset " + offset + " overlaps the central directory");
+    }
+  }
+
+  /**
+   * Searches backwards for the end of central directory record, which is followed only by its
+   * comment. Requiring the comment to end exactly at the end of the file rejects agents which are
+   * followed by stale bytes, such as the remainder of a larger file that was overwritten in place.
+   *
+   * @return position of the end of central directory record, or -1 when there is none
+   */
+  private static int findEndOfCentralDirectory(final MappedByteBuffer zip) {
+    final int limit = zip.limit();
+    final int lowest = Math.max(0, limit - EOCD_SIZE - MAX_COMMENT_LENGTH);
+    for (int position = limit - EOCD_SIZE; position >= lowest; position--) {
+      if (zip.getInt(position) == EOCD_SIGNATURE
+          && position + EOCD_SIZE + (zip.getShort(position + 20) & 0xFFFF) == limit) {
+        return position;
+      }
+    }
+    return -1;
+  }
+
+  private static IOException corrupt(final Path agent, final String reason) {
+    return new IOException("Agent " + agent + " is not a valid JAR: " + reason);
+  }
+
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final int LOCAL_HEADER_SIZE = 30;
+  private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+  private static final int CENTRAL_HEADER_SIZE = 46;
+  private static final int EOCD_SIGNATURE = 0x06054b50;
+  private static final int EOCD_SIZE = 22;
+  private static final int ZIP64_EOCD_SIGNATURE = 0x06064b50;
+  private static final int ZIP64_EOCD_SIZE = 56;
+  private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+  private static final int ZIP64_LOCATOR_SIZE = 20;
+  private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+  /** static members only */
+  private AgentIntegrity() {}
+}
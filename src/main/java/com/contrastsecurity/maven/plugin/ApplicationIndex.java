@@ -0,0 +1,117 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * File system index of an organization's application names to application IDs, used to avoid
+ * retrieving the organization's entire application list from Contrast on every build.
+ *
+ * <p>The index expires after the configured time-to-live. Callers rebuild the index from Contrast
+ * whenever a lookup misses, so new applications and renamed applications are discovered without
+ * waiting for the index to expire. Callers confirm an indexed ID with Contrast before using it, and
+ * {@link #invalidate()} the index when the ID is stale, e.g. because the application was deleted.
+ */
+final class ApplicationIndex {
+
+  private final Path file;
+  private final Duration ttl;
+
+  /**
+   * @param file file in which the index is stored
+   * @param ttl how long the index may be used before it must be rebuilt
+   */
+  ApplicationIndex(final Path file, final Duration ttl) {
+    this.file = file;
+    this.ttl = ttl;
+  }
+
+  /**
+   * @param directory directory in which the plugin caches data retrieved from Contrast
+   * @param organizationId organization to which the applications belong
+   * @param ttl how long the index may be used before it must be rebuilt
+   * @return new {@link ApplicationIndex} for the given organization
+   */
+  static ApplicationIndex forOrganization(
+      final Path directory, final String organizationId, final Duration ttl) {
+    final String name = AtomicFiles.safeFileName(organizationId) + ".properties";
+    return new ApplicationIndex(directory.resolve("applications").resolve(name), ttl);
+  }
+
+  /**
+   * @param applicationName name of the application to find
+   * @param now the current time
+   * @return ID of the application, or empty if the index is missing, expired, or does not contain
+   *     the application
+   * @throws IOException when fails to read the index
+   */
+  Optional<String> find(final String applicationName, final Instant now) throws IOException {
+    final Properties properties = AtomicFiles.readProperties(file);
+    final String indexed = properties.getProperty(INDEXED_KEY);
+    if (indexed == null) {
+      return Optional.empty();
+    }
+    try {
+      if (!now.isBefore(Instant.ofEpochMilli(Long.parseLong(indexed)).plus(ttl))) {
+        return Optional.empty();
+      }
+    } catch (final NumberFormatException e) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(properties.getProperty(APPLICATION_PREFIX + applicationName));
+  }
+
+  /**
+   * Replaces the index with the given applications.
+   *
+   * @param applications application names to application IDs
+   * @param now the time at which the applications were retrieved from Contrast
+   * @throws IOException when fails to write the index
+   */
+  void write(final Map<String, String> applications, final Instant now) throws IOException {
+    final Properties properties = new Properties();
+    properties.setProperty(INDEXED_KEY, Long.toString(now.toEpochMilli()));
+    for (final Map.Entry<String, String> entry : applications.entrySet()) {
+      properties.setProperty(APPLICATION_PREFIX + entry.getKey(), entry.getValue());
+    }
+    AtomicFiles.writeProperties(file, properties, "Contrast application names to IDs");
+  }
+
+  /**
+   * Removes the index, so that the next lookup retrieves applications from Contrast.
+   *
+   * @throws IOException when fails to delete the index
+   */
+  void invalidate() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  private static final String INDEXED_KEY = "indexed";
+  private static final String APPLICATION_PREFIX = "application.";
+}
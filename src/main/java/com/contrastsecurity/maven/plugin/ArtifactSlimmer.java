@@ -0,0 +1,182 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Removes third-party libraries nested in an application archive (e.g. {@code BOOT-INF/lib} in a
+ * Spring Boot JAR, or {@code WEB-INF/lib} in a WAR) so that Contrast Scan analyzes only the
+ * application's own code.
+ *
+ * <p>The archive is streamed entry by entry into the slimmed archive without extracting it. When
+ * libraries are to be kept, the archive is streamed twice: once to read the Maven coordinates of
+ * each nested library from its {@code META-INF/maven} entries, and once to copy it.
+ */
+final class ArtifactSlimmer {
+
+  private final List<Pattern> keep;
+
+  /**
+   * @param keep patterns for libraries to keep, matched against each library's file name and
+   *     against its {@code groupId:artifactId}; {@code *} matches any sequence of characters
+   */
+  ArtifactSlimmer(final List<String> keep) {
+    this.keep = new ArrayList<>(keep.size());
+    for (final String pattern : keep) {
+      this.keep.add(toRegex(pattern));
+    }
+  }
+
+  /**
+   * Writes a copy of {@code source} to {@code destination} without the libraries that should be
+   * removed.
+   *
+   * @param source application archive
+   * @param destination where to write the slimmed archive
+   * @return number of libraries removed
+   * @throws IOException when fails to read the source or write the destination
+   */
+  int slim(final Path source, final Path destination) throws IOException {
+    final Set<String> kept = keep.isEmpty() ? new HashSet<>() : findLibrariesToKeep(source);
+    int removed = 0;
+    Files.createDirectories(destination.toAbsolutePath().getParent());
+    try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(source));
+        ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(destination))) {
+      final byte[] buffer = new byte[BUFFER_SIZE];
+      for (ZipEntry entry = zis.getNextEntry(); entry != null; entry = zis.getNextEntry()) {
+        if (isLibrary(entry) && !kept.contains(entry.getName())) {
+          removed++;
+          continue;
+        }
+        zos.putNextEntry(copyOf(entry));
+        copy(zis, zos, buffer);
+        zos.closeEntry();
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * @return names of the library entries in the archive which match one of the patterns to keep
+   */
+  private Set<String> findLibrariesToKeep(final Path source) throws IOException {
+    final Set<String> kept = new HashSet<>();
+    try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(source))) {
+      for (ZipEntry entry = zis.getNextEntry(); entry != null; entry = zis.getNextEntry()) {
+        if (!isLibrary(entry)) {
+          continue;
+        }
+        final String fileName = entry.getName().substring(entry.getName().lastIndexOf('/') + 1);
+        if (matches(fileName)) {
+          kept.add(entry.getName());
+          continue;
+        }
+        // do not close the nested stream, because that would close the outer stream
+        final ZipInputStream nested = new ZipInputStream(zis);
+        for (ZipEntry inner = nested.getNextEntry(); inner != null; inner = nested.getNextEntry()) {
+          final Matcher matcher = POM_PROPERTIES.matcher(inner.getName());
+          if (matcher.matches() && matches(matcher.group(1) + ":" + matcher.group(2))) {
+            kept.add(entry.getName());
+            break;
+          }
+        }
+      }
+    }
+    return kept;
+  }
+
+  private boolean matches(final String value) {
+    for (final Pattern pattern : keep) {
+      if (pattern.matcher(value).matches()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isLibrary(final ZipEntry entry) {
+    return !entry.isDirectory() && LIBRARY.matcher(entry.getName()).matches();
+  }
+
+  /**
+   * Copies the entry's metadata. Stored (uncompressed) entries must remain stored, because tools
+   * such as the Spring Boot launcher require nested libraries to be stored, and the stored size and
+   * CRC are known from the entry's header. Compressed entries are recompressed, so their compressed
+   * size is not copied.
+   */
+  private static ZipEntry copyOf(final ZipEntry entry) {
+    final ZipEntry copy = new ZipEntry(entry.getName());
+    copy.setTime(entry.getTime());
+    if (entry.getExtra() != null) {
+      copy.setExtra(entry.getExtra());
+    }
+    if (entry.getComment() != null) {
+      copy.setComment(entry.getComment());
+    }
+    if (entry.getMethod() == ZipEntry.STORED) {
+      copy.setMethod(ZipEntry.STORED);
+      copy.setSize(entry.getSize());
+      copy.setCompressedSize(entry.getSize());
+      copy.setCrc(entry.getCrc());
+    }
+    return copy;
+  }
+
+  private static void copy(final InputStream is, final OutputStream os, final byte[] buffer)
+      throws IOException {
+    for (int read = is.read(buffer); read != -1; read = is.read(buffer)) {
+      os.write(buffer, 0, read);
+    }
+  }
+
+  private static Pattern toRegex(final String glob) {
+    final StringBuilder regex = new StringBuilder();
+    for (final String part : glob.split("\\*", -1)) {
+      if (regex.length() > 0) {
+        regex.append(".*");
+      }
+      regex.append(Pattern.quote(part));
+    }
+    return Pattern.compile(regex.toString());
+  }
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final Pattern LIBRARY =
+      Pattern.compile("(BOOT-INF/lib|WEB-INF/lib|WEB-INF/lib-provided)/[^/]+\\.jar");
+
+  private static final Pattern POM_PROPERTIES =
+      Pattern.compile("META-INF/maven/([^/]+)/([^/]+)/pom\\.properties");
+}
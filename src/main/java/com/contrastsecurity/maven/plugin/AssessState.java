@@ -0,0 +1,158 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * State that the {@code install} goal passes to the {@code verify} goal of the same module, stored
+ * in the module's build directory. Keeping this state per module, rather than in memory shared by
+ * every module, lets modules install and verify the agent concurrently in parallel builds.
+ *
+ * <p>The {@code verify} goal adds the IDs it resolves from Contrast, so that later runs of the goal
+ * need not resolve them again.
+ */
+final class AssessState {
+
+  private final Properties properties;
+
+  /** Creates new, empty state */
+  AssessState() {
+    this(new Properties());
+  }
+
+  private AssessState(final Properties properties) {
+    this.properties = properties;
+  }
+
+  /**
+   * @param file file in which the state is stored
+   * @return state read from the given file, or empty state if the file does not exist
+   * @throws IOException when fails to read the file
+   */
+  static AssessState read(final Path file) throws IOException {
+    return new AssessState(AtomicFiles.readProperties(file));
+  }
+
+  /**
+   * @param file file in which to store the state
+   * @throws IOException when fails to write the file
+   */
+  void write(final Path file) throws IOException {
+    AtomicFiles.writeProperties(file, properties, "Contrast Assess state");
+  }
+
+  /**
+   * @return {@code true} when the {@code install} goal has not recorded any state
+   */
+  boolean isEmpty() {
+    return properties.isEmpty();
+  }
+
+  String getAppVersion() {
+    return properties.getProperty(APP_VERSION_KEY);
+  }
+
+  void setAppVersion(final String appVersion) {
+    set(APP_VERSION_KEY, appVersion);
+  }
+
+  String getAppName() {
+    return properties.getProperty(APP_NAME_KEY);
+  }
+
+  void setAppName(final String appName) {
+    set(APP_NAME_KEY, appName);
+  }
+
+  String getAppId() {
+    return properties.getProperty(APP_ID_KEY);
+  }
+
+  void setAppId(final String appId) {
+    set(APP_ID_KEY, appId);
+  }
+
+  String getServerName() {
+    return properties.getProperty(SERVER_NAME_KEY);
+  }
+
+  void setServerName(final String serverName) {
+    set(SERVER_NAME_KEY, serverName);
+  }
+
+  /**
+   * @return IDs of the servers with the recorded server name, or an empty list if they have not
+   *     been resolved
+   */
+  List<Long> getServerIds() {
+    final String value = properties.getProperty(SERVER_IDS_KEY);
+    if (value == null || value.isEmpty()) {
+      return Collections.emptyList();
+    }
+    final List<Long> ids = new ArrayList<>();
+    for (final String id : value.split(",")) {
+      try {
+        ids.add(Long.parseLong(id));
+      } catch (final NumberFormatException e) {
+        return Collections.emptyList();
+      }
+    }
+    return ids;
+  }
+
+  void setServerIds(final List<Long> serverIds) {
+    set(
+        SERVER_IDS_KEY,
+        serverIds == null
+            ? null
+            : serverIds.stream().map(String::valueOf).collect(Collectors.joining(",")));
+  }
+
+  String getAgentPath() {
+    return properties.getProperty(AGENT_PATH_KEY);
+  }
+
+  void setAgentPath(final String agentPath) {
+    set(AGENT_PATH_KEY, agentPath);
+  }
+
+  private void set(final String key, final String value) {
+    if (value == null) {
+      properties.remove(key);
+    } else {
+      properties.setProperty(key, value);
+    }
+  }
+
+  private static final String APP_VERSION_KEY = "appVersion";
+  private static final String APP_NAME_KEY = "appName";
+  private static final String APP_ID_KEY = "appId";
+  private static final String SERVER_NAME_KEY = "serverName";
+  private static final String SERVER_IDS_KEY = "serverIds";
+  private static final String AGENT_PATH_KEY = "agentPath";
+}
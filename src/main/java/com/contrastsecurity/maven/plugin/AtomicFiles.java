@@ -0,0 +1,191 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.function.Predicate;
+
+/**
+ * Static utilities for reading and writing the small files that the plugin shares between goals and
+ * between builds. Writes go to a temporary file in the same directory followed by an atomic rename,
+ * so that concurrent readers never observe a partially written file.
+ */
+final class AtomicFiles {
+
+  /** Writes the content of a file */
+  interface Content {
+
+    /**
+     * @param writer writes to the file
+     * @throws IOException when fails to write
+     */
+    void write(Writer writer) throws IOException;
+  }
+
+  /**
+   * Renames {@code source} to {@code target}, replacing {@code target} if it exists. Falls back to
+   * a non-atomic replace on file systems that do not support atomic moves.
+   *
+   * @param source file to move
+   * @param target destination
+   * @throws IOException when fails to move the file
+   */
+  static void move(final Path source, final Path target) throws IOException {
+    try {
+      Files.move(
+          source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (final AtomicMoveNotSupportedException | FileAlreadyExistsException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Atomically replaces the given file with the given properties, creating parent directories as
+   * needed.
+   *
+   * @param file file to write
+   * @param properties properties to write
+   * @param comment comment to include at the top of the file
+   * @throws IOException when fails to write the file
+   */
+  static void writeProperties(final Path file, final Properties properties, final String comment)
+      throws IOException {
+    final Path temp = createTempFile(file);
+    try {
+      try (OutputStream os = Files.newOutputStream(temp)) {
+        properties.store(os, comment);
+      }
+      move(temp, file);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Atomically replaces the given file with the given UTF-8 text content, creating parent
+   * directories as needed.
+   *
+   * @param file file to write
+   * @param content writes the text of the file
+   * @throws IOException when fails to write the file
+   */
+  static void write(final Path file, final Content content) throws IOException {
+    final Path temp = createTempFile(file);
+    try {
+      try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+        content.write(writer);
+      }
+      move(temp, file);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * @param file properties file to read
+   * @return properties read from the file, or empty properties if the file does not exist
+   * @throws IOException when fails to read the file
+   */
+  static Properties readProperties(final Path file) throws IOException {
+    final Properties properties = new Properties();
+    if (Files.exists(file)) {
+      try (InputStream is = Files.newInputStream(file)) {
+        properties.load(is);
+      }
+    }
+    return properties;
+  }
+
+  /**
+   * Reads the given properties file, updates the properties, and atomically replaces the file with
+   * the updated properties. Updates are serialized within the JVM, so that modules built
+   * concurrently which update the same file do not lose each other's updates.
+   *
+   * @param file properties file to update
+   * @param comment comment to include at the top of the file
+   * @param update modifies the properties, and returns {@code true} when the file should be written
+   * @throws IOException when fails to read or write the file
+   */
+  static void updateProperties(
+      final Path file, final String comment, final Predicate<Properties> update)
+      throws IOException {
+    synchronized (UPDATE_LOCK) {
+      final Properties properties = readProperties(file);
+      if (update.test(properties)) {
+        writeProperties(file, properties, comment);
+      }
+    }
+  }
+
+  /**
+   * Derives a file name from an identifier. ASCII letters, digits, {@code _}, and {@code -} are
+   * kept, and every other byte of the identifier's UTF-8 encoding is percent-encoded, so that the
+   * name is safe to use on every platform and cannot name another directory. Because {@code %} is
+   * itself encoded, distinct identifiers always have distinct file names (e.g. {@code 1.2} and
+   * {@code 1_2} become {@code 1%2E2} and {@code 1_2}).
+   *
+   * @param id identifier, such as an organization ID or a project name, from which to derive a file
+   *     name
+   * @return the encoded identifier
+   */
+  static String safeFileName(final String id) {
+    final StringBuilder name = new StringBuilder(id.length());
+    for (final byte b : id.getBytes(StandardCharsets.UTF_8)) {
+      if ((b >= 'A' && b <= 'Z')
+          || (b >= 'a' && b <= 'z')
+          || (b >= '0' && b <= '9')
+          || b == '_'
+          || b == '-') {
+        name.append((char) b);
+      } else {
+        name.append(String.format("%%%02X", b & 0xFF));
+      }
+    }
+    return name.toString();
+  }
+
+  /**
+   * @param file file that is to be replaced
+   * @return new temporary file in the same directory as {@code file}, so that it may be moved to
+   *     {@code file} atomically
+   * @throws IOException when fails to create the directory or the file
+   */
+  private static Path createTempFile(final Path file) throws IOException {
+    final Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    return Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+  }
+
+  private static final Object UPDATE_LOCK = new Object();
+
+  /** static members only */
+  private AtomicFiles() {}
+}
@@ -0,0 +1,66 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Exponentially increasing delays with jitter, used to space out repeated requests to Contrast.
+ * Each delay is randomly adjusted by up to 25% in either direction, so that many builds waiting on
+ * Contrast at the same time do not synchronize their requests.
+ *
+ * <p>Not thread safe: each sequence of requests uses its own instance.
+ */
+final class Backoff {
+
+  private final long initialDelay;
+  private final long maxDelay;
+  private final Random random;
+  private long delay;
+
+  /**
+   * @param initialDelay first delay, before jitter
+   * @param maxDelay upper bound on the delay, before jitter
+   * @param random source of jitter
+   */
+  Backoff(final Duration initialDelay, final Duration maxDelay, final Random random) {
+    this.initialDelay = initialDelay.toMillis();
+    this.maxDelay = maxDelay.toMillis();
+    this.random = random;
+    this.delay = this.initialDelay;
+  }
+
+  /**
+   * @return number of milliseconds to wait before the next request, which is twice the previous
+   *     delay up to the maximum delay, adjusted by jitter
+   */
+  long next() {
+    final long wait = (long) (delay * (0.75 + random.nextDouble() * 0.5));
+    delay = Math.min(delay * 2, maxDelay);
+    return wait;
+  }
+
+  /** Starts again from the initial delay */
+  void reset() {
+    delay = initialDelay;
+  }
+}
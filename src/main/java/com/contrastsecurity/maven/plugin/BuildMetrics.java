@@ -0,0 +1,366 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.gson.stream.JsonWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how long one execution of a goal spends in each of its phases (e.g. downloading the
+ * agent, uploading the artifact, waiting for the scan), along with counters such as the number of
+ * requests made to Contrast and the number of bytes transferred. Safe for use by the threads of a
+ * goal that works concurrently.
+ *
+ * <p>Written as JSON, and optionally as <a href="https://openmetrics.io">OpenMetrics</a> text, by
+ * {@link Reports}, which collects the metrics of every goal that executes in a module.
+ */
+final class BuildMetrics {
+
+  /** Number of requests the plugin made to Contrast */
+  static final String HTTP_REQUESTS = "http.requests";
+
+  /** Number of requests to Contrast the plugin retried after they failed */
+  static final String HTTP_RETRIES = "http.retries";
+
+  /** Number of bytes sent to Contrast */
+  static final String BYTES_UPLOADED = "bytes.uploaded";
+
+  /** Number of bytes received from Contrast */
+  static final String BYTES_DOWNLOADED = "bytes.downloaded";
+
+  /** Time spent in one phase of a goal, which may be repeated */
+  private static final class Phase {
+
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    synchronized void record(final long nanos) {
+      count++;
+      totalNanos += nanos;
+      maxNanos = Math.max(maxNanos, nanos);
+    }
+  }
+
+  /** Measures one occurrence of a phase, from its creation until it is closed */
+  final class Span implements AutoCloseable {
+
+    private final String phase;
+    private final long start = System.nanoTime();
+    private boolean closed;
+
+    private Span(final String phase) {
+      this.phase = phase;
+    }
+
+    /** Records the time since this span started. Has no effect when already closed. */
+    @Override
+    public void close() {
+      final long elapsed = System.nanoTime() - start;
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        closed = true;
+      }
+      phases.computeIfAbsent(phase, ignored -> new Phase()).record(elapsed);
+    }
+  }
+
+  private final String goal;
+  private final String execution;
+  private final Instant started = Instant.now();
+  private final long start = System.nanoTime();
+  private final ConcurrentMap<String, Phase> phases = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+  private volatile long durationNanos = -1;
+  private volatile String outcome;
+
+  /**
+   * @param goal name of the goal that these metrics describe
+   * @param execution ID of the goal's execution, or {@code null} if unknown
+   */
+  BuildMetrics(final String goal, final String execution) {
+    this.goal = goal;
+    this.execution = execution;
+  }
+
+  /**
+   * @param phase name of the phase that begins
+   * @return span which records the phase's duration once closed
+   */
+  Span span(final String phase) {
+    return new Span(phase);
+  }
+
+  /**
+   * @param counter name of the counter to increment
+   */
+  void increment(final String counter) {
+    add(counter, 1);
+  }
+
+  /**
+   * @param counter name of the counter to increase
+   * @param delta amount by which to increase the counter
+   */
+  void add(final String counter, final long delta) {
+    counters.computeIfAbsent(counter, ignored -> new LongAdder()).add(delta);
+  }
+
+  /**
+   * @param in stream to count
+   * @param counter name of the counter to which the bytes read from the stream are added
+   * @return stream which reads from the given stream and counts the bytes read
+   */
+  InputStream count(final InputStream in, final String counter) {
+    return new FilterInputStream(in) {
+      @Override
+      public int read() throws IOException {
+        final int b = super.read();
+        if (b != -1) {
+          add(counter, 1);
+        }
+        return b;
+      }
+
+      @Override
+      public int read(final byte[] b, final int off, final int len) throws IOException {
+        final int n = super.read(b, off, len);
+        if (n > 0) {
+          add(counter, n);
+        }
+        return n;
+      }
+    };
+  }
+
+  /**
+   * Records the end of the goal's execution.
+   *
+   * @param succeeded whether the goal succeeded
+   */
+  void finish(final boolean succeeded) {
+    durationNanos = System.nanoTime() - start;
+    outcome = succeeded ? "success" : "failure";
+  }
+
+  /**
+   * @param phase name of a phase
+   * @return number of times the phase occurred
+   */
+  long phaseCount(final String phase) {
+    final Phase recorded = phases.get(phase);
+    if (recorded == null) {
+      return 0;
+    }
+    synchronized (recorded) {
+      return recorded.count;
+    }
+  }
+
+  /**
+   * @param counter name of a counter
+   * @return the counter's value
+   */
+  long counter(final String counter) {
+    final LongAdder adder = counters.get(counter);
+    return adder == null ? 0 : adder.sum();
+  }
+
+  private void writeJson(final JsonWriter json) throws IOException {
+    json.beginObject();
+    json.name("goal").value(goal);
+    if (execution != null) {
+      json.name("execution").value(execution);
+    }
+    json.name("started").value(started.toString());
+    if (outcome != null) {
+      json.name("outcome").value(outcome);
+      json.name("durationMs").value(TimeUnit.NANOSECONDS.toMillis(durationNanos));
+    }
+    json.name("phases").beginObject();
+    for (final Map.Entry<String, Phase> entry : new TreeMap<>(phases).entrySet()) {
+      final Phase phase = entry.getValue();
+      synchronized (phase) {
+        json.name(entry.getKey()).beginObject();
+        json.name("count").value(phase.count);
+        json.name("totalMs").value(TimeUnit.NANOSECONDS.toMillis(phase.totalNanos));
+        json.name("maxMs").value(TimeUnit.NANOSECONDS.toMillis(phase.maxNanos));
+        json.endObject();
+      }
+    }
+    json.endObject();
+    json.name("counters").beginObject();
+    for (final Map.Entry<String, LongAdder> entry : new TreeMap<>(counters).entrySet()) {
+      json.name(entry.getKey()).value(entry.getValue().sum());
+    }
+    json.endObject();
+    json.endObject();
+  }
+
+  /**
+   * @return OpenMetrics labels which identify this goal execution
+   */
+  private String labels() {
+    final StringBuilder sb = new StringBuilder("goal=\"").append(escape(goal)).append('"');
+    if (execution != null) {
+      sb.append(",execution=\"").append(escape(execution)).append('"');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Writes the metrics of the given goals in the OpenMetrics text format. OpenMetrics requires that
+   * each metric family appears once, so the goals' samples are grouped by family.
+   */
+  private static void writeOpenMetrics(final Writer out, final Collection<BuildMetrics> goals)
+      throws IOException {
+    out.write("# TYPE contrast_goal_duration_seconds gauge\n");
+    out.write("# UNIT contrast_goal_duration_seconds seconds\n");
+    for (final BuildMetrics metrics : goals) {
+      if (metrics.outcome != null) {
+        out.write(
+            "contrast_goal_duration_seconds{"
+                + metrics.labels()
+                + ",outcome=\""
+                + metrics.outcome
+                + "\"} "
+                + seconds(metrics.durationNanos)
+                + "\n");
+      }
+    }
+    out.write("# TYPE contrast_phase_duration_seconds summary\n");
+    out.write("# UNIT contrast_phase_duration_seconds seconds\n");
+    for (final BuildMetrics metrics : goals) {
+      for (final Map.Entry<String, Phase> entry : new TreeMap<>(metrics.phases).entrySet()) {
+        final String labels = metrics.labels() + ",phase=\"" + escape(entry.getKey()) + "\"";
+        final Phase phase = entry.getValue();
+        synchronized (phase) {
+          out.write("contrast_phase_duration_seconds_count{" + labels + "} " + phase.count + "\n");
+          out.write(
+              "contrast_phase_duration_seconds_sum{"
+                  + labels
+                  + "} "
+                  + seconds(phase.totalNanos)
+                  + "\n");
+        }
+      }
+    }
+    final Map<String, List<String>> families = new TreeMap<>();
+    for (final BuildMetrics metrics : goals) {
+      for (final Map.Entry<String, LongAdder> entry : new TreeMap<>(metrics.counters).entrySet()) {
+        final String family =
+            "contrast_" + entry.getKey().replaceAll("[^A-Za-z0-9_]", "_").toLowerCase(Locale.ROOT);
+        families
+            .computeIfAbsent(family, ignored -> new ArrayList<>())
+            .add(family + "_total{" + metrics.labels() + "} " + entry.getValue().sum() + "\n");
+      }
+    }
+    for (final Map.Entry<String, List<String>> family : families.entrySet()) {
+      out.write("# TYPE " + family.getKey() + " counter\n");
+      for (final String sample : family.getValue()) {
+        out.write(sample);
+      }
+    }
+    out.write("# EOF\n");
+  }
+
+  private static String seconds(final long nanos) {
+    return Double.toString(nanos / 1e9);
+  }
+
+  private static String escape(final String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  /**
+   * Collects the metrics of the goals that execute in each module of a build, and writes them to
+   * the module's metrics file each time a goal finishes, so that the file describes every goal of
+   * the module that has executed so far in this build. Shared by the build using {@link
+   * SessionContext}.
+   */
+  static final class Reports {
+
+    private final Map<Path, Map<String, BuildMetrics>> files = new LinkedHashMap<>();
+
+    /**
+     * @param file JSON file to which the module's metrics are written
+     * @param metrics metrics of the goal that finished
+     * @param openMetrics {@code true} to also write the metrics in the OpenMetrics text format, to
+     *     a file next to the JSON file with the extension {@code .txt}
+     * @throws IOException when fails to write the metrics
+     */
+    synchronized void write(final Path file, final BuildMetrics metrics, final boolean openMetrics)
+        throws IOException {
+      final Map<String, BuildMetrics> goals =
+          files.computeIfAbsent(file.toAbsolutePath(), ignored -> new LinkedHashMap<>());
+      goals.put(metrics.goal + "/" + metrics.execution, metrics);
+      writeJson(file, goals.values());
+      if (openMetrics) {
+        final String name = file.getFileName().toString();
+        final String base =
+            name.endsWith(".json") ? name.substring(0, name.length() - ".json".length()) : name;
+        writeOpenMetrics(file.resolveSibling(base + ".txt"), goals.values());
+      }
+    }
+
+    private static void writeJson(final Path file, final Collection<BuildMetrics> goals)
+        throws IOException {
+      AtomicFiles.write(
+          file,
+          writer -> {
+            try (JsonWriter json = new JsonWriter(writer)) {
+              json.setIndent("  ");
+              json.beginObject();
+              json.name("goals").beginArray();
+              for (final BuildMetrics metrics : goals) {
+                metrics.writeJson(json);
+              }
+              json.endArray();
+              json.endObject();
+            }
+          });
+    }
+
+    private static void writeOpenMetrics(final Path file, final Collection<BuildMetrics> goals)
+        throws IOException {
+      AtomicFiles.write(file, writer -> BuildMetrics.writeOpenMetrics(writer, goals));
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.time.Duration;
+
+/**
+ * Stops the goals of a build from sending requests to Contrast while Contrast appears unavailable,
+ * so that the many modules of a large build do not all retry against a degraded server at once.
+ * Shared by the build using {@link SessionContext}.
+ *
+ * <p>Opens after a number of consecutive requests fail with a network or server error. While open,
+ * {@link #permit()} withholds permission for any request. Once the open period elapses, permits a
+ * single request to probe Contrast: the breaker closes when the probe succeeds, opens again when it
+ * fails, and permits another probe when its outcome is unknown.
+ */
+final class CircuitBreaker {
+
+  private final int failureThreshold;
+  private final Duration openDuration;
+  private final Clock clock;
+  private int consecutiveFailures;
+  private long openUntil;
+  private boolean probing;
+
+  /**
+   * @param failureThreshold number of consecutive failed requests after which the breaker opens
+   * @param openDuration how long the breaker stays open before it permits a probe
+   * @param clock clock used to measure the open period
+   */
+  CircuitBreaker(final int failureThreshold, final Duration openDuration, final Clock clock) {
+    this.failureThreshold = failureThreshold;
+    this.openDuration = openDuration;
+    this.clock = clock;
+  }
+
+  /**
+   * @return zero when a request may proceed, otherwise the number of milliseconds after which the
+   *     caller may ask again
+   */
+  synchronized long permit() {
+    if (consecutiveFailures < failureThreshold) {
+      return 0;
+    }
+    final long now = clock.millis();
+    if (now < openUntil) {
+      return openUntil - now;
+    }
+    if (probing) {
+      // another request is probing Contrast, wait for its outcome
+      return PROBE_WAIT_MS;
+    }
+    probing = true;
+    return 0;
+  }
+
+  /** Records a request which reached Contrast and which Contrast processed, or declined */
+  synchronized void onSuccess() {
+    consecutiveFailures = 0;
+    probing = false;
+  }
+
+  /** Records a request which failed due to a network error or a server error */
+  synchronized void onFailure() {
+    consecutiveFailures++;
+    probing = false;
+    if (consecutiveFailures >= failureThreshold) {
+      openUntil = clock.millis() + openDuration.toMillis();
+    }
+  }
+
+  /**
+   * Records a request whose outcome is unknown, such as one interrupted because the build is
+   * stopping. Records neither success nor failure, but permits another request to probe Contrast.
+   */
+  synchronized void release() {
+    probing = false;
+  }
+
+  /**
+   * @return number of consecutive requests which have failed
+   */
+  synchronized int consecutiveFailures() {
+    return consecutiveFailures;
+  }
+
+  private static final long PROBE_WAIT_MS = 1000;
+}
@@ -0,0 +1,53 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Abstraction over {@link Thread#sleep(long)} and the system clock, so that the plugin's polling,
+ * backoff, and timing logic can be tested without waiting.
+ */
+interface Clock {
+
+  /**
+   * @return the current time in milliseconds
+   */
+  long millis();
+
+  /**
+   * @param millis time (in milliseconds) to wait
+   * @throws InterruptedException when interrupted while waiting
+   */
+  void sleep(long millis) throws InterruptedException;
+
+  /** {@link Clock} backed by the system clock */
+  Clock SYSTEM =
+      new Clock() {
+        @Override
+        public long millis() {
+          return System.currentTimeMillis();
+        }
+
+        @Override
+        public void sleep(final long millis) throws InterruptedException {
+          Thread.sleep(millis);
+        }
+      };
+}
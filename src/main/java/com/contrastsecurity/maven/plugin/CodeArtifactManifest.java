@@ -0,0 +1,126 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * File system manifest of the code artifacts that this machine has uploaded to a Contrast Scan
+ * project, keyed by the SHA-256 of the uploaded file. Used to start new scans of an artifact that
+ * has not changed since it was last uploaded without uploading it again.
+ *
+ * <p>The manifest retains only the most recently uploaded artifacts.
+ */
+final class CodeArtifactManifest {
+
+  private final Path file;
+
+  /**
+   * @param file file in which the manifest is stored
+   */
+  CodeArtifactManifest(final Path file) {
+    this.file = file;
+  }
+
+  /**
+   * @param directory directory in which the plugin caches data retrieved from Contrast
+   * @param organizationId organization to which the project belongs
+   * @param projectId ID of the Contrast Scan project
+   * @return new {@link CodeArtifactManifest} for the given project
+   */
+  static CodeArtifactManifest forProject(
+      final Path directory, final String organizationId, final String projectId) {
+    return new CodeArtifactManifest(
+        directory
+            .resolve("scan")
+            .resolve(AtomicFiles.safeFileName(organizationId))
+            .resolve(AtomicFiles.safeFileName(projectId) + ".properties"));
+  }
+
+  /**
+   * @param sha256 hex encoded SHA-256 of the artifact
+   * @return ID of the code artifact previously uploaded with the given hash, or empty if there is
+   *     no such artifact
+   * @throws IOException when fails to read the manifest
+   */
+  Optional<String> find(final String sha256) throws IOException {
+    final String value = AtomicFiles.readProperties(file).getProperty(sha256);
+    if (value == null) {
+      return Optional.empty();
+    }
+    final int separator = value.indexOf(' ');
+    return Optional.of(separator < 0 ? value : value.substring(0, separator));
+  }
+
+  /**
+   * Records a newly uploaded code artifact, evicting the least recently uploaded artifacts when the
+   * manifest is full.
+   *
+   * @param sha256 hex encoded SHA-256 of the artifact
+   * @param codeArtifactId ID of the uploaded code artifact
+   * @param now the time at which the artifact was uploaded
+   * @throws IOException when fails to update the manifest
+   */
+  void put(final String sha256, final String codeArtifactId, final Instant now) throws IOException {
+    AtomicFiles.updateProperties(
+        file,
+        COMMENT,
+        properties -> {
+          properties.setProperty(sha256, codeArtifactId + " " + now.toEpochMilli());
+          if (properties.size() > MAX_ENTRIES) {
+            final List<String> hashes = new ArrayList<>(properties.stringPropertyNames());
+            hashes.sort(Comparator.comparingLong(hash -> uploaded(properties.getProperty(hash))));
+            for (final String hash : hashes.subList(0, properties.size() - MAX_ENTRIES)) {
+              properties.remove(hash);
+            }
+          }
+          return true;
+        });
+  }
+
+  /**
+   * Forgets the code artifact with the given hash, e.g. because it no longer exists in Contrast.
+   *
+   * @param sha256 hex encoded SHA-256 of the artifact
+   * @throws IOException when fails to update the manifest
+   */
+  void remove(final String sha256) throws IOException {
+    AtomicFiles.updateProperties(file, COMMENT, properties -> properties.remove(sha256) != null);
+  }
+
+  private static long uploaded(final String value) {
+    final int separator = value.indexOf(' ');
+    try {
+      return separator < 0 ? 0 : Long.parseLong(value.substring(separator + 1));
+    } catch (final NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private static final int MAX_ENTRIES = 32;
+  private static final String COMMENT = "Contrast Scan code artifacts by SHA-256";
+}
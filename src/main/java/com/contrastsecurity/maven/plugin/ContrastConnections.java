@@ -0,0 +1,63 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.contrastsecurity.sdk.ContrastSDK;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.maven.plugin.MojoFailureException;
+
+/**
+ * Registry of {@link ContrastSDK} connections shared by every goal and module in a build (see
+ * {@link SessionContext}). Connections are keyed by everything that configures them: the Contrast
+ * URL, credentials, and proxy. Sharing one connection per configuration avoids building a new
+ * client, and configuring the proxy, for every goal execution.
+ */
+final class ContrastConnections {
+
+  /** Creates a new connection to Contrast */
+  interface Connector {
+    ContrastSDK connect() throws MojoFailureException;
+  }
+
+  private final Map<List<Object>, ContrastSDK> connections = new HashMap<>();
+
+  /**
+   * Retrieves the connection with the given configuration, creating it if this is the first request
+   * for the configuration. Connections are created one at a time, because creating a connection may
+   * change JVM-wide state such as the default {@link java.net.Authenticator}.
+   *
+   * @param key values that configure the connection
+   * @param connector creates the connection when it does not yet exist
+   * @return the connection
+   * @throws MojoFailureException when fails to create the connection
+   */
+  synchronized ContrastSDK get(final List<Object> key, final Connector connector)
+      throws MojoFailureException {
+    ContrastSDK contrast = connections.get(key);
+    if (contrast == null) {
+      contrast = connector.connect();
+      connections.put(key, contrast);
+    }
+    return contrast;
+  }
+}
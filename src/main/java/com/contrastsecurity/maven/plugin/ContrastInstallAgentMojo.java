@@ -21,27 +21,41 @@ package com.contrastsecurity.maven.plugin;
  */
 
 import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.http.HttpMethod;
+import com.contrastsecurity.http.UrlBuilder;
 import com.contrastsecurity.models.AgentType;
 import com.contrastsecurity.models.Applications;
 import com.contrastsecurity.sdk.ContrastSDK;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.TreeMap;
 import org.apache.maven.model.Plugin;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.util.FileUtils;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
 
 /**
  * Includes the Contrast Java agent in integration testing to provide Contrast Assess runtime
@@ -53,6 +67,14 @@ public final class ContrastInstallAgentMojo extends AbstractAssessMojo {
   @Parameter(defaultValue = "${project}", readonly = true)
   private MavenProject project;
 
+  @Component RepositorySystem repositorySystem;
+
+  @Parameter(defaultValue = "${repositorySystemSession}", readonly = true)
+  RepositorySystemSession repositorySystemSession;
+
+  @Parameter(defaultValue = "${project.remoteProjectRepositories}", readonly = true)
+  List<RemoteRepository> remoteRepositories;
+
   /**
    * When {@code true}, will not alter the Maven {@code argLine} property.
    *
@@ -100,6 +122,48 @@ public final class ContrastInstallAgentMojo extends AbstractAssessMojo {
   @Parameter(property = "jarPath")
   private String jarPath;
 
+  /**
+   * Version of the Contrast Java agent to use, instead of the latest agent from Contrast. The
+   * plugin resolves the agent artifact {@code com.contrastsecurity:contrast-agent} of this version
+   * like any other Maven artifact: from the local repository, or from the project's remote
+   * repositories when the local repository lacks it, so that builds are reproducible. Ignored when
+   * {@code jarPath} is set.
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "agentVersion")
+  String agentVersion;
+
+  /**
+   * When {@code true}, agents downloaded from Contrast are stored in the {@code agents} directory of
+   * {@code contrastCacheDirectory}, shared by all builds on this machine, and subsequent builds use
+   * the cached agent instead of downloading it again until the cached agent expires.
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "useAgentCache", defaultValue = "" + true)
+  boolean useAgentCache;
+
+  /**
+   * Time (in milliseconds) for which a cached agent may be used before the plugin downloads the
+   * agent from Contrast again to check for a newer version.
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "agentCacheTtlMs", defaultValue = "" + 24 * 60 * 60 * 1000)
+  long agentCacheTtlMs;
+
+  /**
+   * When {@code true}, the first module in the build to execute this goal installs the agent in the
+   * build directory of the top-level project, and every other module configures its {@code argLine}
+   * to use that agent, rather than each module installing its own copy of the agent in its own
+   * build directory. Has no effect when {@code jarPath} is set.
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "shareAgent", defaultValue = "false")
+  boolean shareAgent;
+
   /**
    * Define a set of key=value pairs (which conforms to RFC 2253) for specifying user-defined
    * metadata associated with the application. The set must be formatted as a comma-delimited list.
@@ -159,13 +223,25 @@ public final class ContrastInstallAgentMojo extends AbstractAssessMojo {
     environmentToSessionMetadata.put("CIRCLE_BUILD_NUM", "buildNumber");
   }
 
+  /** For testing. Maven will set the field directly */
+  void setProject(final MavenProject project) {
+    this.project = project;
+  }
+
   public void execute() throws MojoFailureException {
+    measure(this::install);
+  }
+
+  private void install() throws MojoFailureException {
     verifyAppIdOrNameNotNull();
     getLog().info("Attempting to connect to Contrast and install the Java agent.");
 
     ContrastSDK contrast = connectToContrast();
 
-    Path agent = installJavaAgent(contrast);
+    final Path agent;
+    try (BuildMetrics.Span ignored = getMetrics().span("agent.install")) {
+      agent = installJavaAgent(contrast);
+    }
     contrastAgentLocation = agent.toAbsolutePath().toString();
 
     getLog().info("Agent downloaded.");
@@ -205,14 +281,32 @@ public final class ContrastInstallAgentMojo extends AbstractAssessMojo {
         break;
       }
     }
+
+    // save state for the verify goal
+    final AssessState state = new AssessState();
+    state.setAppVersion(computedAppVersion);
+    state.setAppName(applicationName);
+    state.setAppId(getAppId());
+    state.setServerName(getServerName());
+    state.setAgentPath(contrastAgentLocation);
+    try {
+      writeState(state);
+    } catch (final IOException e) {
+      throw new MojoFailureException("Unable to save the Contrast state for the verify goal", e);
+    }
   }
 
   private String getAppName(ContrastSDK contrastSDK, String applicationId)
       throws MojoFailureException {
     Applications applications;
-    try {
+    try (BuildMetrics.Span ignored = getMetrics().span("application.lookup")) {
       final String organizationID = getOrganizationId();
-      applications = contrastSDK.getApplication(organizationID, applicationId);
+      applications =
+          getRetryPolicy()
+              .execute(
+                  "retrieve application " + applicationId,
+                  true,
+                  () -> contrastSDK.getApplication(organizationID, applicationId));
     } catch (Exception e) {
       String logMessage;
       if (e.getMessage().contains("403")) {
@@ -373,11 +467,139 @@ public final class ContrastInstallAgentMojo extends AbstractAssessMojo {
       return agent;
     }
 
-    getLog().info("No jar path was configured. Downloading the latest contrast.jar...");
-    final byte[] bytes;
+    if (agentVersion != null) {
+      return resolveJavaAgent();
+    }
+
+    if (shareAgent && getSession() != null) {
+      final MavenProject root =
+          getSession().getTopLevelProject() == null ? project : getSession().getTopLevelProject();
+      final Path target = Paths.get(root.getBuild().getDirectory()).toAbsolutePath();
+      final Path agent =
+          SessionContext.get(getSession(), SharedAgents.class, SharedAgents::new)
+              .get(
+                  Arrays.asList(getURL(), getOrganizationId(), target),
+                  () -> installJavaAgent(connection, target));
+      getLog().info("Using the java agent shared by every module at " + agent);
+      return agent;
+    }
+
+    // Save the jar to the 'target' directory
+    return installJavaAgent(connection, Paths.get(project.getBuild().getDirectory()));
+  }
+
+  /**
+   * Resolves the configured {@link #agentVersion} of the agent through Maven's repository system.
+   *
+   * @return path to the agent in the local repository
+   * @throws MojoFailureException when the agent cannot be resolved, or the resolved agent is not an
+   *     intact JAR
+   */
+  private Path resolveJavaAgent() throws MojoFailureException {
+    final String coordinates = AGENT_GROUP_ID + ":" + AGENT_ARTIFACT_ID + ":" + agentVersion;
+    final ArtifactRequest request =
+        new ArtifactRequest(
+            new DefaultArtifact(AGENT_GROUP_ID, AGENT_ARTIFACT_ID, "jar", agentVersion),
+            remoteRepositories,
+            null);
+    final File agent;
+    try (BuildMetrics.Span ignored = getMetrics().span("agent.resolve")) {
+      agent =
+          repositorySystem
+              .resolveArtifact(repositorySystemSession, request)
+              .getArtifact()
+              .getFile();
+    } catch (final ArtifactResolutionException e) {
+      throw new MojoFailureException(
+          "Unable to resolve the Contrast Java agent "
+              + coordinates
+              + ". Make sure agentVersion names a released version of the agent.",
+          e);
+    }
+    try (BuildMetrics.Span ignored = getMetrics().span("agent.verify")) {
+      AgentIntegrity.verify(agent.toPath());
+    } catch (final IOException e) {
+      throw new MojoFailureException(
+          "The java agent "
+              + coordinates
+              + " at "
+              + agent
+              + " is corrupt. Delete it from the local repository so that Maven downloads it"
+              + " again.",
+          e);
+    }
+    getLog().info("Using java agent " + coordinates + " from " + agent);
+    return agent.toPath();
+  }
+
+  /**
+   * Installs the latest agent from the cache, or downloads it from Contrast.
+   *
+   * @param connection connection to Contrast
+   * @param target directory in which to install the agent
+   * @return path to the installed agent
+   * @throws MojoFailureException when fails to install the agent
+   */
+  private Path installJavaAgent(final ContrastSDK connection, final Path target)
+      throws MojoFailureException {
     final String organizationID = getOrganizationId();
     try {
-      bytes = connection.getAgent(AgentType.JAVA, organizationID);
+      FileUtils.forceMkdir(target.toFile());
+    } catch (final IOException e) {
+      throw new MojoFailureException("Unable to create directory " + target, e);
+    }
+    final Path agent = target.resolve(AGENT_NAME);
+
+    AgentCache cache =
+        useAgentCache && getCacheDirectory() != null
+            ? new AgentCache(
+                getCacheDirectory().toPath().resolve(AGENT_CACHE_NAME),
+                Duration.ofMillis(agentCacheTtlMs))
+            : null;
+    if (cache != null) {
+      try {
+        final Optional<Path> cached = cache.find(organizationID, Instant.now());
+        if (cached.isPresent()) {
+          AgentCache.install(cached.get(), agent);
+          try {
+            verifyJavaAgent(agent, AgentCache.sha256(cached.get()));
+            getLog().info("Using cached java agent " + cached.get());
+            return agent;
+          } catch (final IOException e) {
+            getLog().warn("Cached java agent is corrupt, the agent will be downloaded instead.", e);
+            Files.deleteIfExists(cached.get());
+          }
+        }
+      } catch (final IOException e) {
+        getLog().warn("Unable to read the agent cache, the agent will be downloaded instead.", e);
+      }
+    }
+
+    getLog().info("No jar path was configured. Downloading the latest contrast.jar...");
+    Path downloadDirectory = target;
+    if (cache != null) {
+      try {
+        downloadDirectory = Files.createDirectories(cache.directory(organizationID));
+      } catch (final IOException e) {
+        getLog().warn("Unable to create the agent cache, the agent will not be cached.", e);
+        cache = null;
+      }
+    }
+    final String url =
+        UrlBuilder.getInstance().getAgentUrl(AgentType.JAVA, organizationID, AGENT_PROFILE);
+    final Path directory = downloadDirectory;
+    final AgentDownload download;
+    try (BuildMetrics.Span ignored = getMetrics().span("agent.download")) {
+      download =
+          getRetryPolicy()
+              .execute(
+                  "download the Java agent",
+                  true,
+                  () -> {
+                    try (InputStream is = connection.makeRequest(HttpMethod.GET, url)) {
+                      return AgentDownload.to(is, directory);
+                    }
+                  });
     } catch (IOException e) {
       throw new MojoFailureException(
           "\n\nCouldn't download the Java agent from Contrast. Please check that all your credentials are correct. If everything is correct, please contact Contrast Support. The error is:",
@@ -387,22 +609,56 @@ public final class ContrastInstallAgentMojo extends AbstractAssessMojo {
           "\n\nWe contacted Contrast successfully but couldn't authorize with the credentials you provided. The error is:",
           e);
     }
-    // Save the jar to the 'target' directory
-    final Path target = Paths.get(project.getBuild().getDirectory());
+    getMetrics().add(BuildMetrics.BYTES_DOWNLOADED, download.size());
+    getLog()
+        .debug(
+            "Downloaded " + download.size() + " byte java agent with SHA-256 " + download.sha256());
     try {
-      FileUtils.forceMkdir(target.toFile());
+      if (cache != null) {
+        AgentCache.install(cache.store(organizationID, download, Instant.now()), agent);
+      } else {
+        AtomicFiles.move(download.file(), agent);
+      }
     } catch (final IOException e) {
-      throw new MojoFailureException("Unable to create directory " + target, e);
+      throw new MojoFailureException("Unable to save the latest java agent.", e);
+    } finally {
+      try {
+        Files.deleteIfExists(download.file());
+      } catch (final IOException e) {
+        getLog().debug("Unable to delete temporary file " + download.file(), e);
+      }
     }
-    final Path agent = target.resolve(AGENT_NAME);
     try {
-      Files.write(agent, bytes, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      verifyJavaAgent(agent, download.sha256());
     } catch (final IOException e) {
-      throw new MojoFailureException("Unable to save the latest java agent.", e);
+      throw new MojoFailureException("The java agent saved to " + agent + " is corrupt.", e);
     }
     getLog().info("Saved the latest java agent to " + agent.toAbsolutePath());
     return agent;
   }
 
+  /**
+   * Verifies that the installed agent is an intact JAR with the expected SHA-256, so that a corrupt
+   * agent fails the install goal instead of crashing the forked test JVM.
+   *
+   * @param agent the installed agent
+   * @param sha256 hex encoded SHA-256 which the agent should have
+   * @throws IOException when the agent is corrupt or cannot be read
+   */
+  private void verifyJavaAgent(final Path agent, final String sha256) throws IOException {
+    try (BuildMetrics.Span ignored = getMetrics().span("agent.verify")) {
+      AgentIntegrity.verify(agent, sha256);
+    }
+  }
+
+  /** Contrast agent profile that describes the agent's default configuration */
+  private static final String AGENT_PROFILE = "default";
+
   private static final String AGENT_NAME = "contrast.jar";
+
+  /** Directory of {@code contrastCacheDirectory} in which downloaded agents are cached */
+  private static final String AGENT_CACHE_NAME = "agents";
+
+  private static final String AGENT_GROUP_ID = "com.contrastsecurity";
+  private static final String AGENT_ARTIFACT_ID = "contrast-agent";
 }
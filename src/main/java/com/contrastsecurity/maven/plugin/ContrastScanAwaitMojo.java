@@ -0,0 +1,135 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.contrastsecurity.exceptions.HttpResponseException;
+import com.contrastsecurity.sdk.scan.Scan;
+import com.contrastsecurity.sdk.scan.Scans;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+
+/**
+ * Retrieves the results of a scan that the {@code scan} goal started without waiting for its
+ * results ({@code waitForResults} is {@code false}). Binding this goal to a later phase, or running
+ * it in a later stage of the pipeline, lets Contrast Scan analyze the artifact while the build
+ * continues.
+ *
+ * @since 2.14
+ */
+@Mojo(
+    name = "scan-await",
+    defaultPhase = LifecyclePhase.VERIFY,
+    requiresOnline = true,
+    threadSafe = true)
+public final class ContrastScanAwaitMojo extends AbstractScanMojo {
+
+  @Override
+  public void execute() throws MojoFailureException {
+    measure(this::await);
+  }
+
+  private void await() throws MojoFailureException {
+    final Path handleFile = handlePath(getOutputPath().toPath());
+    final ScanHandle handle;
+    try {
+      handle = ScanHandle.read(handleFile);
+    } catch (final IOException e) {
+      throw new MojoFailureException("Failed to read scan handle " + handleFile, e);
+    }
+    if (!handle.isComplete()) {
+      throw new MojoFailureException(
+          handleFile
+              + " does not describe a scan. Make sure the scan goal executes with waitForResults"
+              + " false, and with the same outputPath, before the scan-await goal");
+    }
+    if (!handle.getOrganizationId().equals(getOrganizationId())) {
+      throw new MojoFailureException(
+          "Scan "
+              + handle.getScanId()
+              + " belongs to organization "
+              + handle.getOrganizationId()
+              + ", but the scan-await goal is configured for organization "
+              + getOrganizationId());
+    }
+    final Path artifact = handle.getArtifact() == null ? null : Paths.get(handle.getArtifact());
+    warnIfArtifactChanged(artifact, handle.getSha256());
+
+    initialize();
+    final Scan scan;
+    final Scans scans = getContrast().scan(handle.getOrganizationId()).scans(handle.getProjectId());
+    try {
+      scan =
+          getRetryPolicy()
+              .execute(
+                  "retrieve scan " + handle.getScanId(), true, () -> scans.get(handle.getScanId()));
+    } catch (final IOException | HttpResponseException e) {
+      throw new MojoFailureException("Failed to retrieve scan " + handle.getScanId(), e);
+    }
+
+    getLog().info("Waiting for results of scan " + scan.id());
+    final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      awaitResults(
+          retrieveResults(
+              scan,
+              handle.getStarted() == null ? Instant.now() : handle.getStarted(),
+              artifact,
+              getOutputPath().toPath(),
+              line -> getLog().info(line),
+              scheduler),
+          getTimeoutMs());
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * The scan's results describe the artifact as it was when the scan started. Warns when the
+   * artifact has since been rebuilt with different contents, because the results may not apply.
+   *
+   * @param artifact the scanned artifact, or {@code null} if unknown
+   * @param sha256 SHA-256 of the artifact when the scan started, or {@code null} if unknown
+   */
+  private void warnIfArtifactChanged(final Path artifact, final String sha256) {
+    if (artifact == null || sha256 == null || !Files.exists(artifact)) {
+      return;
+    }
+    try {
+      if (!sha256.equals(Digests.sha256(artifact))) {
+        getLog()
+            .warn(
+                artifact.getFileName()
+                    + " has changed since the scan started. The scan results describe the"
+                    + " artifact as it was when the scan started");
+      }
+    } catch (final IOException e) {
+      getLog().debug("Unable to compute the SHA-256 of " + artifact, e);
+    }
+  }
+}
@@ -22,31 +22,34 @@ package com.contrastsecurity.maven.plugin;
 
 import com.contrastsecurity.exceptions.HttpResponseException;
 import com.contrastsecurity.exceptions.UnauthorizedException;
-import com.contrastsecurity.sdk.ContrastSDK;
 import com.contrastsecurity.sdk.scan.CodeArtifact;
 import com.contrastsecurity.sdk.scan.Project;
 import com.contrastsecurity.sdk.scan.Projects;
 import com.contrastsecurity.sdk.scan.Scan;
-import com.contrastsecurity.sdk.scan.ScanSummary;
 import java.io.File;
 import java.io.IOException;
-import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.Duration;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionStage;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -62,7 +65,7 @@ import org.apache.maven.project.MavenProject;
     defaultPhase = LifecyclePhase.INTEGRATION_TEST,
     requiresOnline = true,
     threadSafe = true)
-public final class ContrastScanMojo extends AbstractContrastMojo {
+public final class ContrastScanMojo extends AbstractScanMojo {
 
   @Parameter(defaultValue = "${project}", readonly = true)
   private MavenProject mavenProject;
@@ -86,34 +89,80 @@ public final class ContrastScanMojo extends AbstractContrastMojo {
 
   /**
    * When {@code true}, will wait for and retrieve scan results before completing the goal.
-   * Otherwise, will start a scan then complete the goal without waiting for Contrast Scan to
-   * complete.
+   * Otherwise, will start a scan, write a handle describing the scan next to {@code outputPath}
+   * with the extension {@code .scan.properties}, then complete the goal without waiting for
+   * Contrast Scan to complete. The {@code scan-await} goal, bound to a later phase or run in a
+   * later stage of the pipeline, reads the handle to retrieve the results.
    */
   @Parameter(defaultValue = "" + true)
   private boolean waitForResults;
 
-  /** When {@code true}, will output a summary of the scan results to the console (build log). */
+  /**
+   * When {@code true}, modules do not scan their artifacts as soon as they are built. Instead, the
+   * last module to execute this goal in the build uploads every module's artifact and starts every
+   * scan concurrently, then waits for all of the scans together. This is useful for multi-module
+   * builds with many deployable modules, because the build waits roughly as long as the slowest
+   * scan rather than the sum of all scans.
+   *
+   * <p>In aggregate mode, the last module's {@code waitForResults}, {@code consoleOutput}, {@code
+   * timeoutMs}, and {@code scanThreads} configuration applies to every scan. The build fails when a
+   * module which declares this goal does not execute it, after the other modules' scans complete.
+   *
+   * @since 2.14
+   */
+  @Parameter(defaultValue = "" + false)
+  private boolean aggregate;
+
+  /**
+   * Maximum number of artifacts to upload to Contrast Scan at the same time in aggregate mode.
+   *
+   * @since 2.14
+   */
+  @Parameter(defaultValue = "4")
+  private int scanThreads;
+
+  /**
+   * When {@code true}, the plugin remembers the SHA-256 of each artifact it uploads, and starts new
+   * scans of an unchanged artifact using the previously uploaded code artifact instead of uploading
+   * the artifact again.
+   *
+   * @since 2.14
+   */
   @Parameter(defaultValue = "" + true)
-  private boolean consoleOutput;
+  private boolean reuseCodeArtifacts;
 
   /**
-   * File path to where the scan results (in <a href="https://sarifweb.azurewebsites.net">SARIF</a>)
-   * will be written at the conclusion of the scan. Note: no results are written when {@link
-   * #waitForResults} is {@code false}.
+   * Number of times to retry uploading an artifact when the upload fails due to a network error or
+   * a server error. Large artifacts are more likely to be interrupted by an unreliable network.
+   *
+   * @since 2.14
    */
-  @Parameter(
-      defaultValue =
-          "${project.build.directory}/contrast-scan-reports/contrast-scan-results.sarif.json")
-  private File outputPath;
+  @Parameter(defaultValue = "2")
+  private int uploadRetries;
 
   /**
-   * Maximum time (in milliseconds) to wait for a Scan to complete. Scans that exceed this threshold
-   * fail this goal.
+   * When {@code true}, removes the third-party libraries nested in the artifact (the {@code
+   * BOOT-INF/lib} directory of a Spring Boot JAR, or the {@code WEB-INF/lib} directory of a WAR)
+   * before uploading it, so that Contrast Scan analyzes only the application's own code. The
+   * slimmed artifact is written to {@code ${project.build.directory}/contrast-scan}. The original
+   * artifact is not modified.
+   *
+   * @since 2.14
    */
-  @Parameter(defaultValue = "" + 5 * 60 * 1000)
-  private long timeoutMs;
+  @Parameter(defaultValue = "" + false)
+  private boolean stripLibraries;
 
-  private ContrastSDK contrast;
+  /**
+   * Libraries to keep when {@code stripLibraries} is {@code true}. Each pattern is matched against
+   * a nested library's file name (e.g. {@code my-library-*.jar}) and against its {@code
+   * groupId:artifactId} (e.g. {@code com.example*:*}), where {@code *} matches any characters.
+   *
+   * @since 2.14
+   */
+  @Parameter private List<String> keepLibraries;
+
+  @Parameter(defaultValue = "${plugin}", readonly = true)
+  private PluginDescriptor pluginDescriptor;
 
   /** visible for testing */
   String getProjectName() {
@@ -126,47 +175,419 @@ public final class ContrastScanMojo extends AbstractContrastMojo {
   }
 
   /** visible for testing */
-  boolean isConsoleOutput() {
-    return consoleOutput;
+  void setUploadRetries(final int uploadRetries) {
+    this.uploadRetries = uploadRetries;
+  }
+
+  /** visible for testing */
+  void setMavenProject(final MavenProject mavenProject) {
+    this.mavenProject = mavenProject;
   }
 
   /** visible for testing */
-  void setConsoleOutput(final boolean consoleOutput) {
-    this.consoleOutput = consoleOutput;
+  void setArtifactPath(final File artifactPath) {
+    this.artifactPath = artifactPath;
+  }
+
+  /** visible for testing */
+  void setAggregate(final boolean aggregate) {
+    this.aggregate = aggregate;
   }
 
   @Override
-  public void execute() throws MojoFailureException, MojoFailureException {
-    // initialize plugin
-    initialize();
-    final Projects projects = contrast.scan(getOrganizationId()).projects();
+  public void execute() throws MojoFailureException {
+    measure(this::scan);
+  }
 
+  private void scan() throws MojoFailureException {
     // check that file exists
-    final Path file = artifactPath == null ? findProjectArtifactOrFail() : artifactPath.toPath();
-    if (!Files.exists(file)) {
+    final Path artifact =
+        artifactPath == null ? findProjectArtifactOrFail() : artifactPath.toPath();
+    if (!Files.exists(artifact)) {
       throw new MojoFailureException(
-          file
+          artifact
               + " does not exist. Make sure to bind the scan goal to a phase that will execute after the artifact to scan has been built");
     }
+    final Path file = stripLibraries ? slim(artifact) : artifact;
+    final ScanAggregator.Request request =
+        new ScanAggregator.Request(
+            mavenProject.getArtifactId(), projectName, label, file, getOutputPath());
+
+    if (aggregate) {
+      final ScanAggregator aggregator = getAggregator();
+      final List<ScanAggregator.Request> requests = aggregator.add(request);
+      if (requests.isEmpty()) {
+        getLog()
+            .info(
+                "Deferring scan of "
+                    + file.getFileName()
+                    + " until all "
+                    + aggregator.expected()
+                    + " modules that scan their artifacts have been built");
+        return;
+      }
+      scanDeferred(aggregator, requests);
+      return;
+    }
+
+    // initialize plugin
+    initialize();
+    final Projects projects = getContrast().scan(getOrganizationId()).projects();
+    final Scan scan = startScan(projects, request);
+    final Instant started = Instant.now();
+
+    // optionally wait for results, output summary to console, output sarif to file system
+    if (waitForResults) {
+      getLog().info("Waiting for scan results");
+      final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+      try {
+        awaitResults(
+            retrieveResults(
+                scan,
+                started,
+                file,
+                getOutputPath().toPath(),
+                line -> getLog().info(line),
+                scheduler),
+            getTimeoutMs());
+      } finally {
+        scheduler.shutdownNow();
+      }
+    }
+
+    // the last module may not aggregate, yet must still scan the other modules' deferred artifacts
+    if (getSession() != null) {
+      final ScanAggregator aggregator = getAggregator();
+      final List<ScanAggregator.Request> requests =
+          aggregator.complete(mavenProject.getArtifactId());
+      if (!requests.isEmpty()) {
+        scanDeferred(aggregator, requests);
+      }
+    }
+  }
+
+  /**
+   * Scans the artifacts which modules deferred in aggregate mode, then fails when some of the
+   * modules which were expected to execute this goal did not, because the build would otherwise
+   * pass without scanning them.
+   *
+   * @param aggregator the session's aggregator
+   * @param requests the deferred requests
+   * @throws MojoFailureException when any scan fails, or an expected module did not execute this
+   *     goal
+   */
+  private void scanDeferred(
+      final ScanAggregator aggregator, final List<ScanAggregator.Request> requests)
+      throws MojoFailureException {
+    final List<String> missing = aggregator.missing();
+    scanAll(requests);
+    if (missing.isEmpty()) {
+      return;
+    }
+    if (getSession().isParallel()) {
+      // modules built in parallel may still execute this goal, and will scan their own artifacts
+      getLog()
+          .info(
+              "Modules "
+                  + String.join(", ", missing)
+                  + " have not been built yet and will scan their artifacts when they are built");
+    } else {
+      throw new MojoFailureException(
+          "Modules "
+              + String.join(", ", missing)
+              + " were expected to scan their artifacts in aggregate mode, but did not execute the"
+              + " scan goal. Make sure that every module which declares the scan goal executes it,"
+              + " or remove the goal from the modules which should not be scanned.");
+    }
+  }
 
+  /**
+   * @return the session's {@link ScanAggregator}
+   */
+  ScanAggregator getAggregator() {
+    return SessionContext.get(
+        getSession(), ScanAggregator.class, () -> new ScanAggregator(findScanModules()));
+  }
+
+  /**
+   * Scans every module's artifact concurrently using one Contrast connection. Uploads are limited
+   * to {@link #scanThreads} at a time. Once every scan has started, waits for all of the scans
+   * together, so that {@code timeoutMs} bounds the total wait.
+   *
+   * @param requests every module's scan request
+   * @throws MojoFailureException when any scan fails, after all scans have completed
+   */
+  private void scanAll(final List<ScanAggregator.Request> requests) throws MojoFailureException {
+    getLog().info("Scanning the artifacts of " + requests.size() + " modules");
+    initialize();
+    final Projects projects = getContrast().scan(getOrganizationId()).projects();
+    final int threads = Math.max(1, Math.min(scanThreads, requests.size()));
+    final ExecutorService uploads = Executors.newFixedThreadPool(threads);
+    final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(threads);
+    try {
+      // start every scan
+      final List<CompletableFuture<Void>> results = new ArrayList<>(requests.size());
+      for (final ScanAggregator.Request request : requests) {
+        final CompletableFuture<Scan> started =
+            CompletableFuture.supplyAsync(
+                () -> {
+                  try {
+                    return startScan(projects, request);
+                  } catch (final MojoFailureException e) {
+                    throw new CompletionException(e);
+                  }
+                },
+                uploads);
+        final String prefix = "[" + request.module() + "] ";
+        final Consumer<String> console = line -> getLog().info(prefix + line);
+        final Path outputFile = request.outputPath().toPath();
+        results.add(
+            waitForResults
+                ? started.thenCompose(
+                    scan ->
+                        retrieveResults(
+                            scan, Instant.now(), request.file(), outputFile, console, scheduler))
+                : started.thenApply(scan -> null));
+      }
+
+      // wait for every scan, then report all failures together
+      final long deadline = System.currentTimeMillis() + getTimeoutMs();
+      final List<String> failures = new ArrayList<>();
+      for (int i = 0; i < requests.size(); i++) {
+        final String module = requests.get(i).module();
+        try {
+          awaitResults(results.get(i), Math.max(0, deadline - System.currentTimeMillis()));
+        } catch (final MojoFailureException e) {
+          getLog().error("[" + module + "] " + e.getMessage(), e.getCause());
+          failures.add(module);
+        }
+      }
+      if (!failures.isEmpty()) {
+        throw new MojoFailureException(
+            "Contrast Scan failed for modules " + String.join(", ", failures));
+      }
+    } finally {
+      uploads.shutdown();
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * Uploads the requested artifact and starts a new scan of it.
+   *
+   * @param projects project resource collection
+   * @param request describes the scan to start
+   * @return the new scan
+   * @throws MojoFailureException when fails to upload the artifact or start the scan
+   */
+  private Scan startScan(final Projects projects, final ScanAggregator.Request request)
+      throws MojoFailureException {
     // get or create project
-    final Project project = findOrCreateProject(projects);
+    final Project project = findOrCreateProject(projects, request.projectName());
+
+    final Path file = request.file();
+    final CodeArtifactManifest manifest =
+        reuseCodeArtifacts && getCacheDirectory() != null
+            ? CodeArtifactManifest.forProject(
+                getCacheDirectory().toPath(), getOrganizationId(), project.id())
+            : null;
+    String sha256 = null;
+    if (manifest != null || !waitForResults) {
+      try (BuildMetrics.Span ignored = getMetrics().span("artifact.hash")) {
+        sha256 = Digests.sha256(file);
+      } catch (final IOException e) {
+        getLog().warn("Unable to compute the SHA-256 of " + file.getFileName(), e);
+      }
+    }
+    final Scan scan = startScan(project, file, request.label(), manifest, sha256);
+
+    // record the scan for the scan-await goal, or forget an earlier scan which it might otherwise
+    // mistake for this one
+    final Path handleFile = handlePath(request.outputPath().toPath());
+    if (waitForResults) {
+      try {
+        Files.deleteIfExists(handleFile);
+      } catch (final IOException e) {
+        getLog().warn("Unable to delete stale scan handle " + handleFile, e);
+      }
+    } else {
+      final ScanHandle handle = new ScanHandle();
+      handle.setOrganizationId(getOrganizationId());
+      handle.setProjectId(project.id());
+      handle.setScanId(scan.id());
+      handle.setArtifact(file.toAbsolutePath().toString());
+      handle.setSha256(sha256);
+      handle.setStarted(Instant.now());
+      try {
+        handle.write(handleFile);
+        getLog().info("Wrote scan handle " + handleFile + " for the scan-await goal");
+      } catch (final IOException e) {
+        throw new MojoFailureException("Failed to write scan handle " + handleFile, e);
+      }
+    }
+    return scan;
+  }
+
+  /**
+   * Starts a new scan of the given artifact, reusing the code artifact from a previous upload of an
+   * identical file when possible.
+   *
+   * @param project project in which to start the scan
+   * @param file artifact to scan
+   * @param label label for the new scan
+   * @param manifest the project's uploaded code artifacts, or {@code null} to always upload
+   * @param sha256 SHA-256 of the artifact, or {@code null} if unknown
+   * @return the new scan
+   * @throws MojoFailureException when fails to upload the artifact or start the scan
+   */
+  private Scan startScan(
+      final Project project,
+      final Path file,
+      final String label,
+      final CodeArtifactManifest manifest,
+      final String sha256)
+      throws MojoFailureException {
+    // reuse the code artifact from a previous upload of an identical file
+    if (manifest != null && sha256 != null) {
+      try {
+        final Optional<String> existing = manifest.find(sha256);
+        if (existing.isPresent()) {
+          getLog()
+              .info(
+                  file.getFileName()
+                      + " is unchanged since it was last uploaded, reusing code artifact "
+                      + existing.get());
+          final CodeArtifact codeArtifact =
+              new ExistingCodeArtifact(
+                  existing.get(), project.id(), getOrganizationId(), file.getFileName().toString());
+          try {
+            return createScan(project, codeArtifact, label);
+          } catch (final MojoFailureException e) {
+            getLog().warn("Failed to reuse code artifact " + existing.get() + ", uploading again");
+            getLog().debug(e);
+            manifest.remove(sha256);
+          }
+        }
+      } catch (final IOException e) {
+        getLog().warn("Unable to read the code artifact manifest", e);
+      }
+    }
 
     // upload code artifact
+    final CodeArtifact codeArtifact = upload(project, file);
+    if (manifest != null && sha256 != null) {
+      try {
+        manifest.put(sha256, codeArtifact.id(), Instant.now());
+      } catch (final IOException e) {
+        getLog().warn("Unable to update the code artifact manifest", e);
+      }
+    }
+
+    return createScan(project, codeArtifact, label);
+  }
+
+  /**
+   * Writes a copy of the artifact without its nested third-party libraries.
+   *
+   * @param artifact artifact to slim
+   * @return path to the slimmed artifact
+   * @throws MojoFailureException when fails to slim the artifact
+   */
+  private Path slim(final Path artifact) throws MojoFailureException {
+    final Path slimmed =
+        Paths.get(mavenProject.getBuild().getDirectory(), "contrast-scan")
+            .resolve(artifact.getFileName());
+    final ArtifactSlimmer slimmer =
+        new ArtifactSlimmer(keepLibraries == null ? Collections.emptyList() : keepLibraries);
+    final int removed;
+    final long before;
+    final long after;
+    try (BuildMetrics.Span ignored = getMetrics().span("artifact.slim")) {
+      removed = slimmer.slim(artifact, slimmed);
+      before = Files.size(artifact);
+      after = Files.size(slimmed);
+    } catch (final IOException e) {
+      throw new MojoFailureException("Failed to remove libraries from " + artifact, e);
+    }
+    getLog()
+        .info(
+            String.format(
+                "Removed %d libraries from %s, reducing it from %d to %d bytes",
+                removed, artifact.getFileName(), before, after));
+    return slimmed;
+  }
+
+  /**
+   * visible for testing
+   *
+   * <p>Uploads the given file to Contrast Scan, retrying up to {@link #uploadRetries} times when
+   * the upload fails due to a network error or a server error, and reports the upload's throughput.
+   *
+   * <p>The Contrast Scan API accepts each code artifact in a single request, so a failed upload
+   * restarts from the beginning of the file. Uploads are retried as though they were idempotent,
+   * because repeating an upload at worst leaves an unused code artifact in the project.
+   *
+   * @param project project to which the file is uploaded
+   * @param file file to upload
+   * @return new code artifact
+   * @throws MojoFailureException when every attempt to upload the file fails
+   */
+  CodeArtifact upload(final Project project, final Path file) throws MojoFailureException {
+    final long size;
+    try {
+      size = Files.size(file);
+    } catch (final IOException e) {
+      throw new MojoFailureException("Failed to read " + file, e);
+    }
     getLog().info("Uploading " + file.getFileName() + " to Contrast Scan");
+    final long start = System.nanoTime();
     final CodeArtifact codeArtifact;
-    try {
-      codeArtifact = project.codeArtifacts().upload(file);
+    try (BuildMetrics.Span ignored = getMetrics().span("artifact.upload")) {
+      codeArtifact =
+          getRetryPolicy()
+              .withMaxAttempts(uploadRetries + 1)
+              .execute(
+                  "upload " + file.getFileName(), true, () -> project.codeArtifacts().upload(file));
     } catch (final IOException | HttpResponseException e) {
       throw new MojoFailureException("Failed to upload code artifact to Contrast Scan", e);
     }
+    final double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+    getMetrics().add(BuildMetrics.BYTES_UPLOADED, size);
+    getLog()
+        .info(
+            String.format(
+                "Uploaded %s (%,d bytes) in %.1f s (%.2f MB/s)",
+                file.getFileName(), size, seconds, size / seconds / 1e6));
+    return codeArtifact;
+  }
 
-    // start scan
+  /**
+   * Starts a new scan of the given code artifact.
+   *
+   * @param project project in which to start the scan
+   * @param codeArtifact artifact to scan
+   * @param label label for the new scan
+   * @return the new scan
+   * @throws MojoFailureException when fails to start the scan
+   */
+  private Scan createScan(
+      final Project project, final CodeArtifact codeArtifact, final String label)
+      throws MojoFailureException {
     getLog().info("Starting scan with label " + label);
     final Scan scan;
-    try {
+    try (BuildMetrics.Span ignored = getMetrics().span("scan.start")) {
       scan =
-          project.scans().define().withLabel(label).withExistingCodeArtifact(codeArtifact).create();
+          getRetryPolicy()
+              .execute(
+                  "start scan with label " + label,
+                  false,
+                  () ->
+                      project
+                          .scans()
+                          .define()
+                          .withLabel(label)
+                          .withExistingCodeArtifact(codeArtifact)
+                          .create());
     } catch (final IOException | HttpResponseException e) {
       throw new MojoFailureException("Failed to start scan for code artifact " + codeArtifact, e);
     }
@@ -174,12 +595,41 @@ public final class ContrastScanMojo extends AbstractContrastMojo {
     // show link in build log
     final URL clickableScanURL = createClickableScanURL(project.id(), scan.id());
     getLog().info("Scan results will be available at " + clickableScanURL.toExternalForm());
+    return scan;
+  }
 
-    // optionally wait for results, output summary to console, output sarif to file system
-    if (waitForResults) {
-      getLog().info("Waiting for scan results");
-      waitForResults(scan);
+  /**
+   * Finds the modules in this build which execute this goal, so that aggregate mode knows when the
+   * last such module has executed. When the goal is executed from the command line, every module
+   * which produces an artifact executes it.
+   *
+   * @return names of the modules in the build which execute the scan goal, in build order
+   */
+  private List<String> findScanModules() {
+    final boolean commandLine = "default-cli".equals(getMojoExecution().getExecutionId());
+    final List<String> names = new ArrayList<>();
+    for (final MavenProject module : getSession().getProjects()) {
+      if (commandLine ? !"pom".equals(module.getPackaging()) : executesScanGoal(module)) {
+        names.add(module.getArtifactId());
+      }
+    }
+    if (names.isEmpty()) {
+      names.add(mavenProject.getArtifactId());
     }
+    return names;
+  }
+
+  private boolean executesScanGoal(final MavenProject module) {
+    for (final Plugin plugin : (List<Plugin>) module.getBuildPlugins()) {
+      if (pluginDescriptor.getPluginLookupKey().equals(plugin.getKey())) {
+        for (final PluginExecution execution : plugin.getExecutions()) {
+          if (execution.getGoals().contains("scan")) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
   }
 
   /**
@@ -216,30 +666,46 @@ public final class ContrastScanMojo extends AbstractContrastMojo {
   }
 
   /**
-   * Finds a Scan project with the project name from the plugin configuration, or creates such a
-   * "Java" project if one does not exist.
+   * visible for testing
+   *
+   * <p>Finds a Scan project with the project name from the plugin configuration, or creates such a
+   * "Java" project if one does not exist. Modules that share a project name share one lookup per
+   * build (see {@link ScanProjects}).
+   *
+   * @param projects project resource collection
+   * @param projectName name of the project to find or create
+   * @return existing or new {@link Project}
+   * @throws MojoFailureException when fails to make request to the Scan API
+   */
+  Project findOrCreateProject(final Projects projects, final String projectName)
+      throws MojoFailureException {
+    try (BuildMetrics.Span ignored = getMetrics().span("project.resolve")) {
+      if (getSession() == null) {
+        return resolveProject(projects, projectName);
+      }
+      return SessionContext.get(getSession(), ScanProjects.class, ScanProjects::new)
+          .get(
+              Arrays.asList(getURL(), getOrganizationId(), projectName),
+              () -> resolveProject(projects, projectName));
+    }
+  }
+
+  /**
+   * Finds or creates the Scan project with the given name.
    *
    * <p>Note: the Scan API does not expose an endpoint for doing this atomically, so it is possible
    * that another process creates the project after having determined it to not-exist but before
-   * attempting to create it.
+   * attempting to create it. When creating the project fails, looks for the project again in case
+   * another process created it.
    *
    * @param projects project resource collection
+   * @param projectName name of the project to find or create
    * @return existing or new {@link Project}
    * @throws MojoFailureException when fails to make request to the Scan API
    */
-  private Project findOrCreateProject(Projects projects) throws MojoFailureException {
-    final Optional<Project> optional;
-    try {
-      optional = projects.findByName(projectName);
-    } catch (final IOException e) {
-      throw new MojoFailureException("Failed to retrieve project " + projectName, e);
-    } catch (final UnauthorizedException e) {
-      throw new MojoFailureException(
-          "Authentication failure while retrieving project "
-              + projectName
-              + " - verify Contrast connection configuration",
-          e);
-    }
+  private Project resolveProject(final Projects projects, final String projectName)
+      throws MojoFailureException {
+    final Optional<Project> optional = findProject(projects, projectName);
     if (optional.isPresent()) {
       getLog().debug("Found project with name " + projectName);
       final Project project = optional.get();
@@ -255,12 +721,44 @@ public final class ContrastScanMojo extends AbstractContrastMojo {
 
     getLog().debug("No project exists with name " + projectName + " - creating one");
     try {
-      return projects.define().withName(projectName).withLanguage("JAVA").create();
+      return getRetryPolicy()
+          .execute(
+              "create project " + projectName,
+              false,
+              () -> projects.define().withName(projectName).withLanguage("JAVA").create());
     } catch (final IOException | HttpResponseException e) {
+      // another process may have created the project since we looked for it
+      Optional<Project> created;
+      try {
+        created = findProject(projects, projectName);
+      } catch (final MojoFailureException lookup) {
+        e.addSuppressed(lookup);
+        created = Optional.empty();
+      }
+      if (created.isPresent()) {
+        getLog().debug("Project " + projectName + " was created concurrently");
+        return created.get();
+      }
       throw new MojoFailureException("Failed to create project " + projectName, e);
     }
   }
 
+  private Optional<Project> findProject(final Projects projects, final String projectName)
+      throws MojoFailureException {
+    try {
+      return getRetryPolicy()
+          .execute("retrieve project " + projectName, true, () -> projects.findByName(projectName));
+    } catch (final IOException e) {
+      throw new MojoFailureException("Failed to retrieve project " + projectName, e);
+    } catch (final UnauthorizedException e) {
+      throw new MojoFailureException(
+          "Authentication failure while retrieving project "
+              + projectName
+              + " - verify Contrast connection configuration",
+          e);
+    }
+  }
+
   /**
    * visible for testing
    *
@@ -291,108 +789,4 @@ public final class ContrastScanMojo extends AbstractContrastMojo {
           e);
     }
   }
-
-  /**
-   * Waits for the scan to complete, writes results in SARIF to the file system, and optionally
-   * displays a summary of the results in the console. Translates all errors that could occur while
-   * retrieving results to one of {@code MojoFailureException} or {@code MojoFailureException}.
-   *
-   * @param scan the scan to wait for and retrieve the results of
-   * @throws MojoFailureException when fails to retrieve scan results for unexpected reasons
-   * @throws MojoFailureException when the wait for scan results operation times out
-   */
-  private void waitForResults(final Scan scan) throws MojoFailureException, MojoFailureException {
-    final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-    try {
-      final Path outputFile = outputPath.toPath();
-      final Path reportsDirectory = outputFile.getParent();
-      try {
-        Files.createDirectories(reportsDirectory);
-      } catch (final IOException e) {
-        throw new MojoFailureException("Failed to create Contrast Scan reports directory", e);
-      }
-
-      final CompletionStage<Scan> await = scan.await(scheduler);
-      final CompletionStage<Void> save =
-          await.thenCompose(
-              completed ->
-                  CompletableFuture.runAsync(
-                      () -> {
-                        try {
-                          completed.saveSarif(outputFile);
-                        } catch (final IOException e) {
-                          throw new UncheckedIOException(e);
-                        }
-                      },
-                      scheduler));
-      final CompletionStage<Void> output =
-          await.thenAccept(
-              completed -> {
-                final ScanSummary summary;
-                try {
-                  summary = completed.summary();
-                } catch (final IOException e) {
-                  throw new UncheckedIOException(e);
-                }
-                writeSummaryToConsole(summary, line -> getLog().info(line));
-              });
-      CompletableFuture.allOf(save.toCompletableFuture(), output.toCompletableFuture())
-          .get(timeoutMs, TimeUnit.MILLISECONDS);
-    } catch (final ExecutionException e) {
-      // try to unwrap the extraneous ExecutionException
-      final Throwable cause = e.getCause();
-      // ExecutionException should always have a cause, but its constructor does not enforce this,
-      // so check if the cause is null
-      final Throwable inner = cause == null ? e : cause;
-      throw new MojoFailureException("Failed to retrieve Contrast Scan results", inner);
-    } catch (final InterruptedException e) {
-      Thread.currentThread().interrupt();
-      throw new MojoFailureException("Interrupted while retrieving Contrast Scan results", e);
-    } catch (final TimeoutException e) {
-      final Duration duration = Duration.ofMillis(timeoutMs);
-      final String durationString =
-          duration.toMinutes() > 0
-              ? duration.toMinutes() + " minutes"
-              : (duration.toMillis() / 1000) + " seconds";
-      throw new MojoFailureException(
-          "Failed to retrieve Contrast Scan results in " + durationString, e);
-    } finally {
-      scheduler.shutdown();
-    }
-  }
-
-  /**
-   * visible for testing
-   *
-   * @param summary the scan summary to write to console
-   * @param consoleLogger describes a console logger where each accepted string is printed to a new
-   *     line
-   */
-  void writeSummaryToConsole(final ScanSummary summary, final Consumer<String> consoleLogger) {
-    consoleLogger.accept("Scan completed");
-    if (consoleOutput) {
-      consoleLogger.accept("New Results\t" + summary.totalNewResults());
-      consoleLogger.accept("Fixed Results\t" + summary.totalFixedResults());
-      consoleLogger.accept("Total Results\t" + summary.totalResults());
-    }
-  }
-
-  /**
-   * Must be called after Maven has completed field injection.
-   *
-   * <p>I don't believe Maven has a post-injection callback that we bind to this method, so the
-   * {@link #execute()} method calls this before continuing.
-   *
-   * <p>This is useful for tests to initialize the {@link ContrastSDK} without running the whole
-   * {@link #execute()} method
-   *
-   * @throws IllegalStateException when has already been initialized
-   * @throws MojoFailureException when cannot connect to Contrast
-   */
-  private synchronized void initialize() throws MojoFailureException {
-    if (contrast != null) {
-      throw new IllegalStateException("Already initialized");
-    }
-    contrast = connectToContrast();
-  }
 }
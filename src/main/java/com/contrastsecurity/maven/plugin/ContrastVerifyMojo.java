@@ -20,6 +20,7 @@ package com.contrastsecurity.maven.plugin;
  * #L%
  */
 
+import com.contrastsecurity.exceptions.HttpResponseException;
 import com.contrastsecurity.exceptions.UnauthorizedException;
 import com.contrastsecurity.http.RuleSeverity;
 import com.contrastsecurity.http.ServerFilterForm;
@@ -31,13 +32,24 @@ import com.contrastsecurity.models.Servers;
 import com.contrastsecurity.models.Trace;
 import com.contrastsecurity.models.Traces;
 import com.contrastsecurity.sdk.ContrastSDK;
+import java.io.File;
 import java.io.IOException;
 import java.net.URLEncoder;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -57,12 +69,139 @@ public final class ContrastVerifyMojo extends AbstractAssessMojo {
   @Parameter(property = "minSeverity", defaultValue = "Medium")
   String minSeverity;
 
+  /**
+   * Maximum time (in milliseconds) to wait for the number of vulnerabilities reported by the agent
+   * to settle before verifying them.
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "traceSettleMaxWaitMs", defaultValue = "" + 10 * 1000)
+  long traceSettleMaxWaitMs;
+
+  /**
+   * Minimum time (in milliseconds) for which the number of vulnerabilities reported by the agent
+   * must remain unchanged before it is considered settled.
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "traceSettleQuietPeriodMs", defaultValue = "" + 2 * 1000)
+  long traceSettleQuietPeriodMs;
+
+  /**
+   * Number of consecutive requests for which the number of vulnerabilities reported by the agent
+   * must remain unchanged before it is considered settled.
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "traceSettlePolls", defaultValue = "2")
+  int traceSettlePolls;
+
+  /**
+   * Minimum time (in milliseconds) to wait before accepting that the agent reported no
+   * vulnerabilities. The agent reports vulnerabilities asynchronously, so Contrast may report none
+   * for some time after integration testing ends even though the agent found some.
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "traceSettleEmptyWaitMs", defaultValue = "" + 10 * 1000)
+  long traceSettleEmptyWaitMs;
+
+  /**
+   * Time (in milliseconds) for which the plugin may use its cached index of application names to
+   * application IDs before retrieving the organization's applications from Contrast again. Set to
+   * {@code 0} to always retrieve the applications from Contrast.
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "applicationIndexTtlMs", defaultValue = "" + 60 * 60 * 1000)
+  long applicationIndexTtlMs;
+
+  /**
+   * Number of vulnerabilities to retrieve from Contrast per request. Vulnerabilities are reported
+   * one page at a time, so that applications with many vulnerabilities need not hold them all in
+   * memory.
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "tracePageSize", defaultValue = "100")
+  int tracePageSize;
+
+  /**
+   * Maximum number of new vulnerabilities allowed before the build fails.
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "maxAllowedVulnerabilities", defaultValue = "0")
+  int maxAllowedVulnerabilities;
+
+  /**
+   * When {@code true}, stops retrieving and reporting vulnerabilities as soon as more than {@code
+   * maxAllowedVulnerabilities} have been reported, instead of reporting every new vulnerability
+   * before failing the build.
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "failFast", defaultValue = "" + false)
+  boolean failFast;
+
+  /**
+   * When {@code true}, only evaluates vulnerabilities discovered since the last successful verify
+   * of the same application version on this machine, rather than every vulnerability tagged with
+   * the version. The plugin records how far each successful verify got in {@code
+   * contrastCacheDirectory}. Vulnerabilities that a previous verify allowed (see {@code
+   * maxAllowedVulnerabilities}) do not count toward the maximum again.
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "incrementalVerify", defaultValue = "" + false)
+  boolean incrementalVerify;
+
+  /**
+   * Formats of the vulnerability report files to write to {@code reportsDirectory}: any of {@code
+   * text}, {@code json}, and {@code junit} (JUnit XML, for display by CI servers).
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "reportFormats")
+  List<String> reportFormats;
+
+  /**
+   * Directory to which vulnerability report files are written.
+   *
+   * @since 2.14
+   */
+  @Parameter(
+      property = "reportsDirectory",
+      defaultValue = "${project.build.directory}/contrast-reports")
+  File reportsDirectory;
+
+  /**
+   * Maximum number of vulnerabilities to write to the build log. When more vulnerabilities are
+   * found, every vulnerability is written to a text report in {@code reportsDirectory} instead.
+   *
+   * @since 2.14
+   */
+  @Parameter(property = "maxLoggedVulnerabilities", defaultValue = "100")
+  int maxLoggedVulnerabilities;
+
   public void execute() throws MojoFailureException {
+    measure(this::verify);
+  }
+
+  private void verify() throws MojoFailureException {
     verifyAppIdOrNameNotNull();
+    final AssessState state = readState();
+    if (state.isEmpty()) {
+      throw new MojoFailureException(
+          "The install goal has not saved its state for this module, so the verify goal cannot determine which appVersion to verify. Make sure the install goal runs before the verify goal in the same module.");
+    }
+
     ContrastSDK contrast = connectToContrast();
 
     getLog().info("Successfully authenticated to Contrast.");
 
+    computedAppVersion = state.getAppVersion();
+
     getLog().info("Checking for new vulnerabilities for appVersion [" + computedAppVersion + "]");
 
     final String applicationId;
@@ -72,6 +211,8 @@ public final class ContrastVerifyMojo extends AbstractAssessMojo {
         getLog().info("Using 'appId' property; 'appName' property is ignored.");
       }
 
+    } else if (state.getAppId() != null && getAppName().equals(state.getAppName())) {
+      applicationId = state.getAppId();
     } else {
       applicationId = getApplicationId(contrast, getAppName());
     }
@@ -79,46 +220,214 @@ public final class ContrastVerifyMojo extends AbstractAssessMojo {
     List<Long> serverIds = null;
 
     if (getServerName() != null) {
-      serverIds = getServerId(contrast, applicationId);
+      if (getServerName().equals(state.getServerName())
+          && applicationId.equals(state.getAppId())
+          && !state.getServerIds().isEmpty()) {
+        serverIds = state.getServerIds();
+      } else {
+        serverIds = getServerId(contrast, applicationId);
+      }
     }
 
-    TraceFilterForm form = getTraceFilterForm(serverIds);
-
-    getLog().info("Sending vulnerability request to Contrast.");
-
-    Traces traces;
-
+    // save the resolved IDs so that later runs of this goal need not resolve them again
+    state.setAppId(applicationId);
+    state.setServerIds(serverIds);
     try {
-      Thread.sleep(10000);
-    } catch (InterruptedException e) {
-      e.printStackTrace();
+      writeState(state);
+    } catch (final IOException e) {
+      getLog().warn("Unable to save the Contrast state.", e);
     }
 
-    try {
-      final String organizationID = getOrganizationId();
-      traces = contrast.getTraces(organizationID, applicationId, form);
-    } catch (IOException e) {
-      throw new MojoFailureException("Unable to retrieve the traces.", e);
-    } catch (UnauthorizedException e) {
-      throw new MojoFailureException("Unable to connect to Contrast.", e);
-    }
+    final VerifyWatermark watermark = readWatermark(applicationId);
 
-    if (traces != null && traces.getCount() > 0) {
-      getLog().info(traces.getCount() + " new vulnerability(s) were found.");
+    // only the total count is needed until the number of vulnerabilities settles
+    final TraceFilterForm form = getTraceFilterForm(serverIds, watermark);
+    form.setLimit(1);
 
-      for (Trace trace : traces.getTraces()) {
-        getLog().info(generateTraceReport(trace));
-      }
+    getLog().info("Sending vulnerability request to Contrast.");
+
+    final TracePoller poller =
+        new TracePoller(
+            POLL_INITIAL_DELAY,
+            POLL_MAX_DELAY,
+            Duration.ofMillis(traceSettleMaxWaitMs),
+            Duration.ofMillis(traceSettleQuietPeriodMs),
+            Duration.ofMillis(traceSettleEmptyWaitMs),
+            traceSettlePolls,
+            new Random(),
+            Clock.SYSTEM,
+            getLog());
+    final Traces traces;
+    try (BuildMetrics.Span ignored = getMetrics().span("traces.settle")) {
+      traces =
+          poller.poll(
+              () -> getTraces(contrast, applicationId, form),
+              t -> t == null || t.getCount() == null ? 0 : t.getCount());
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MojoFailureException("Interrupted while retrieving the traces.", e);
+    }
 
+    final int count = traces == null || traces.getCount() == null ? 0 : traces.getCount();
+    if (count > 0 && watermark == null) {
+      getLog().info(count + " new vulnerability(s) were found.");
+    }
+    final int reported;
+    try (BuildMetrics.Span ignored = getMetrics().span("traces.report")) {
+      reported = reportTraces(contrast, applicationId, serverIds, count, watermark);
+    }
+    if (reported > 0 && watermark != null) {
+      getLog().info(reported + " vulnerability(s) were found since the last successful verify.");
+    }
+    if (reported > maxAllowedVulnerabilities) {
       throw new MojoFailureException(
           "Your application is vulnerable. Please see the above report for new vulnerabilities.");
+    }
+    if (reported > 0) {
+      getLog()
+          .info(
+              "The number of new vulnerabilities does not exceed maxAllowedVulnerabilities ("
+                  + maxAllowedVulnerabilities
+                  + ").");
     } else {
       getLog().info("No new vulnerabilities were found.");
     }
 
+    if (watermark != null) {
+      try {
+        watermark.write();
+      } catch (final IOException e) {
+        getLog().warn("Unable to save the incremental verify watermark.", e);
+      }
+    }
+
     getLog().info("Finished verifying your application.");
   }
 
+  /**
+   * visible for testing
+   *
+   * <p>Retrieves the new vulnerabilities one page at a time and reports each page as it arrives.
+   * When {@link #failFast} is {@code true}, stops once more than {@link #maxAllowedVulnerabilities}
+   * have been reported, without retrieving the remaining pages.
+   *
+   * <p>Writes each vulnerability to the build log, up to {@link #maxLoggedVulnerabilities}, and to
+   * the configured report files.
+   *
+   * <p>When given a watermark, skips vulnerabilities that the last successful verify evaluated, and
+   * advances the watermark past the reported vulnerabilities.
+   *
+   * @param contrast Contrast SDK object
+   * @param applicationId application to which the vulnerabilities belong
+   * @param serverIds servers to filter on, or {@code null}
+   * @param count total number of new vulnerabilities
+   * @param watermark watermark of the last successful verify, or {@code null} to report every
+   *     vulnerability
+   * @return number of vulnerabilities reported
+   * @throws MojoFailureException when fails to retrieve the vulnerabilities
+   */
+  int reportTraces(
+      final ContrastSDK contrast,
+      final String applicationId,
+      final List<Long> serverIds,
+      final int count,
+      final VerifyWatermark watermark)
+      throws MojoFailureException {
+    final Path directory = reportsDirectory == null ? null : reportsDirectory.toPath();
+    final Set<TraceReportRenderer.Format> formats = getReportFormats();
+    if (directory == null) {
+      // there is nowhere to write reports
+      formats.clear();
+    } else if (count > maxLoggedVulnerabilities) {
+      formats.add(TraceReportRenderer.Format.TEXT);
+    }
+    final int pageSize = Math.max(1, tracePageSize);
+    final TraceFilterForm form = getTraceFilterForm(serverIds, watermark);
+    form.setLimit(pageSize);
+    int reported = 0;
+    try (TraceReportRenderer renderer = new TraceReportRenderer(directory, formats)) {
+      for (int offset = 0; offset < count; offset += pageSize) {
+        form.setOffset(offset);
+        final Traces page = getTraces(contrast, applicationId, form);
+        if (page == null || page.getTraces() == null || page.getTraces().isEmpty()) {
+          break;
+        }
+        for (final Trace trace : page.getTraces()) {
+          if (watermark != null) {
+            if (watermark.isKnown(trace)) {
+              continue;
+            }
+            watermark.advance(trace);
+          }
+          if (reported < maxLoggedVulnerabilities) {
+            getLog().info(renderer.render(trace));
+          }
+          renderer.write(trace);
+          reported++;
+        }
+        if (failFast && reported > maxAllowedVulnerabilities) {
+          if (reported < count) {
+            getLog().info("Skipping the remaining " + (count - reported) + " vulnerability(s).");
+          }
+          break;
+        }
+      }
+    } catch (final IOException e) {
+      throw new MojoFailureException("Unable to write the vulnerability report.", e);
+    }
+    if (reported > maxLoggedVulnerabilities) {
+      getLog()
+          .info(
+              "Logged the first "
+                  + maxLoggedVulnerabilities
+                  + " vulnerability(s)."
+                  + (directory == null
+                      ? ""
+                      : " See "
+                          + directory.resolve(TraceReportRenderer.TEXT_FILE_NAME)
+                          + " for every vulnerability."));
+    }
+    return reported;
+  }
+
+  /**
+   * @return formats of the report files to write
+   * @throws MojoFailureException when a configured format is not supported
+   */
+  private Set<TraceReportRenderer.Format> getReportFormats() throws MojoFailureException {
+    final Set<TraceReportRenderer.Format> formats =
+        EnumSet.noneOf(TraceReportRenderer.Format.class);
+    if (reportFormats == null) {
+      return formats;
+    }
+    for (final String format : reportFormats) {
+      try {
+        formats.add(TraceReportRenderer.Format.valueOf(format.trim().toUpperCase(Locale.ROOT)));
+      } catch (final IllegalArgumentException e) {
+        throw new MojoFailureException(
+            "Unsupported report format " + format + ". Supported formats are text, json, junit");
+      }
+    }
+    return formats;
+  }
+
+  private Traces getTraces(
+      final ContrastSDK contrast, final String applicationId, final TraceFilterForm form)
+      throws MojoFailureException {
+    try {
+      final String organizationID = getOrganizationId();
+      return getRetryPolicy()
+          .execute(
+              "retrieve the traces",
+              true,
+              () -> contrast.getTraces(organizationID, applicationId, form));
+    } catch (IOException e) {
+      throw new MojoFailureException("Unable to retrieve the traces.", e);
+    } catch (UnauthorizedException e) {
+      throw new MojoFailureException("Unable to connect to Contrast.", e);
+    }
+  }
+
   TraceFilterForm getTraceFilterForm(List<Long> serverIds) {
     TraceFilterForm form = new TraceFilterForm();
     form.setSeverities(getSeverityList(minSeverity));
@@ -129,6 +438,38 @@ public final class ContrastVerifyMojo extends AbstractAssessMojo {
     return form;
   }
 
+  /**
+   * @param serverIds servers to filter on, or {@code null}
+   * @param watermark watermark of the last successful verify, or {@code null}
+   * @return filter for the vulnerabilities discovered since the watermark
+   */
+  private TraceFilterForm getTraceFilterForm(
+      final List<Long> serverIds, final VerifyWatermark watermark) {
+    final TraceFilterForm form = getTraceFilterForm(serverIds);
+    if (watermark != null && watermark.previousTimestamp() > 0) {
+      form.setStartDate(new Date(watermark.previousTimestamp()));
+    }
+    return form;
+  }
+
+  /**
+   * @param applicationId application to verify
+   * @return watermark of the last successful verify of the application version, or {@code null}
+   *     when not verifying incrementally
+   */
+  private VerifyWatermark readWatermark(final String applicationId) {
+    if (!incrementalVerify || computedAppVersion == null || getCacheDirectory() == null) {
+      return null;
+    }
+    try {
+      return VerifyWatermark.read(
+          getCacheDirectory().toPath(), getOrganizationId(), applicationId, computedAppVersion);
+    } catch (final IOException e) {
+      getLog().warn("Unable to read the incremental verify watermark.", e);
+      return null;
+    }
+  }
+
   /**
    * Retrieves the server id by server name
    *
@@ -146,9 +487,14 @@ public final class ContrastVerifyMojo extends AbstractAssessMojo {
     List<Long> serverIds;
 
     final String organizationID = getOrganizationId();
-    try {
+    try (BuildMetrics.Span ignored = getMetrics().span("server.lookup")) {
       serverFilterForm.setQ(URLEncoder.encode(getServerName(), "UTF-8"));
-      servers = sdk.getServersWithFilter(organizationID, serverFilterForm);
+      servers =
+          getRetryPolicy()
+              .execute(
+                  "retrieve the servers",
+                  true,
+                  () -> sdk.getServersWithFilter(organizationID, serverFilterForm));
     } catch (IOException e) {
       throw new MojoFailureException("Unable to retrieve the servers.", e);
     } catch (UnauthorizedException e) {
@@ -171,33 +517,76 @@ public final class ContrastVerifyMojo extends AbstractAssessMojo {
   }
 
   /**
-   * Retrieves the application id by application name; else null
+   * visible for testing
+   *
+   * <p>Retrieves the application id by application name; else null
    *
    * @param sdk Contrast SDK object
    * @param applicationName application name to filter on
    * @return String of the application
    * @throws MojoFailureException
    */
-  private String getApplicationId(ContrastSDK sdk, String applicationName)
-      throws MojoFailureException {
+  String getApplicationId(ContrastSDK sdk, String applicationName) throws MojoFailureException {
+
+    final String organizationID = getOrganizationId();
+    final ApplicationIndex index =
+        applicationIndexTtlMs > 0 && getCacheDirectory() != null
+            ? ApplicationIndex.forOrganization(
+                getCacheDirectory().toPath(),
+                organizationID,
+                Duration.ofMillis(applicationIndexTtlMs))
+            : null;
+    if (index != null) {
+      try {
+        final Optional<String> indexed = index.find(applicationName, Instant.now());
+        if (indexed.isPresent()) {
+          if (hasApplication(sdk, indexed.get(), applicationName)) {
+            getLog().debug("Found application " + applicationName + " in the application index");
+            return indexed.get();
+          }
+          getLog()
+              .debug(
+                  "Application "
+                      + indexed.get()
+                      + " in the application index is no longer named "
+                      + applicationName);
+          index.invalidate();
+        }
+      } catch (final IOException e) {
+        getLog().warn("Unable to read the application index.", e);
+      }
+    }
 
     Applications applications;
 
-    final String organizationID = getOrganizationId();
-    try {
-      applications = sdk.getApplications(organizationID);
+    try (BuildMetrics.Span ignored = getMetrics().span("application.lookup")) {
+      applications =
+          getRetryPolicy()
+              .execute(
+                  "retrieve the applications", true, () -> sdk.getApplications(organizationID));
     } catch (Exception e) {
       throw new MojoFailureException(
           "\n\nUnable to retrieve the application list from Contrast. Please check Contrast connection configuration\n",
           e);
     }
 
+    final Map<String, String> applicationIds = new HashMap<>();
     for (Application application : applications.getApplications()) {
-      if (applicationName.equals(application.getName())) {
-        return application.getId();
+      applicationIds.putIfAbsent(application.getName(), application.getId());
+    }
+    if (index != null) {
+      try {
+        index.write(applicationIds, Instant.now());
+      } catch (final IOException e) {
+        getLog().warn("Unable to update the application index.", e);
       }
     }
 
+    final String applicationId = applicationIds.get(applicationName);
+    if (applicationId != null) {
+      return applicationId;
+    }
+
     throw new MojoFailureException(
         "\n\nApplication with name '"
             + applicationName
@@ -205,37 +594,44 @@ public final class ContrastVerifyMojo extends AbstractAssessMojo {
   }
 
   /**
-   * Creates a basic report for a Trace object
-   *
-   * @param trace Trace object
-   * @return String report
-   */
-  private String generateTraceReport(Trace trace) {
-    StringBuilder sb = new StringBuilder();
-    sb.append("Trace: ");
-    sb.append(
-        trace
-            .getTitle()
-            .replaceAll("\\{\\{\\#unlicensed\\}\\}", "(")
-            .replaceAll("\\{\\{\\/unlicensed\\}\\}", ")"));
-    sb.append("\nTrace Uuid: ");
-    sb.append(trace.getUuid());
-    sb.append("\nTrace Severity: ");
-    sb.append(trace.getSeverity());
-    sb.append("\nTrace Likelihood: ");
-    sb.append(trace.getLikelihood());
-    sb.append("\n");
-
-    return sb.toString();
+   * Confirms an application ID from the application index, which may be stale when the application
+   * has since been deleted or renamed. Retrieving one application is much cheaper than retrieving
+   * the organization's application list.
+   *
+   * @param sdk Contrast SDK object
+   * @param applicationId ID of the application
+   * @param applicationName name which the application should have
+   * @return whether Contrast has an application with the given ID and name
+   */
+  private boolean hasApplication(
+      final ContrastSDK sdk, final String applicationId, final String applicationName) {
+    final String organizationID = getOrganizationId();
+    final Applications applications;
+    try (BuildMetrics.Span ignored = getMetrics().span("application.lookup")) {
+      applications =
+          getRetryPolicy()
+              .execute(
+                  "retrieve application " + applicationId,
+                  true,
+                  () -> sdk.getApplication(organizationID, applicationId));
+    } catch (final IOException | HttpResponseException e) {
+      getLog().debug("Unable to retrieve application " + applicationId, e);
+      return false;
+    }
+    return applications != null
+        && applications.getApplication() != null
+        && applicationName.equals(applications.getApplication().getName());
   }
 
   /**
    * Returns the sublist of severities greater than or equal to the configured severity level
    *
+   * <p>visible for benchmarks
+   *
    * @param severity include severity to filter with severity list with
    * @return list of severity strings
    */
-  private static EnumSet<RuleSeverity> getSeverityList(String severity) {
+  static EnumSet<RuleSeverity> getSeverityList(String severity) {
 
     List<String> severityList = SEVERITIES.subList(SEVERITIES.indexOf(severity), SEVERITIES.size());
 
@@ -248,6 +644,9 @@ public final class ContrastVerifyMojo extends AbstractAssessMojo {
     return EnumSet.copyOf(ruleSeverities);
   }
 
+  private static final Duration POLL_INITIAL_DELAY = Duration.ofMillis(500);
+  private static final Duration POLL_MAX_DELAY = Duration.ofSeconds(4);
+
   // Severity levels
   private static final List<String> SEVERITIES =
       Arrays.asList("Note", "Low", "Medium", "High", "Critical");
@@ -0,0 +1,81 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/** Static utilities for computing SHA-256 hashes of files without reading them into memory */
+final class Digests {
+
+  /**
+   * @return new SHA-256 {@link MessageDigest}
+   */
+  static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (final NoSuchAlgorithmException e) {
+      throw new AssertionError("Every Java platform is required to support SHA-256", e);
+    }
+  }
+
+  /**
+   * Computes the SHA-256 of the given file by streaming it through a small, fixed-size buffer.
+   *
+   * @param file file to hash
+   * @return hex encoded SHA-256 of the file
+   * @throws IOException when fails to read the file
+   */
+  static String sha256(final Path file) throws IOException {
+    final MessageDigest digest = sha256();
+    final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      while (channel.read(buffer) != -1) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+      }
+    }
+    return toHex(digest.digest());
+  }
+
+  /**
+   * @param bytes bytes to encode
+   * @return lower case hex encoding of the given bytes
+   */
+  static String toHex(final byte[] bytes) {
+    final StringBuilder sb = new StringBuilder(bytes.length * 2);
+    for (final byte b : bytes) {
+      sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return sb.toString();
+  }
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /** static members only */
+  private Digests() {}
+}
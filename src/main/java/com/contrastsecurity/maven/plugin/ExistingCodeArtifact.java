@@ -0,0 +1,84 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.contrastsecurity.sdk.scan.CodeArtifact;
+import java.time.Instant;
+
+/**
+ * Reference to a code artifact which was uploaded to Contrast Scan by a previous build, for use
+ * with {@code withExistingCodeArtifact} when starting a new scan. Only the artifact's ID is known
+ * without making a request to Contrast.
+ */
+final class ExistingCodeArtifact implements CodeArtifact {
+
+  private final String id;
+  private final String projectId;
+  private final String organizationId;
+  private final String filename;
+
+  /**
+   * @param id code artifact ID
+   * @param projectId ID of the project to which the artifact belongs
+   * @param organizationId ID of the organization to which the project belongs
+   * @param filename name of the uploaded file
+   */
+  ExistingCodeArtifact(
+      final String id, final String projectId, final String organizationId, final String filename) {
+    this.id = id;
+    this.projectId = projectId;
+    this.organizationId = organizationId;
+    this.filename = filename;
+  }
+
+  @Override
+  public String id() {
+    return id;
+  }
+
+  @Override
+  public String projectId() {
+    return projectId;
+  }
+
+  @Override
+  public String organizationId() {
+    return organizationId;
+  }
+
+  @Override
+  public String filename() {
+    return filename;
+  }
+
+  /**
+   * @return {@code null} because the upload time is not recorded
+   */
+  @Override
+  public Instant createdDate() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return "ExistingCodeArtifact{id=" + id + ", filename=" + filename + "}";
+  }
+}
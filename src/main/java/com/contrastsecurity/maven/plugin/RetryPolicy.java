@@ -0,0 +1,234 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.contrastsecurity.exceptions.HttpResponseException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Random;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Retries failed requests to Contrast with exponential backoff (with jitter), shared by every goal.
+ *
+ * <p>Whether a failed request is retried depends on whether it is safe to repeat. Idempotent
+ * requests, such as retrieving vulnerabilities, are retried after any network error and after
+ * server errors. Requests which are not idempotent, such as starting a scan, are retried only when
+ * Contrast cannot have processed them: when the connection was refused, or when Contrast responded
+ * with 429 (Too Many Requests) or 503 (Service Unavailable). Timeouts are network errors, but a
+ * request interrupted because the build is stopping is never retried.
+ *
+ * <p>Every request passes through the build's {@link CircuitBreaker}, which withholds requests
+ * while Contrast appears unavailable. Waiting for the breaker does not count as an attempt, because
+ * another module's probe of Contrast, such as a large upload, may be in flight for minutes.
+ * Instead, a request fails once it has waited for the breaker for longer than a maximum wait time.
+ */
+final class RetryPolicy {
+
+  /**
+   * A request to Contrast
+   *
+   * @param <T> type of the response
+   */
+  @FunctionalInterface
+  interface Call<T> {
+    T call() throws IOException;
+  }
+
+  private final int maxAttempts;
+  private final Duration initialDelay;
+  private final Duration maxDelay;
+  private final CircuitBreaker breaker;
+  private final Duration maxBreakerWait;
+  private final Random random;
+  private final Clock clock;
+  private final Log log;
+  private final BuildMetrics metrics;
+
+  /**
+   * @param maxAttempts maximum number of attempts for each request, including the first
+   * @param initialDelay delay before the first retry
+   * @param maxDelay upper bound on the delay between retries
+   * @param breaker circuit breaker shared by the build
+   * @param maxBreakerWait maximum time for which each request waits for the breaker to permit it
+   * @param random source of jitter
+   * @param clock clock used to wait between attempts
+   * @param log log for reporting retries
+   * @param metrics metrics to which requests and retries are counted
+   */
+  RetryPolicy(
+      final int maxAttempts,
+      final Duration initialDelay,
+      final Duration maxDelay,
+      final CircuitBreaker breaker,
+      final Duration maxBreakerWait,
+      final Random random,
+      final Clock clock,
+      final Log log,
+      final BuildMetrics metrics) {
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.initialDelay = initialDelay;
+    this.maxDelay = maxDelay;
+    this.breaker = breaker;
+    this.maxBreakerWait = maxBreakerWait;
+    this.random = random;
+    this.clock = clock;
+    this.log = log;
+    this.metrics = metrics;
+  }
+
+  /**
+   * @param maxAttempts maximum number of attempts for each request, including the first
+   * @return policy like this one, but with the given number of attempts
+   */
+  RetryPolicy withMaxAttempts(final int maxAttempts) {
+    return new RetryPolicy(
+        maxAttempts, initialDelay, maxDelay, breaker, maxBreakerWait, random, clock, log, metrics);
+  }
+
+  /**
+   * Makes the request, retrying it when it fails in a way that makes a retry worthwhile.
+   *
+   * @param description what the request does, for the log e.g. "retrieve the traces"
+   * @param idempotent whether repeating the request has the same effect as making it once
+   * @param call makes the request
+   * @param <T> type of the response
+   * @return the response
+   * @throws IOException when the last attempt fails due to a network error, when the circuit
+   *     breaker withholds the request for longer than the maximum wait time, or when interrupted
+   *     while waiting
+   * @throws HttpResponseException when the last attempt fails due to an error response
+   */
+  <T> T execute(final String description, final boolean idempotent, final Call<T> call)
+      throws IOException {
+    final Backoff backoff = new Backoff(initialDelay, maxDelay, random);
+    long waited = 0;
+    for (int attempt = 1; ; attempt++) {
+      for (long withheld = breaker.permit(); withheld > 0; withheld = breaker.permit()) {
+        final long remaining = maxBreakerWait.toMillis() - waited;
+        if (remaining <= 0) {
+          throw new IOException(
+              "Unable to "
+                  + description
+                  + " because Contrast appears unavailable after "
+                  + breaker.consecutiveFailures()
+                  + " consecutive requests failed");
+        }
+        final long wait = Math.min(withheld, remaining);
+        log.debug("Contrast appears unavailable, waiting " + wait + " ms to " + description);
+        sleep(wait);
+        waited += wait;
+      }
+
+      final Exception failure;
+      final boolean retryable;
+      boolean recorded = false;
+      metrics.increment(BuildMetrics.HTTP_REQUESTS);
+      try {
+        final T response = call.call();
+        breaker.onSuccess();
+        recorded = true;
+        return response;
+      } catch (final IOException e) {
+        if (e instanceof InterruptedIOException && Thread.currentThread().isInterrupted()) {
+          // the build is stopping, as opposed to a timeout such as SocketTimeoutException
+          throw e;
+        }
+        if (e instanceof UnknownHostException) {
+          // a misconfigured URL, retrying will not help
+          breaker.onSuccess();
+          recorded = true;
+          throw e;
+        }
+        breaker.onFailure();
+        recorded = true;
+        failure = e;
+        retryable = idempotent || e instanceof ConnectException;
+      } catch (final HttpResponseException e) {
+        recorded = true;
+        if (!isServerFailure(e.getCode())) {
+          breaker.onSuccess();
+          throw e;
+        }
+        breaker.onFailure();
+        failure = e;
+        retryable = idempotent || e.getCode() == 429 || e.getCode() == 503;
+      } catch (final RuntimeException e) {
+        // an unexpected failure, such as an unparseable response
+        breaker.onFailure();
+        recorded = true;
+        throw e;
+      } finally {
+        if (!recorded) {
+          // the request's outcome is unknown, so it must not hold on to a probe of Contrast
+          breaker.release();
+        }
+      }
+
+      if (!retryable || attempt >= maxAttempts) {
+        throw rethrow(failure);
+      }
+      final long wait = backoff.next();
+      metrics.increment(BuildMetrics.HTTP_RETRIES);
+      log.warn(
+          "Failed to "
+              + description
+              + " ("
+              + failure.getMessage()
+              + "), retrying in "
+              + wait
+              + " ms (attempt "
+              + (attempt + 1)
+              + " of "
+              + maxAttempts
+              + ")");
+      sleep(wait);
+    }
+  }
+
+  /**
+   * @param code HTTP status code
+   * @return {@code true} when the status indicates that Contrast is unavailable or overloaded, as
+   *     opposed to a problem with the request
+   */
+  private static boolean isServerFailure(final int code) {
+    return code >= 500 || code == 408 || code == 429;
+  }
+
+  private static IOException rethrow(final Exception failure) {
+    if (failure instanceof HttpResponseException) {
+      throw (HttpResponseException) failure;
+    }
+    return (IOException) failure;
+  }
+
+  private void sleep(final long millis) throws InterruptedIOException {
+    try {
+      clock.sleep(millis);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to retry a request to Contrast");
+    }
+  }
+}
@@ -0,0 +1,358 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Processes Contrast Scan results in <a href="https://sarifweb.azurewebsites.net">SARIF</a> in a
+ * single streaming pass, so that memory use does not grow with the number of results. Counts the
+ * results from their {@code baselineState}, by level, and by rule, and optionally writes a copy of
+ * the SARIF without the results excluded by level or by rule.
+ *
+ * <p>Only one result at a time is held in memory, and only when writing the filtered copy.
+ */
+final class SarifProcessor {
+
+  /** Counts of the results that pass the filters */
+  static final class Summary {
+
+    private int totalResults;
+    private int newResults;
+    private int fixedResults;
+    private boolean baselined;
+    private int excludedResults;
+    private final Map<String, Integer> resultsByLevel = new TreeMap<>();
+    private final Map<String, Integer> resultsByRule = new TreeMap<>();
+    private final Map<String, Integer> newResultsByLevel = new TreeMap<>();
+    private final Map<String, Integer> newResultsByRule = new TreeMap<>();
+
+    /**
+     * @return number of results present in the scan, i.e. excluding those that are fixed
+     */
+    int totalResults() {
+      return totalResults;
+    }
+
+    /**
+     * @return number of results that are new since the previous scan
+     */
+    int newResults() {
+      return newResults;
+    }
+
+    /**
+     * @return number of results from the previous scan which this scan no longer found
+     */
+    int fixedResults() {
+      return fixedResults;
+    }
+
+    /**
+     * @return {@code true} when the results include the {@code baselineState} from which the new
+     *     and fixed results are counted, or there are no results
+     */
+    boolean isBaselined() {
+      return baselined || (totalResults == 0 && fixedResults == 0);
+    }
+
+    /**
+     * @return number of results removed by the filters
+     */
+    int excludedResults() {
+      return excludedResults;
+    }
+
+    /**
+     * @param newOnly {@code true} to count only the results that are new since the previous scan
+     * @return number of results present in the scan by SARIF level
+     */
+    Map<String, Integer> resultsByLevel(final boolean newOnly) {
+      return Collections.unmodifiableMap(newOnly ? newResultsByLevel : resultsByLevel);
+    }
+
+    /**
+     * @param newOnly {@code true} to count only the results that are new since the previous scan
+     * @return number of results present in the scan by rule ID
+     */
+    Map<String, Integer> resultsByRule(final boolean newOnly) {
+      return Collections.unmodifiableMap(newOnly ? newResultsByRule : resultsByRule);
+    }
+
+    private void count(final String level, final String ruleId, final boolean isNew) {
+      totalResults++;
+      resultsByLevel.merge(level, 1, Integer::sum);
+      if (ruleId != null) {
+        resultsByRule.merge(ruleId, 1, Integer::sum);
+      }
+      if (isNew) {
+        newResults++;
+        newResultsByLevel.merge(level, 1, Integer::sum);
+        if (ruleId != null) {
+          newResultsByRule.merge(ruleId, 1, Integer::sum);
+        }
+      }
+    }
+  }
+
+  private final Set<String> levels;
+  private final Set<String> excludedRules;
+
+  /**
+   * @param levels SARIF levels ({@code error}, {@code warning}, {@code note}, {@code none}) of the
+   *     results to keep, or empty to keep results of every level
+   * @param excludedRules IDs of the rules whose results are removed
+   */
+  SarifProcessor(final Collection<String> levels, final Collection<String> excludedRules) {
+    this.levels = Collections.unmodifiableSet(new HashSet<>(levels));
+    this.excludedRules = Collections.unmodifiableSet(new HashSet<>(excludedRules));
+  }
+
+  /**
+   * Reads the SARIF and counts its results.
+   *
+   * @param sarif SARIF to read
+   * @param filtered where to write the SARIF without the excluded results, or {@code null}
+   * @return counts of the results that pass the filters
+   * @throws IOException when fails to read or write the SARIF
+   */
+  Summary process(final Reader sarif, final Writer filtered) throws IOException {
+    final Summary summary = new Summary();
+    final JsonReader in = new JsonReader(sarif);
+    final JsonWriter out = filtered == null ? null : new JsonWriter(filtered);
+    if (in.peek() != JsonToken.BEGIN_OBJECT) {
+      throw new IOException("SARIF must be a JSON object, but found " + in.peek());
+    }
+    begin(in, out, JsonToken.BEGIN_OBJECT);
+    while (in.hasNext()) {
+      final String name = name(in, out);
+      if ("runs".equals(name) && in.peek() == JsonToken.BEGIN_ARRAY) {
+        begin(in, out, JsonToken.BEGIN_ARRAY);
+        while (in.hasNext()) {
+          processRun(in, out, summary);
+        }
+        end(in, out, JsonToken.END_ARRAY);
+      } else {
+        copy(in, out);
+      }
+    }
+    end(in, out, JsonToken.END_OBJECT);
+    if (out != null) {
+      out.flush();
+    }
+    return summary;
+  }
+
+  private void processRun(final JsonReader in, final JsonWriter out, final Summary summary)
+      throws IOException {
+    if (in.peek() != JsonToken.BEGIN_OBJECT) {
+      copy(in, out);
+      return;
+    }
+    begin(in, out, JsonToken.BEGIN_OBJECT);
+    while (in.hasNext()) {
+      final String name = name(in, out);
+      if ("results".equals(name) && in.peek() == JsonToken.BEGIN_ARRAY) {
+        begin(in, out, JsonToken.BEGIN_ARRAY);
+        while (in.hasNext()) {
+          processResult(in, out, summary);
+        }
+        end(in, out, JsonToken.END_ARRAY);
+      } else {
+        copy(in, out);
+      }
+    }
+    end(in, out, JsonToken.END_OBJECT);
+  }
+
+  private void processResult(final JsonReader in, final JsonWriter out, final Summary summary)
+      throws IOException {
+    String ruleId = null;
+    String level = null;
+    String baselineState = null;
+    JsonObject result = null;
+    if (out != null) {
+      // the result's properties may appear in any order, so the result must be read before
+      // deciding whether to write it
+      final JsonElement element = JsonParser.parseReader(in);
+      if (!element.isJsonObject()) {
+        GSON.toJson(element, out);
+        return;
+      }
+      result = element.getAsJsonObject();
+      ruleId = string(result, "ruleId");
+      level = string(result, "level");
+      baselineState = string(result, "baselineState");
+    } else if (in.peek() == JsonToken.BEGIN_OBJECT) {
+      in.beginObject();
+      while (in.hasNext()) {
+        final String name = in.nextName();
+        if (in.peek() != JsonToken.STRING) {
+          in.skipValue();
+        } else if ("ruleId".equals(name)) {
+          ruleId = in.nextString();
+        } else if ("level".equals(name)) {
+          level = in.nextString();
+        } else if ("baselineState".equals(name)) {
+          baselineState = in.nextString();
+        } else {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+    } else {
+      in.skipValue();
+      return;
+    }
+
+    // results without a level have the SARIF default level
+    final String effectiveLevel = level == null ? DEFAULT_LEVEL : level;
+    if (!accept(ruleId, effectiveLevel)) {
+      summary.excludedResults++;
+      return;
+    }
+    if (baselineState != null) {
+      summary.baselined = true;
+    }
+    if ("absent".equals(baselineState)) {
+      summary.fixedResults++;
+    } else {
+      summary.count(effectiveLevel, ruleId, "new".equals(baselineState));
+    }
+    if (out != null) {
+      GSON.toJson(result, out);
+    }
+  }
+
+  private boolean accept(final String ruleId, final String level) {
+    if (ruleId != null && excludedRules.contains(ruleId)) {
+      return false;
+    }
+    return levels.isEmpty() || levels.contains(level);
+  }
+
+  private static String string(final JsonObject object, final String name) {
+    final JsonElement value = object.get(name);
+    return value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+  }
+
+  private static String name(final JsonReader in, final JsonWriter out) throws IOException {
+    final String name = in.nextName();
+    if (out != null) {
+      out.name(name);
+    }
+    return name;
+  }
+
+  private static void begin(final JsonReader in, final JsonWriter out, final JsonToken token)
+      throws IOException {
+    if (token == JsonToken.BEGIN_OBJECT) {
+      in.beginObject();
+      if (out != null) {
+        out.beginObject();
+      }
+    } else {
+      in.beginArray();
+      if (out != null) {
+        out.beginArray();
+      }
+    }
+  }
+
+  private static void end(final JsonReader in, final JsonWriter out, final JsonToken token)
+      throws IOException {
+    if (token == JsonToken.END_OBJECT) {
+      in.endObject();
+      if (out != null) {
+        out.endObject();
+      }
+    } else {
+      in.endArray();
+      if (out != null) {
+        out.endArray();
+      }
+    }
+  }
+
+  /** Copies the next value from the reader to the writer, or skips it when there is no writer */
+  private static void copy(final JsonReader in, final JsonWriter out) throws IOException {
+    if (out == null) {
+      in.skipValue();
+      return;
+    }
+    switch (in.peek()) {
+      case BEGIN_OBJECT:
+        begin(in, out, JsonToken.BEGIN_OBJECT);
+        while (in.hasNext()) {
+          name(in, out);
+          copy(in, out);
+        }
+        end(in, out, JsonToken.END_OBJECT);
+        break;
+      case BEGIN_ARRAY:
+        begin(in, out, JsonToken.BEGIN_ARRAY);
+        while (in.hasNext()) {
+          copy(in, out);
+        }
+        end(in, out, JsonToken.END_ARRAY);
+        break;
+      case STRING:
+        out.value(in.nextString());
+        break;
+      case NUMBER:
+        // preserve the number exactly as written
+        out.jsonValue(in.nextString());
+        break;
+      case BOOLEAN:
+        out.value(in.nextBoolean());
+        break;
+      case NULL:
+        in.nextNull();
+        out.nullValue();
+        break;
+      default:
+        throw new IOException("Unexpected " + in.peek() + " in SARIF");
+    }
+  }
+
+  /** Writes results exactly as read, without escaping HTML or omitting nulls */
+  private static final Gson GSON =
+      new GsonBuilder().disableHtmlEscaping().serializeNulls().create();
+
+  /** SARIF's default result level */
+  private static final String DEFAULT_LEVEL = "warning";
+}
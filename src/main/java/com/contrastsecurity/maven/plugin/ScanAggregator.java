@@ -0,0 +1,162 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects the artifacts of every module that runs the {@code scan} goal in aggregate mode, so that
+ * the last module to be built can scan all of them concurrently. The last module releases every
+ * pending request even when some expected modules did not request a scan, so that no request is
+ * left behind, and reports which modules are missing.
+ *
+ * <p>There is one aggregator per Maven session (see {@link SessionContext}).
+ */
+final class ScanAggregator {
+
+  /** Scan requested by one module */
+  static final class Request {
+
+    private final String module;
+    private final String projectName;
+    private final String label;
+    private final Path file;
+    private final File outputPath;
+
+    /**
+     * @param module name of the Maven module which requested the scan, for logging
+     * @param projectName Contrast Scan project name
+     * @param label label for the new scan
+     * @param file artifact to scan
+     * @param outputPath path to which the SARIF results are written
+     */
+    Request(
+        final String module,
+        final String projectName,
+        final String label,
+        final Path file,
+        final File outputPath) {
+      this.module = module;
+      this.projectName = projectName;
+      this.label = label;
+      this.file = file;
+      this.outputPath = outputPath;
+    }
+
+    String module() {
+      return module;
+    }
+
+    String projectName() {
+      return projectName;
+    }
+
+    String label() {
+      return label;
+    }
+
+    Path file() {
+      return file;
+    }
+
+    File outputPath() {
+      return outputPath;
+    }
+  }
+
+  private final List<String> modules;
+  private final Set<String> arrived = new HashSet<>();
+  private final List<Request> requests = new ArrayList<>();
+  private boolean flushed;
+
+  /**
+   * @param modules names of the modules which are expected to execute the {@code scan} goal in this
+   *     session, in the order in which Maven builds them
+   */
+  ScanAggregator(final List<String> modules) {
+    this.modules = new ArrayList<>(modules);
+  }
+
+  /**
+   * Adds a module's scan request. The requests are released once every expected module has executed
+   * the goal, or when the last module in build order executes the goal, even though other modules
+   * may not have requested a scan because they failed or were skipped.
+   *
+   * @param request the module's scan request
+   * @return all pending requests when the caller should now run all of the scans; otherwise, empty
+   */
+  synchronized List<Request> add(final Request request) {
+    requests.add(request);
+    return arrive(request.module());
+  }
+
+  /**
+   * Records that a module executed the goal without deferring its scan, e.g. because it does not
+   * use aggregate mode.
+   *
+   * @param module name of the module
+   * @return all pending requests when the caller should now run all of the scans, because it is the
+   *     last module; otherwise, empty
+   */
+  synchronized List<Request> complete(final String module) {
+    return arrive(module);
+  }
+
+  /**
+   * @return names of the expected modules which have not executed the goal, in build order
+   */
+  synchronized List<String> missing() {
+    final List<String> missing = new ArrayList<>();
+    for (final String module : modules) {
+      if (!arrived.contains(module)) {
+        missing.add(module);
+      }
+    }
+    return missing;
+  }
+
+  /**
+   * @return number of modules which are expected to request a scan in this session
+   */
+  int expected() {
+    return modules.size();
+  }
+
+  private List<Request> arrive(final String module) {
+    arrived.add(module);
+    // once released, requests from modules which execute later (e.g. in a parallel build) are
+    // released immediately
+    final boolean last = !modules.isEmpty() && module.equals(modules.get(modules.size() - 1));
+    if (!flushed && !last && !arrived.containsAll(modules)) {
+      return Collections.emptyList();
+    }
+    flushed = true;
+    final List<Request> all = new ArrayList<>(requests);
+    requests.clear();
+    return all;
+  }
+}
@@ -0,0 +1,125 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * File system record of how long a Contrast Scan project's scans take, used to predict when the
+ * next scan will complete. Keeps an exponentially weighted moving average of the scan duration and
+ * of the size of the scanned artifact, so that the prediction follows recent scans and scales with
+ * the size of the artifact.
+ */
+final class ScanDurations {
+
+  private final Path file;
+
+  /**
+   * @param file file in which the durations are stored
+   */
+  ScanDurations(final Path file) {
+    this.file = file;
+  }
+
+  /**
+   * @param directory directory in which the plugin caches data retrieved from Contrast
+   * @param organizationId organization to which the project belongs
+   * @param projectId ID of the Contrast Scan project
+   * @return new {@link ScanDurations} for the given project
+   */
+  static ScanDurations forProject(
+      final Path directory, final String organizationId, final String projectId) {
+    return new ScanDurations(
+        directory
+            .resolve("scan")
+            .resolve(AtomicFiles.safeFileName(organizationId))
+            .resolve(AtomicFiles.safeFileName(projectId) + "-durations.properties"));
+  }
+
+  /**
+   * @param size size (in bytes) of the artifact to scan
+   * @return predicted duration of a scan of an artifact of the given size, or empty if no scans
+   *     have been recorded
+   * @throws IOException when fails to read the durations
+   */
+  Optional<Duration> estimate(final long size) throws IOException {
+    final Properties properties = AtomicFiles.readProperties(file);
+    final double duration = parse(properties.getProperty(DURATION_KEY));
+    final double averageSize = parse(properties.getProperty(SIZE_KEY));
+    if (duration <= 0) {
+      return Optional.empty();
+    }
+    final double scale =
+        averageSize <= 0 || size <= 0
+            ? 1
+            : Math.max(MIN_SCALE, Math.min(MAX_SCALE, size / averageSize));
+    return Optional.of(Duration.ofMillis((long) (duration * scale)));
+  }
+
+  /**
+   * Records the duration of a completed scan.
+   *
+   * @param duration how long the scan took
+   * @param size size (in bytes) of the scanned artifact
+   * @throws IOException when fails to update the durations
+   */
+  void record(final Duration duration, final long size) throws IOException {
+    AtomicFiles.updateProperties(
+        file,
+        "Contrast Scan durations",
+        properties -> {
+          properties.setProperty(
+              DURATION_KEY,
+              Long.toString(average(properties.getProperty(DURATION_KEY), duration.toMillis())));
+          properties.setProperty(
+              SIZE_KEY, Long.toString(average(properties.getProperty(SIZE_KEY), size)));
+          return true;
+        });
+  }
+
+  private static long average(final String previous, final long value) {
+    final double average = parse(previous);
+    return average <= 0 ? value : Math.round(WEIGHT * value + (1 - WEIGHT) * average);
+  }
+
+  private static double parse(final String value) {
+    if (value == null) {
+      return 0;
+    }
+    try {
+      return Long.parseLong(value);
+    } catch (final NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  /** Weight of the most recent scan in the moving averages */
+  private static final double WEIGHT = 0.3;
+
+  private static final double MIN_SCALE = 0.5;
+  private static final double MAX_SCALE = 2;
+  private static final String DURATION_KEY = "duration";
+  private static final String SIZE_KEY = "size";
+}
@@ -0,0 +1,213 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Evaluates Contrast Scan results against the thresholds configured for the scan goal. Works from
+ * the counts that {@link SarifProcessor} collects while the results download, so that gating the
+ * build does not require reading the results again.
+ */
+final class ScanGate {
+
+  /** Violation of one threshold */
+  static final class Violation {
+
+    private final String threshold;
+    private final String name;
+    private final int max;
+    private final int actual;
+    private final boolean newOnly;
+
+    private Violation(
+        final String threshold,
+        final String name,
+        final int max,
+        final int actual,
+        final boolean newOnly) {
+      this.threshold = threshold;
+      this.name = name;
+      this.max = max;
+      this.actual = actual;
+      this.newOnly = newOnly;
+    }
+
+    @Override
+    public String toString() {
+      final StringBuilder sb = new StringBuilder().append(actual);
+      if (newOnly) {
+        sb.append(" new");
+      }
+      sb.append(" results");
+      if (name != null) {
+        sb.append(" with ").append(threshold).append(' ').append(name);
+      }
+      return sb.append(" exceed the maximum of ").append(max).toString();
+    }
+  }
+
+  /** Outcome of evaluating the results against the thresholds */
+  static final class Verdict {
+
+    private final SarifProcessor.Summary summary;
+    private final boolean newOnly;
+    private final List<Violation> violations;
+
+    private Verdict(
+        final SarifProcessor.Summary summary,
+        final boolean newOnly,
+        final List<Violation> violations) {
+      this.summary = summary;
+      this.newOnly = newOnly;
+      this.violations = Collections.unmodifiableList(violations);
+    }
+
+    /**
+     * @return {@code true} when the results are within every threshold
+     */
+    boolean passed() {
+      return violations.isEmpty();
+    }
+
+    /**
+     * @return thresholds which the results exceed
+     */
+    List<Violation> violations() {
+      return violations;
+    }
+
+    /**
+     * Atomically replaces the given file with this verdict in JSON.
+     *
+     * @param file file to write
+     * @throws IOException when fails to write the file
+     */
+    void write(final Path file) throws IOException {
+      AtomicFiles.write(file, this::writeJson);
+    }
+
+    private void writeJson(final Writer writer) throws IOException {
+      try (JsonWriter json = new JsonWriter(writer)) {
+        json.setIndent("  ");
+        json.beginObject();
+        json.name("passed").value(passed());
+        json.name("newResultsOnly").value(newOnly);
+        json.name("results").beginObject();
+        json.name("total").value(summary.totalResults());
+        json.name("new").value(summary.newResults());
+        json.name("fixed").value(summary.fixedResults());
+        json.name("excluded").value(summary.excludedResults());
+        json.endObject();
+        writeCounts(json, "resultsByLevel", summary.resultsByLevel(newOnly));
+        writeCounts(json, "resultsByRule", summary.resultsByRule(newOnly));
+        json.name("violations").beginArray();
+        for (final Violation violation : violations) {
+          json.beginObject();
+          json.name("threshold").value(violation.threshold);
+          if (violation.name != null) {
+            json.name("name").value(violation.name);
+          }
+          json.name("max").value(violation.max);
+          json.name("actual").value(violation.actual);
+          json.name("message").value(violation.toString());
+          json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+      }
+    }
+
+    private static void writeCounts(
+        final JsonWriter json, final String name, final Map<String, Integer> counts)
+        throws IOException {
+      json.name(name).beginObject();
+      for (final Map.Entry<String, Integer> entry : counts.entrySet()) {
+        json.name(entry.getKey()).value(entry.getValue());
+      }
+      json.endObject();
+    }
+  }
+
+  private final int maxResults;
+  private final Map<String, Integer> maxResultsByLevel;
+  private final Map<String, Integer> maxResultsByRule;
+  private final boolean newResultsOnly;
+
+  /**
+   * @param maxResults maximum number of results, or a negative number for no limit
+   * @param maxResultsByLevel maximum number of results of each SARIF level
+   * @param maxResultsByRule maximum number of results of each rule ID
+   * @param newResultsOnly {@code true} to count only the results that are new since the previous
+   *     scan
+   */
+  ScanGate(
+      final int maxResults,
+      final Map<String, Integer> maxResultsByLevel,
+      final Map<String, Integer> maxResultsByRule,
+      final boolean newResultsOnly) {
+    this.maxResults = maxResults;
+    this.maxResultsByLevel = Collections.unmodifiableMap(new TreeMap<>(maxResultsByLevel));
+    this.maxResultsByRule = Collections.unmodifiableMap(new TreeMap<>(maxResultsByRule));
+    this.newResultsOnly = newResultsOnly;
+  }
+
+  /**
+   * Evaluates the results against the thresholds. When the results lack the {@code baselineState}
+   * needed to tell which results are new, as in a project's first scan, every result counts as new.
+   *
+   * @param summary counts of the scan's results
+   * @return verdict describing which thresholds the results exceed
+   */
+  Verdict evaluate(final SarifProcessor.Summary summary) {
+    final boolean newOnly = newResultsOnly && summary.isBaselined();
+    final List<Violation> violations = new ArrayList<>();
+    final int total = newOnly ? summary.newResults() : summary.totalResults();
+    if (maxResults >= 0 && total > maxResults) {
+      violations.add(new Violation("total", null, maxResults, total, newOnly));
+    }
+    check("level", maxResultsByLevel, summary.resultsByLevel(newOnly), newOnly, violations);
+    check("rule", maxResultsByRule, summary.resultsByRule(newOnly), newOnly, violations);
+    return new Verdict(summary, newOnly, violations);
+  }
+
+  private static void check(
+      final String threshold,
+      final Map<String, Integer> maximums,
+      final Map<String, Integer> counts,
+      final boolean newOnly,
+      final List<Violation> violations) {
+    for (final Map.Entry<String, Integer> entry : maximums.entrySet()) {
+      final int actual = counts.getOrDefault(entry.getKey(), 0);
+      if (actual > entry.getValue()) {
+        violations.add(new Violation(threshold, entry.getKey(), entry.getValue(), actual, newOnly));
+      }
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Properties;
+
+/**
+ * Describes a scan that the {@code scan} goal started without waiting for its results, so that the
+ * {@code scan-await} goal can retrieve the results later in the build or in a later stage of the
+ * pipeline. Stored next to the scan results in the module's build directory.
+ */
+final class ScanHandle {
+
+  private final Properties properties;
+
+  /** Creates new, empty handle */
+  ScanHandle() {
+    this(new Properties());
+  }
+
+  private ScanHandle(final Properties properties) {
+    this.properties = properties;
+  }
+
+  /**
+   * @param file file in which the handle is stored
+   * @return handle read from the given file, or an empty handle if the file does not exist
+   * @throws IOException when fails to read the file
+   */
+  static ScanHandle read(final Path file) throws IOException {
+    return new ScanHandle(AtomicFiles.readProperties(file));
+  }
+
+  /**
+   * @param file file in which to store the handle
+   * @throws IOException when fails to write the file
+   */
+  void write(final Path file) throws IOException {
+    AtomicFiles.writeProperties(file, properties, "Contrast Scan handle");
+  }
+
+  /**
+   * @return {@code true} when the handle identifies a scan
+   */
+  boolean isComplete() {
+    return getOrganizationId() != null && getProjectId() != null && getScanId() != null;
+  }
+
+  String getOrganizationId() {
+    return properties.getProperty(ORGANIZATION_ID_KEY);
+  }
+
+  void setOrganizationId(final String organizationId) {
+    set(ORGANIZATION_ID_KEY, organizationId);
+  }
+
+  String getProjectId() {
+    return properties.getProperty(PROJECT_ID_KEY);
+  }
+
+  void setProjectId(final String projectId) {
+    set(PROJECT_ID_KEY, projectId);
+  }
+
+  String getScanId() {
+    return properties.getProperty(SCAN_ID_KEY);
+  }
+
+  void setScanId(final String scanId) {
+    set(SCAN_ID_KEY, scanId);
+  }
+
+  /**
+   * @return absolute path of the scanned artifact
+   */
+  String getArtifact() {
+    return properties.getProperty(ARTIFACT_KEY);
+  }
+
+  void setArtifact(final String artifact) {
+    set(ARTIFACT_KEY, artifact);
+  }
+
+  /**
+   * @return SHA-256 of the scanned artifact, or {@code null} if unknown
+   */
+  String getSha256() {
+    return properties.getProperty(SHA256_KEY);
+  }
+
+  void setSha256(final String sha256) {
+    set(SHA256_KEY, sha256);
+  }
+
+  /**
+   * @return when the scan started, or {@code null} if unknown
+   */
+  Instant getStarted() {
+    final String value = properties.getProperty(STARTED_KEY);
+    if (value == null) {
+      return null;
+    }
+    try {
+      return Instant.ofEpochMilli(Long.parseLong(value));
+    } catch (final NumberFormatException e) {
+      return null;
+    }
+  }
+
+  void setStarted(final Instant started) {
+    set(STARTED_KEY, started == null ? null : Long.toString(started.toEpochMilli()));
+  }
+
+  private void set(final String key, final String value) {
+    if (value == null) {
+      properties.remove(key);
+    } else {
+      properties.setProperty(key, value);
+    }
+  }
+
+  private static final String ORGANIZATION_ID_KEY = "organizationId";
+  private static final String PROJECT_ID_KEY = "projectId";
+  private static final String SCAN_ID_KEY = "scanId";
+  private static final String ARTIFACT_KEY = "artifact";
+  private static final String SHA256_KEY = "sha256";
+  private static final String STARTED_KEY = "started";
+}
@@ -0,0 +1,86 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.contrastsecurity.sdk.scan.Project;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+
+/**
+ * Index of Contrast Scan project names to projects shared by every goal and module in a build (see
+ * {@link SessionContext}). Each project is resolved at most once per build: the first module to
+ * request a name finds or creates the project, while other modules which request the same name,
+ * including concurrently in aggregate mode, wait for and share the result. Different names resolve
+ * concurrently.
+ *
+ * <p>Failed resolutions are not retained, so a later request for the same name tries again.
+ */
+final class ScanProjects {
+
+  /** Finds or creates a project */
+  interface Resolver {
+    Project resolve() throws MojoFailureException;
+  }
+
+  private final ConcurrentMap<List<String>, CompletableFuture<Project>> projects =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Retrieves the project with the given key, resolving it if this is the first request for the
+   * key.
+   *
+   * @param key values that identify the project, such as the organization and project name
+   * @param resolver finds or creates the project when it has not yet been resolved
+   * @return the project
+   * @throws MojoFailureException when fails to resolve the project
+   */
+  Project get(final List<String> key, final Resolver resolver) throws MojoFailureException {
+    final CompletableFuture<Project> resolving = new CompletableFuture<>();
+    final CompletableFuture<Project> existing = projects.putIfAbsent(key, resolving);
+    if (existing == null) {
+      try {
+        final Project project = resolver.resolve();
+        resolving.complete(project);
+        return project;
+      } catch (final MojoFailureException | RuntimeException e) {
+        projects.remove(key, resolving);
+        resolving.completeExceptionally(e);
+        throw e;
+      }
+    }
+    try {
+      return existing.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MojoFailureException("Interrupted while resolving project " + key, e);
+    } catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof MojoFailureException) {
+        throw (MojoFailureException) cause;
+      }
+      throw new MojoFailureException("Failed to resolve project " + key, cause);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.contrastsecurity.sdk.scan.Scan;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+
+/** Strategy for waiting for a Contrast Scan to complete. */
+interface ScanWaiter {
+
+  /**
+   * @param scan the scan to wait for
+   * @param started when the scan started
+   * @param artifact the file that the scan analyzes
+   * @param scheduler executor used to poll for the scan's completion
+   * @param console where progress is written
+   * @return stage which completes with the completed scan, or completes exceptionally when the scan
+   *     fails
+   */
+  CompletionStage<Scan> await(
+      Scan scan,
+      Instant started,
+      Path artifact,
+      ScheduledExecutorService scheduler,
+      Consumer<String> console);
+}
@@ -0,0 +1,76 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Holds objects that are shared by all executions of this plugin's goals within one Maven session
+ * (i.e. one build), regardless of which module or thread is executing.
+ *
+ * <p>Maven loads the plugin's classes once per build, but a single JVM may run several builds (e.g.
+ * the Maven daemon), so objects are keyed by the build and are released when the build is garbage
+ * collected. Maven gives each module its own clone of the {@link MavenSession}, so the key is the
+ * session's {@link MavenExecutionRequest}, which every clone shares.
+ */
+final class SessionContext {
+
+  private static final Map<Object, ConcurrentMap<Class<?>, Object>> SESSIONS =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  /**
+   * Retrieves the session's instance of the given type, creating it if this is the first request
+   * for the type in this session.
+   *
+   * @param session the current Maven session
+   * @param type type of the shared object, which identifies it within the session
+   * @param factory creates the shared object when it does not yet exist
+   * @param <T> type of the shared object
+   * @return the session's instance of the given type
+   */
+  static <T> T get(final MavenSession session, final Class<T> type, final Supplier<T> factory) {
+    final ConcurrentMap<Class<?>, Object> objects;
+    synchronized (SESSIONS) {
+      objects = SESSIONS.computeIfAbsent(key(session), ignored -> new ConcurrentHashMap<>());
+    }
+    return type.cast(objects.computeIfAbsent(type, ignored -> factory.get()));
+  }
+
+  /**
+   * @param session the current Maven session
+   * @return object which identifies the build, and which is the same for every module's clone of
+   *     the session
+   */
+  private static Object key(final MavenSession session) {
+    final MavenExecutionRequest request = session.getRequest();
+    return request == null ? session : request;
+  }
+
+  /** static members only */
+  private SessionContext() {}
+}
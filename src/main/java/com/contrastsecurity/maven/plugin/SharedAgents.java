@@ -0,0 +1,65 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.maven.plugin.MojoFailureException;
+
+/**
+ * Registry of the Contrast Java agents installed for the whole build, so that the install goal
+ * installs the agent once rather than once for every module (see {@link SessionContext}). Agents
+ * are keyed by everything that determines which agent is installed, and where: the Contrast URL,
+ * the organization, and the agent's destination.
+ */
+final class SharedAgents {
+
+  /** Installs the agent for the build */
+  interface Installer {
+    Path install() throws MojoFailureException;
+  }
+
+  private final Map<List<Object>, Path> agents = new HashMap<>();
+
+  /**
+   * Retrieves the agent with the given configuration, installing it if this is the first request
+   * for the configuration, or if the installed agent has since been deleted (e.g. by a {@code
+   * clean} of the module in which it resides). Agents are installed one at a time, and every module
+   * waits for the agent that it needs to be installed.
+   *
+   * @param key values that determine which agent is installed, and where
+   * @param installer installs the agent when it is not yet installed
+   * @return path to the installed agent
+   * @throws MojoFailureException when fails to install the agent
+   */
+  synchronized Path get(final List<Object> key, final Installer installer)
+      throws MojoFailureException {
+    Path agent = agents.get(key);
+    if (agent == null || !Files.exists(agent)) {
+      agent = installer.install();
+      agents.put(key, agent);
+    }
+    return agent;
+  }
+}
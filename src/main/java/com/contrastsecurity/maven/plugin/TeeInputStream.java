@@ -0,0 +1,93 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/** Input stream which copies every byte read from it to an output stream. */
+final class TeeInputStream extends FilterInputStream {
+
+  private final OutputStream copy;
+
+  /**
+   * @param in stream to read
+   * @param copy stream to which bytes read are copied. Closed when this stream is closed.
+   */
+  TeeInputStream(final InputStream in, final OutputStream copy) {
+    super(in);
+    this.copy = copy;
+  }
+
+  @Override
+  public int read() throws IOException {
+    final int b = super.read();
+    if (b != -1) {
+      copy.write(b);
+    }
+    return b;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    final int read = super.read(b, off, len);
+    if (read > 0) {
+      copy.write(b, off, read);
+    }
+    return read;
+  }
+
+  /** Skipped bytes must be copied too, so reads them rather than skipping */
+  @Override
+  public long skip(final long n) throws IOException {
+    if (n <= 0) {
+      return 0;
+    }
+    final byte[] buffer = new byte[(int) Math.min(n, SKIP_BUFFER_SIZE)];
+    long skipped = 0;
+    while (skipped < n) {
+      final int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+      if (read == -1) {
+        break;
+      }
+      skipped += read;
+    }
+    return skipped;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      super.close();
+    } finally {
+      copy.close();
+    }
+  }
+
+  private static final int SKIP_BUFFER_SIZE = 8 * 1024;
+}
@@ -0,0 +1,156 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Polls Contrast for vulnerabilities until the number of vulnerabilities reported by the agent
+ * settles.
+ *
+ * <p>The agent reports vulnerabilities asynchronously, so vulnerabilities found near the end of
+ * integration testing may not be available from Contrast immediately. Rather than wait a fixed
+ * amount of time, the poller fetches vulnerabilities with exponential backoff (with jitter) and
+ * stops as soon as the count has been unchanged for a number of consecutive polls spanning at least
+ * the configured quiet period, or when the maximum wait time elapses.
+ *
+ * <p>A count of zero may only mean that the agent has not yet reported its findings, so the poller
+ * does not consider a count of zero settled until the empty wait time has elapsed.
+ */
+final class TracePoller {
+
+  /**
+   * Fetches the current vulnerabilities from Contrast
+   *
+   * @param <T> type of the result
+   */
+  @FunctionalInterface
+  interface Fetch<T> {
+    T fetch() throws MojoFailureException;
+  }
+
+  private final Duration initialDelay;
+  private final Duration maxDelay;
+  private final Duration maxWait;
+  private final Duration quietPeriod;
+  private final Duration emptyWait;
+  private final int stablePolls;
+  private final Random random;
+  private final Clock clock;
+  private final Log log;
+
+  /**
+   * @param initialDelay delay between the first and second poll
+   * @param maxDelay upper bound on the delay between polls
+   * @param maxWait maximum time to spend polling
+   * @param quietPeriod minimum time for which the count must be unchanged
+   * @param emptyWait minimum time to poll before a count of zero is considered settled
+   * @param stablePolls number of consecutive polls for which the count must be unchanged
+   * @param random source of jitter
+   * @param clock clock used to measure and wait
+   * @param log log for reporting progress
+   */
+  TracePoller(
+      final Duration initialDelay,
+      final Duration maxDelay,
+      final Duration maxWait,
+      final Duration quietPeriod,
+      final Duration emptyWait,
+      final int stablePolls,
+      final Random random,
+      final Clock clock,
+      final Log log) {
+    this.initialDelay = initialDelay;
+    this.maxDelay = maxDelay;
+    this.maxWait = maxWait;
+    this.quietPeriod = quietPeriod;
+    this.emptyWait = emptyWait;
+    this.stablePolls = stablePolls;
+    this.random = random;
+    this.clock = clock;
+    this.log = log;
+  }
+
+  /**
+   * Polls until the count settles or the maximum wait time elapses.
+   *
+   * @param fetch retrieves the current result from Contrast
+   * @param count counts the vulnerabilities in a result
+   * @param <T> type of the result
+   * @return the most recently fetched result
+   * @throws MojoFailureException when fails to fetch a result
+   * @throws InterruptedException when interrupted while waiting between polls
+   */
+  <T> T poll(final Fetch<T> fetch, final ToIntFunction<T> count)
+      throws MojoFailureException, InterruptedException {
+    final long start = clock.millis();
+    T last = fetch.fetch();
+    int lastCount = count.applyAsInt(last);
+    long lastChange = start;
+    int unchanged = 0;
+    int polls = 1;
+    final Backoff backoff = new Backoff(initialDelay, maxDelay, random);
+    while (true) {
+      final long now = clock.millis();
+      if (unchanged >= stablePolls
+          && now - lastChange >= quietPeriod.toMillis()
+          && (lastCount > 0 || now - start >= emptyWait.toMillis())) {
+        log.debug(
+            "Vulnerability count settled at "
+                + lastCount
+                + " after "
+                + polls
+                + " requests in "
+                + (now - start)
+                + " ms");
+        return last;
+      }
+      final long remaining = maxWait.toMillis() - (now - start);
+      if (remaining <= 0) {
+        log.debug(
+            "Vulnerability count did not settle in "
+                + maxWait.toMillis()
+                + " ms, using the latest count "
+                + lastCount);
+        return last;
+      }
+      clock.sleep(Math.min(backoff.next(), remaining));
+
+      last = fetch.fetch();
+      polls++;
+      final int current = count.applyAsInt(last);
+      if (current == lastCount) {
+        unchanged++;
+      } else {
+        log.debug("Vulnerability count changed from " + lastCount + " to " + current);
+        lastCount = current;
+        lastChange = clock.millis();
+        unchanged = 0;
+        // the agent is still reporting, so check again soon
+        backoff.reset();
+      }
+    }
+  }
+}
@@ -0,0 +1,315 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.contrastsecurity.models.Trace;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+
+/**
+ * Renders vulnerability reports for the {@code verify} goal, to the console and to report files in
+ * plain text, JSON, and JUnit XML formats.
+ *
+ * <p>Vulnerabilities are rendered one at a time into a single reusable buffer, and report files are
+ * written through large buffers, so that reporting tens of thousands of vulnerabilities neither
+ * holds them in memory nor allocates per vulnerability. Not thread safe.
+ */
+final class TraceReportRenderer implements Closeable {
+
+  /** Report file formats */
+  enum Format {
+    TEXT,
+    JSON,
+    JUNIT
+  }
+
+  private final StringBuilder buffer = new StringBuilder(INITIAL_BUFFER_SIZE);
+  private final Writer text;
+  private final Writer json;
+  private final Writer junit;
+  private final Path junitFile;
+  private final Path junitBody;
+  private int count;
+
+  /**
+   * @param directory directory to which report files are written
+   * @param formats formats of the report files to write
+   * @throws IOException when fails to create the report files
+   */
+  TraceReportRenderer(final Path directory, final Set<Format> formats) throws IOException {
+    if (!formats.isEmpty()) {
+      Files.createDirectories(directory);
+    }
+    text = formats.contains(Format.TEXT) ? open(directory.resolve(TEXT_FILE_NAME)) : null;
+    json = formats.contains(Format.JSON) ? open(directory.resolve(JSON_FILE_NAME)) : null;
+    if (formats.contains(Format.JUNIT)) {
+      // the test suite's header includes the number of tests, which is known only once every
+      // vulnerability has been written, so the test cases are written to a temporary file first
+      junitFile = directory.resolve(JUNIT_FILE_NAME);
+      junitBody = directory.resolve(JUNIT_FILE_NAME + ".tmp");
+      junit = open(junitBody);
+    } else {
+      junitFile = null;
+      junitBody = null;
+      junit = null;
+    }
+    if (json != null) {
+      json.write("{\"vulnerabilities\":[");
+    }
+  }
+
+  /**
+   * Renders the vulnerability's plain text report.
+   *
+   * @param trace the vulnerability to render
+   * @return the report, which remains valid only until the next call to this renderer
+   */
+  CharSequence render(final Trace trace) {
+    buffer.setLength(0);
+    buffer.append("Trace: ");
+    appendTitle(trace.getTitle());
+    buffer.append("\nTrace Uuid: ").append(trace.getUuid());
+    buffer.append("\nTrace Severity: ").append(trace.getSeverity());
+    buffer.append("\nTrace Likelihood: ").append(trace.getLikelihood());
+    buffer.append('\n');
+    return buffer;
+  }
+
+  /**
+   * Writes the vulnerability to every report file.
+   *
+   * @param trace the vulnerability to write
+   * @throws IOException when fails to write to a report file
+   */
+  void write(final Trace trace) throws IOException {
+    count++;
+    if (text != null) {
+      text.append(render(trace)).append('\n');
+    }
+    if (json != null) {
+      buffer.setLength(0);
+      if (count > 1) {
+        buffer.append(',');
+      }
+      buffer.append("{\"uuid\":");
+      appendJson(trace.getUuid());
+      buffer.append(",\"title\":");
+      final int start = buffer.length();
+      appendTitle(trace.getTitle());
+      final String title = buffer.substring(start);
+      buffer.setLength(start);
+      appendJson(title);
+      buffer.append(",\"rule\":");
+      appendJson(trace.getRule());
+      buffer.append(",\"severity\":");
+      appendJson(trace.getSeverity());
+      buffer.append(",\"likelihood\":");
+      appendJson(trace.getLikelihood());
+      buffer.append('}');
+      json.append(buffer);
+    }
+    if (junit != null) {
+      buffer.setLength(0);
+      buffer.append("  <testcase classname=\"contrast.");
+      appendXml(trace.getRule());
+      buffer.append("\" name=\"");
+      appendXml(trace.getUuid());
+      buffer.append("\">\n    <failure type=\"");
+      appendXml(trace.getSeverity());
+      buffer.append("\" message=\"");
+      final int start = buffer.length();
+      appendTitle(trace.getTitle());
+      final String title = buffer.substring(start);
+      buffer.setLength(start);
+      appendXml(title);
+      buffer.append("\"/>\n  </testcase>\n");
+      junit.append(buffer);
+    }
+  }
+
+  /**
+   * Completes and closes every report file.
+   *
+   * @throws IOException when fails to write a report file
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      if (text != null) {
+        text.close();
+      }
+      if (json != null) {
+        try {
+          json.write("]}\n");
+        } finally {
+          json.close();
+        }
+      }
+      if (junit != null) {
+        junit.close();
+        try (Writer writer = open(junitFile);
+            Reader body = Files.newBufferedReader(junitBody, StandardCharsets.UTF_8)) {
+          writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+          writer.write(
+              "<testsuite name=\"contrast-verify\" tests=\""
+                  + count
+                  + "\" failures=\""
+                  + count
+                  + "\" errors=\"0\" skipped=\"0\">\n");
+          final char[] chars = new char[COPY_BUFFER_SIZE];
+          for (int read = body.read(chars); read != -1; read = body.read(chars)) {
+            writer.write(chars, 0, read);
+          }
+          writer.write("</testsuite>\n");
+        }
+      }
+    } finally {
+      if (junitBody != null) {
+        Files.deleteIfExists(junitBody);
+      }
+    }
+  }
+
+  /**
+   * Appends the title, replacing the markers that Contrast places around text that requires a
+   * license with parentheses, without using regular expressions.
+   */
+  private void appendTitle(final String title) {
+    if (title == null) {
+      buffer.append((String) null);
+      return;
+    }
+    int from = 0;
+    while (from < title.length()) {
+      final int open = title.indexOf(UNLICENSED_OPEN, from);
+      final int close = title.indexOf(UNLICENSED_CLOSE, from);
+      final int next = open < 0 ? close : close < 0 ? open : Math.min(open, close);
+      if (next < 0) {
+        break;
+      }
+      buffer.append(title, from, next);
+      if (next == open) {
+        buffer.append('(');
+        from = next + UNLICENSED_OPEN.length();
+      } else {
+        buffer.append(')');
+        from = next + UNLICENSED_CLOSE.length();
+      }
+    }
+    buffer.append(title, from, title.length());
+  }
+
+  private void appendJson(final String value) {
+    if (value == null) {
+      buffer.append("null");
+      return;
+    }
+    buffer.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          buffer.append("\\\"");
+          break;
+        case '\\':
+          buffer.append("\\\\");
+          break;
+        case '\n':
+          buffer.append("\\n");
+          break;
+        case '\r':
+          buffer.append("\\r");
+          break;
+        case '\t':
+          buffer.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            buffer.append(String.format("\\u%04x", (int) c));
+          } else {
+            buffer.append(c);
+          }
+      }
+    }
+    buffer.append('"');
+  }
+
+  private void appendXml(final String value) {
+    if (value == null) {
+      return;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      switch (c) {
+        case '<':
+          buffer.append("&lt;");
+          break;
+        case '>':
+          buffer.append("&gt;");
+          break;
+        case '&':
+          buffer.append("&amp;");
+          break;
+        case '"':
+          buffer.append("&quot;");
+          break;
+        case '\n':
+          buffer.append("&#10;");
+          break;
+        default:
+          if (c >= 0x20 || c == '\t') {
+            buffer.append(c);
+          }
+      }
+    }
+  }
+
+  private static Writer open(final Path file) throws IOException {
+    final FileChannel channel =
+        FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+    return new BufferedWriter(
+        Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1), WRITE_BUFFER_SIZE);
+  }
+
+  static final String TEXT_FILE_NAME = "contrast-vulnerabilities.txt";
+  static final String JSON_FILE_NAME = "contrast-vulnerabilities.json";
+  static final String JUNIT_FILE_NAME = "TEST-contrast-verify.xml";
+
+  private static final String UNLICENSED_OPEN = "{{#unlicensed}}";
+  private static final String UNLICENSED_CLOSE = "{{/unlicensed}}";
+  private static final int INITIAL_BUFFER_SIZE = 512;
+  private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+  private static final int COPY_BUFFER_SIZE = 8 * 1024;
+}
@@ -0,0 +1,142 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.contrastsecurity.models.Trace;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Marks how far the last successful {@code verify} of an application version got, so that the next
+ * {@code verify} only needs to evaluate vulnerabilities discovered since. The watermark is the
+ * latest time at which a vulnerability evaluated by that verify was first seen, along with the
+ * UUIDs of the vulnerabilities first seen at exactly that time, which a query starting at that time
+ * returns again.
+ *
+ * <p>Each instance holds both the watermark of the last successful verify, against which {@link
+ * #isKnown(Trace)} checks vulnerabilities, and the watermark advanced by the vulnerabilities that
+ * this verify evaluates, which {@link #write()} saves once this verify succeeds.
+ */
+final class VerifyWatermark {
+
+  private final Path file;
+  private final long previousTimestamp;
+  private final Set<String> previousUuids;
+  private long timestamp;
+  private final Set<String> uuids;
+
+  private VerifyWatermark(final Path file, final long timestamp, final Set<String> uuids) {
+    this.file = file;
+    this.previousTimestamp = timestamp;
+    this.previousUuids = Collections.unmodifiableSet(new HashSet<>(uuids));
+    this.timestamp = timestamp;
+    this.uuids = new HashSet<>(uuids);
+  }
+
+  /**
+   * @param directory directory in which the plugin caches data retrieved from Contrast
+   * @param organizationId organization to which the application belongs
+   * @param applicationId ID of the application
+   * @param appVersion version of the application
+   * @return the watermark of the last successful verify of the given application version, which is
+   *     empty if there is no such verify
+   * @throws IOException when fails to read the watermark
+   */
+  static VerifyWatermark read(
+      final Path directory,
+      final String organizationId,
+      final String applicationId,
+      final String appVersion)
+      throws IOException {
+    final Path file =
+        directory
+            .resolve("verify")
+            .resolve(AtomicFiles.safeFileName(organizationId))
+            .resolve(AtomicFiles.safeFileName(applicationId))
+            .resolve(AtomicFiles.safeFileName(appVersion) + ".properties");
+    final Properties properties = AtomicFiles.readProperties(file);
+    long timestamp;
+    try {
+      timestamp = Long.parseLong(properties.getProperty(TIMESTAMP_KEY, "0"));
+    } catch (final NumberFormatException e) {
+      timestamp = 0;
+    }
+    final String uuids = properties.getProperty(UUIDS_KEY, "");
+    return new VerifyWatermark(
+        file,
+        timestamp,
+        uuids.isEmpty() ? Collections.emptySet() : new HashSet<>(Arrays.asList(uuids.split(","))));
+  }
+
+  /**
+   * @return time (in milliseconds since the epoch) from which to query for vulnerabilities, or
+   *     {@code 0} when there has been no successful verify
+   */
+  long previousTimestamp() {
+    return previousTimestamp;
+  }
+
+  /**
+   * @param trace vulnerability returned by Contrast
+   * @return {@code true} when the last successful verify already evaluated the vulnerability
+   */
+  boolean isKnown(final Trace trace) {
+    final long firstSeen = trace.getFirstTimeSeen();
+    return firstSeen < previousTimestamp
+        || (firstSeen == previousTimestamp && previousUuids.contains(trace.getUuid()));
+  }
+
+  /**
+   * Advances the watermark past a vulnerability that this verify evaluated.
+   *
+   * @param trace vulnerability evaluated by this verify
+   */
+  void advance(final Trace trace) {
+    final long firstSeen = trace.getFirstTimeSeen();
+    if (firstSeen > timestamp) {
+      timestamp = firstSeen;
+      uuids.clear();
+    }
+    if (firstSeen == timestamp) {
+      uuids.add(trace.getUuid());
+    }
+  }
+
+  /**
+   * Saves the advanced watermark. Call only once this verify has succeeded.
+   *
+   * @throws IOException when fails to write the watermark
+   */
+  void write() throws IOException {
+    final Properties properties = new Properties();
+    properties.setProperty(TIMESTAMP_KEY, Long.toString(timestamp));
+    properties.setProperty(UUIDS_KEY, String.join(",", uuids));
+    AtomicFiles.writeProperties(file, properties, "Contrast verify watermark");
+  }
+
+  private static final String TIMESTAMP_KEY = "timestamp";
+  private static final String UUIDS_KEY = "uuids";
+}
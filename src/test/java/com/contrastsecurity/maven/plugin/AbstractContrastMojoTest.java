@@ -22,7 +22,12 @@ package com.contrastsecurity.maven.plugin;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.contrastsecurity.sdk.ContrastSDK;
 import com.contrastsecurity.sdk.UserAgentProduct;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.settings.Settings;
 import org.junit.jupiter.api.Test;
 
 /** Unit tests for {@link AbstractContrastMojo}. */
@@ -46,4 +51,34 @@ final class AbstractContrastMojoTest {
     assertThat(ua.version()).matches("\\d+\\.\\d+(\\.\\d+)?(-SNAPSHOT)?");
     assertThat(ua.comment()).isEqualTo("Apache Maven 3.8.1");
   }
+
+  @Test
+  void modules_with_cloned_sessions_share_connection() throws MojoFailureException {
+    // GIVEN two modules, each of which executes with its own clone of the build's session as it
+    // does in Maven
+    final MavenSession session = SessionContextTest.session(new MavenProject());
+    final AbstractContrastMojo first = mojo(session.clone());
+    final AbstractContrastMojo second = mojo(session.clone());
+
+    // WHEN both modules connect to Contrast with the same configuration
+    final ContrastSDK connection = first.connectToContrast();
+
+    // THEN the modules share one connection
+    assertThat(second.connectToContrast()).isSameAs(connection);
+  }
+
+  private static AbstractContrastMojo mojo(final MavenSession session) {
+    final AbstractContrastMojo mojo =
+        new AbstractContrastMojo() {
+          @Override
+          public void execute() {}
+        };
+    mojo.setSession(session);
+    mojo.setSettings(new Settings());
+    mojo.setURL("https://app.contrastsecurity.com/Contrast/api");
+    mojo.setUserName("user");
+    mojo.setApiKey("api-key");
+    mojo.setServiceKey("service-key");
+    return mojo;
+  }
 }
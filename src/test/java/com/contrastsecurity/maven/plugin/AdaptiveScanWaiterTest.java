@@ -0,0 +1,109 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.contrastsecurity.sdk.scan.Scan;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/** Unit tests for {@link AdaptiveScanWaiter}. */
+final class AdaptiveScanWaiterTest {
+
+  @Test
+  void first_poll_happens_halfway_to_expected_completion() {
+    assertThat(AdaptiveScanWaiter.nextDelay(60_000, 0, 0)).isEqualTo(30_000);
+  }
+
+  @Test
+  void polls_more_often_as_expected_completion_approaches() {
+    assertThat(AdaptiveScanWaiter.nextDelay(60_000, 30_000, 30_000)).isEqualTo(15_000);
+    assertThat(AdaptiveScanWaiter.nextDelay(60_000, 45_000, 15_000)).isEqualTo(7_500);
+    assertThat(AdaptiveScanWaiter.nextDelay(60_000, 59_000, 2_000)).isEqualTo(2_000);
+  }
+
+  @Test
+  void backs_off_once_scan_is_overdue() {
+    assertThat(AdaptiveScanWaiter.nextDelay(60_000, 61_000, 2_000)).isEqualTo(4_000);
+    assertThat(AdaptiveScanWaiter.nextDelay(60_000, 65_000, 4_000)).isEqualTo(8_000);
+    assertThat(AdaptiveScanWaiter.nextDelay(60_000, 600_000, 60_000)).isEqualTo(60_000);
+  }
+
+  @Test
+  void long_expected_durations_are_polled_at_least_every_minute() {
+    assertThat(AdaptiveScanWaiter.nextDelay(Duration.ofHours(1).toMillis(), 0, 0))
+        .isEqualTo(60_000);
+  }
+
+  @Test
+  void measures_from_when_the_scan_started() throws IOException {
+    // GIVEN a scan which started 60 seconds ago, longer than the 30 seconds expected of it
+    final Clock clock =
+        new Clock() {
+          @Override
+          public long millis() {
+            return 100_000;
+          }
+
+          @Override
+          public void sleep(final long millis) {}
+        };
+    final Scan scan = mock(Scan.class);
+    when(scan.projectId()).thenReturn("project-id");
+    when(scan.refresh()).thenReturn(scan);
+    when(scan.isFinished()).thenReturn(true);
+    final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+    @SuppressWarnings("unchecked")
+    final Consumer<String> console = mock(Consumer.class);
+
+    // WHEN await the scan
+    final AdaptiveScanWaiter waiter = new AdaptiveScanWaiter(null, "organization-id", clock);
+    final CompletionStage<Scan> result =
+        waiter.await(
+            scan, Instant.ofEpochMilli(40_000), Paths.get("missing.jar"), scheduler, console);
+
+    // THEN polls after the minimum delay, and reports the time since the scan started
+    final ArgumentCaptor<Runnable> poll = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduler).schedule(poll.capture(), eq(2_000L), eq(TimeUnit.MILLISECONDS));
+    poll.getValue().run();
+    assertThat(result.toCompletableFuture()).isCompletedWithValue(scan);
+    verify(console).accept("Scan results available after 60.0 seconds and 1 status requests");
+  }
+
+  @Test
+  void default_estimate_grows_with_artifact_size() {
+    assertThat(AdaptiveScanWaiter.defaultEstimate(0)).isEqualTo(Duration.ofSeconds(30));
+    assertThat(AdaptiveScanWaiter.defaultEstimate(50_000_000)).isEqualTo(Duration.ofSeconds(80));
+  }
+}
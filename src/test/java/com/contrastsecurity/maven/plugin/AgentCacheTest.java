@@ -0,0 +1,118 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link AgentCache}. */
+final class AgentCacheTest {
+
+  @Test
+  void finds_fresh_agent(@TempDir final Path directory) throws IOException {
+    // GIVEN a cache with an agent stored just now
+    final AgentCache cache = new AgentCache(directory, Duration.ofHours(1));
+    final Instant now = Instant.now();
+    final Path stored = store(cache, now);
+
+    // WHEN find agent before the TTL has elapsed
+    final Optional<Path> found = cache.find("organization-id", now.plus(Duration.ofMinutes(59)));
+
+    // THEN finds the stored agent
+    assertThat(found).contains(stored);
+    assertThat(stored).hasBinaryContent(AGENT);
+  }
+
+  @Test
+  void does_not_find_expired_agent(@TempDir final Path directory) throws IOException {
+    // GIVEN a cache with an agent stored an hour ago
+    final AgentCache cache = new AgentCache(directory, Duration.ofHours(1));
+    final Instant now = Instant.now();
+    store(cache, now.minus(Duration.ofHours(1)));
+
+    // WHEN find agent
+    final Optional<Path> found = cache.find("organization-id", now);
+
+    // THEN agent requires revalidation
+    assertThat(found).isEmpty();
+  }
+
+  @Test
+  void does_not_find_agent_for_other_organization(@TempDir final Path directory)
+      throws IOException {
+    // GIVEN a cache with an agent stored for one organization
+    final AgentCache cache = new AgentCache(directory, Duration.ofHours(1));
+    final Instant now = Instant.now();
+    store(cache, now);
+
+    // WHEN find agent for a different organization
+    final Optional<Path> found = cache.find("other-organization-id", now);
+
+    // THEN finds nothing
+    assertThat(found).isEmpty();
+  }
+
+  @Test
+  void installs_cached_agent_over_existing_file(@TempDir final Path directory) throws IOException {
+    // GIVEN a cached agent and a larger, stale agent at the destination
+    final AgentCache cache = new AgentCache(directory.resolve("cache"), Duration.ofHours(1));
+    final Path cached = store(cache, Instant.now());
+    final Path destination = directory.resolve("contrast.jar");
+    Files.write(destination, "a much larger and older agent".getBytes(StandardCharsets.UTF_8));
+
+    // WHEN install the cached agent
+    AgentCache.install(cached, destination);
+
+    // THEN destination has exactly the cached agent's contents
+    assertThat(destination).hasBinaryContent(AGENT);
+  }
+
+  @Test
+  void names_cached_agent_after_its_hash(@TempDir final Path directory) throws IOException {
+    // GIVEN a cached agent
+    final AgentCache cache = new AgentCache(directory, Duration.ofHours(1));
+    final Path cached = store(cache, Instant.now());
+
+    // WHEN get the hash the cached agent should have
+    final String sha256 = AgentCache.sha256(cached);
+
+    // THEN it is the hash of the agent's contents
+    assertThat(sha256).isEqualTo(Digests.toHex(Digests.sha256().digest(AGENT)));
+  }
+
+  private static Path store(final AgentCache cache, final Instant now) throws IOException {
+    final AgentDownload download =
+        AgentDownload.to(new ByteArrayInputStream(AGENT), cache.directory("organization-id"));
+    return cache.store("organization-id", download, now);
+  }
+
+  private static final byte[] AGENT = {0x50, 0x4b, 0x03, 0x04, 0x0a, 0x00};
+}
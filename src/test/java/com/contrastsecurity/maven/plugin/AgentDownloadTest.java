@@ -0,0 +1,72 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link AgentDownload}. */
+final class AgentDownloadTest {
+
+  @Test
+  void streams_agent_to_file(@TempDir final Path directory) throws IOException {
+    // GIVEN an agent larger than the download buffer
+    final byte[] agent = new byte[100 * 1024 + 3];
+    new Random(0).nextBytes(agent);
+    agent[0] = 0x50;
+    agent[1] = 0x4b;
+    agent[2] = 0x03;
+    agent[3] = 0x04;
+
+    // WHEN download agent
+    final AgentDownload download = AgentDownload.to(new ByteArrayInputStream(agent), directory);
+
+    // THEN file has the agent's contents, size, and hash
+    assertThat(download.file()).hasBinaryContent(agent);
+    assertThat(download.size()).isEqualTo(agent.length);
+    assertThat(download.sha256()).isEqualTo(Digests.toHex(Digests.sha256().digest(agent)));
+  }
+
+  @Test
+  void rejects_non_jar_and_cleans_up(@TempDir final Path directory) throws IOException {
+    // GIVEN a response that is not a JAR (e.g. an HTML error page)
+    final byte[] html = "<html>Service Unavailable</html>".getBytes(StandardCharsets.UTF_8);
+
+    // WHEN download agent THEN fails
+    assertThatThrownBy(() -> AgentDownload.to(new ByteArrayInputStream(html), directory))
+        .isInstanceOf(IOException.class);
+
+    // AND leaves no temporary files behind
+    try (Stream<Path> files = Files.list(directory)) {
+      assertThat(files).isEmpty();
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link AgentIntegrity}. */
+final class AgentIntegrityTest {
+
+  @Test
+  void verifies_intact_agent(@TempDir final Path directory) throws IOException {
+    // GIVEN an intact agent
+    final Path agent = jar(directory.resolve("contrast.jar"));
+
+    // WHEN verify agent
+    final String sha256 = AgentIntegrity.verify(agent);
+
+    // THEN returns the agent's hash
+    assertThat(sha256).isEqualTo(Digests.sha256(agent));
+  }
+
+  @Test
+  void rejects_agent_with_unexpected_hash(@TempDir final Path directory) throws IOException {
+    // GIVEN an intact agent
+    final Path agent = jar(directory.resolve("contrast.jar"));
+
+    // WHEN verify agent against the hash of a different agent THEN fails
+    assertThatThrownBy(() -> AgentIntegrity.verify(agent, Digests.toHex(new byte[32])))
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("SHA-256");
+  }
+
+  @Test
+  void rejects_truncated_agent(@TempDir final Path directory) throws IOException {
+    // GIVEN an agent missing its last bytes
+    final Path agent = jar(directory.resolve("contrast.jar"));
+    final byte[] bytes = Files.readAllBytes(agent);
+    Files.write(agent, Arrays.copyOf(bytes, bytes.length - 10));
+
+    // WHEN verify agent THEN fails
+    assertThatThrownBy(() -> AgentIntegrity.verify(agent)).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void rejects_agent_followed_by_stale_bytes(@TempDir final Path directory) throws IOException {
+    // GIVEN an agent written over a larger file without truncating it
+    final Path agent = jar(directory.resolve("contrast.jar"));
+    try (OutputStream os = Files.newOutputStream(agent, StandardOpenOption.APPEND)) {
+      os.write(new byte[1024]);
+    }
+
+    // WHEN verify agent THEN fails
+    assertThatThrownBy(() -> AgentIntegrity.verify(agent)).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void rejects_agent_with_corrupt_central_directory(@TempDir final Path directory)
+      throws IOException {
+    // GIVEN an agent whose first central directory entry has been overwritten
+    final Path agent = jar(directory.resolve("contrast.jar"));
+    final byte[] bytes = Files.readAllBytes(agent);
+    final int entry = indexOf(bytes, new byte[] {0x50, 0x4b, 0x01, 0x02});
+    bytes[entry + 2] = 0;
+    Files.write(agent, bytes);
+
+    // WHEN verify agent THEN fails
+    assertThatThrownBy(() -> AgentIntegrity.verify(agent))
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("central directory");
+  }
+
+  @Test
+  void rejects_non_jar(@TempDir final Path directory) throws IOException {
+    // GIVEN a file that is not a JAR (e.g. an HTML error page)
+    final Path agent = directory.resolve("contrast.jar");
+    Files.write(agent, "<html>Service Unavailable</html>".getBytes(StandardCharsets.UTF_8));
+
+    // WHEN verify agent THEN fails
+    assertThatThrownBy(() -> AgentIntegrity.verify(agent)).isInstanceOf(IOException.class);
+  }
+
+  private static Path jar(final Path file) throws IOException {
+    final Random random = new Random(0);
+    try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(file))) {
+      for (int i = 0; i < 10; i++) {
+        final JarEntry entry = new JarEntry("com/contrastsecurity/agent/Class" + i + ".class");
+        entry.setMethod(i % 2 == 0 ? ZipEntry.DEFLATED : ZipEntry.STORED);
+        final byte[] contents = new byte[1024];
+        random.nextBytes(contents);
+        if (entry.getMethod() == ZipEntry.STORED) {
+          final CRC32 crc = new CRC32();
+          crc.update(contents);
+          entry.setSize(contents.length);
+          entry.setCrc(crc.getValue());
+        }
+        jar.putNextEntry(entry);
+        jar.write(contents);
+        jar.closeEntry();
+      }
+    }
+    return file;
+  }
+
+  private static int indexOf(final byte[] bytes, final byte[] pattern) {
+    outer:
+    for (int i = 0; i <= bytes.length - pattern.length; i++) {
+      for (int j = 0; j < pattern.length; j++) {
+        if (bytes[i + j] != pattern[j]) {
+          continue outer;
+        }
+      }
+      return i;
+    }
+    throw new AssertionError("pattern not found");
+  }
+}
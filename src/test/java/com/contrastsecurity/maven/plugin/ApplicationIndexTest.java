@@ -0,0 +1,72 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link ApplicationIndex}. */
+final class ApplicationIndexTest {
+
+  private ApplicationIndex index;
+  private Instant now;
+
+  @BeforeEach
+  void before(@TempDir final Path directory) throws IOException {
+    index = ApplicationIndex.forOrganization(directory, "organization-id", Duration.ofHours(1));
+    now = Instant.now();
+    final Map<String, String> applications = new HashMap<>();
+    applications.put("WebGoat", "webgoat-id");
+    applications.put("name with spaces=and:separators", "other-id");
+    index.write(applications, now);
+  }
+
+  @Test
+  void finds_indexed_applications() throws IOException {
+    assertThat(index.find("WebGoat", now)).contains("webgoat-id");
+    assertThat(index.find("name with spaces=and:separators", now)).contains("other-id");
+  }
+
+  @Test
+  void misses_unknown_application() throws IOException {
+    assertThat(index.find("Petclinic", now)).isEmpty();
+  }
+
+  @Test
+  void misses_when_expired() throws IOException {
+    assertThat(index.find("WebGoat", now.plus(Duration.ofHours(1)))).isEmpty();
+  }
+
+  @Test
+  void misses_when_invalidated() throws IOException {
+    index.invalidate();
+    assertThat(index.find("WebGoat", now)).isEmpty();
+  }
+}
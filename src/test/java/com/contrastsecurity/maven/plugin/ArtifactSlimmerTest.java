@@ -0,0 +1,140 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link ArtifactSlimmer}. */
+final class ArtifactSlimmerTest {
+
+  @Test
+  void removes_nested_libraries(@TempDir final Path directory) throws IOException {
+    // GIVEN a Spring Boot JAR with application classes and two libraries
+    final Path jar = directory.resolve("app.jar");
+    writeBootJar(jar);
+
+    // WHEN slim the JAR without keeping any libraries
+    final Path slimmed = directory.resolve("slim/app.jar");
+    final int removed = new ArtifactSlimmer(Collections.emptyList()).slim(jar, slimmed);
+
+    // THEN only the application's own entries remain
+    assertThat(removed).isEqualTo(2);
+    assertThat(entryNames(slimmed))
+        .containsExactly("META-INF/MANIFEST.MF", "BOOT-INF/classes/com/example/App.class");
+  }
+
+  @Test
+  void keeps_libraries_matching_groupId(@TempDir final Path directory) throws IOException {
+    // GIVEN a Spring Boot JAR with a first-party and a third-party library
+    final Path jar = directory.resolve("app.jar");
+    writeBootJar(jar);
+
+    // WHEN slim the JAR keeping libraries in the com.example group
+    final Path slimmed = directory.resolve("slim/app.jar");
+    final int removed =
+        new ArtifactSlimmer(Collections.singletonList("com.example*:*")).slim(jar, slimmed);
+
+    // THEN keeps the first-party library, still stored so that Spring Boot can load it
+    assertThat(removed).isEqualTo(1);
+    assertThat(entryNames(slimmed)).contains("BOOT-INF/lib/example-core-1.0.jar");
+    try (ZipFile zip = new ZipFile(slimmed.toFile())) {
+      assertThat(zip.getEntry("BOOT-INF/lib/example-core-1.0.jar").getMethod())
+          .isEqualTo(ZipEntry.STORED);
+    }
+  }
+
+  @Test
+  void keeps_libraries_matching_file_name(@TempDir final Path directory) throws IOException {
+    // GIVEN a Spring Boot JAR with two libraries
+    final Path jar = directory.resolve("app.jar");
+    writeBootJar(jar);
+
+    // WHEN slim the JAR keeping libraries by file name
+    final Path slimmed = directory.resolve("slim/app.jar");
+    new ArtifactSlimmer(Collections.singletonList("spring-*.jar")).slim(jar, slimmed);
+
+    // THEN keeps the matching library
+    assertThat(entryNames(slimmed))
+        .contains("BOOT-INF/lib/spring-core-5.3.9.jar")
+        .doesNotContain("BOOT-INF/lib/example-core-1.0.jar");
+  }
+
+  private static void writeBootJar(final Path jar) throws IOException {
+    try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(jar))) {
+      zos.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+      zos.write("Manifest-Version: 1.0\n".getBytes(StandardCharsets.UTF_8));
+      zos.putNextEntry(new ZipEntry("BOOT-INF/classes/com/example/App.class"));
+      zos.write(new byte[] {(byte) 0xca, (byte) 0xfe, (byte) 0xba, (byte) 0xbe});
+      putStored(zos, "BOOT-INF/lib/example-core-1.0.jar", library("com.example", "example-core"));
+      putStored(
+          zos, "BOOT-INF/lib/spring-core-5.3.9.jar", library("org.springframework", "spring-core"));
+    }
+  }
+
+  private static void putStored(final ZipOutputStream zos, final String name, final byte[] content)
+      throws IOException {
+    final CRC32 crc = new CRC32();
+    crc.update(content);
+    final ZipEntry entry = new ZipEntry(name);
+    entry.setMethod(ZipEntry.STORED);
+    entry.setSize(content.length);
+    entry.setCompressedSize(content.length);
+    entry.setCrc(crc.getValue());
+    zos.putNextEntry(entry);
+    zos.write(content);
+    zos.closeEntry();
+  }
+
+  private static byte[] library(final String groupId, final String artifactId) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ZipOutputStream zos = new ZipOutputStream(bytes)) {
+      zos.putNextEntry(new ZipEntry("com/"));
+      zos.putNextEntry(
+          new ZipEntry("META-INF/maven/" + groupId + "/" + artifactId + "/pom.properties"));
+      final String properties = "groupId=" + groupId + "\nartifactId=" + artifactId;
+      zos.write(properties.getBytes(StandardCharsets.UTF_8));
+    }
+    return bytes.toByteArray();
+  }
+
+  private static List<String> entryNames(final Path jar) throws IOException {
+    final List<String> names = new ArrayList<>();
+    try (ZipFile zip = new ZipFile(jar.toFile())) {
+      zip.stream().forEach(entry -> names.add(entry.getName()));
+    }
+    return names;
+  }
+}
@@ -0,0 +1,67 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link AssessState}. */
+final class AssessStateTest {
+
+  @Test
+  void reads_written_state(@TempDir final Path directory) throws IOException {
+    // GIVEN state saved by the install goal
+    final Path file = directory.resolve("contrast/assess.properties");
+    final AssessState state = new AssessState();
+    state.setAppVersion("caddyshack-19");
+    state.setAppName("caddyshack");
+    state.setServerName("Bushwood");
+    state.setServerIds(Arrays.asList(123L, 456L));
+    state.setAgentPath("/tmp/contrast.jar");
+    state.write(file);
+
+    // WHEN read state
+    final AssessState read = AssessState.read(file);
+
+    // THEN has the saved values
+    assertThat(read.isEmpty()).isFalse();
+    assertThat(read.getAppVersion()).isEqualTo("caddyshack-19");
+    assertThat(read.getAppName()).isEqualTo("caddyshack");
+    assertThat(read.getAppId()).isNull();
+    assertThat(read.getServerName()).isEqualTo("Bushwood");
+    assertThat(read.getServerIds()).containsExactly(123L, 456L);
+    assertThat(read.getAgentPath()).isEqualTo("/tmp/contrast.jar");
+  }
+
+  @Test
+  void state_is_empty_when_install_has_not_run(@TempDir final Path directory) throws IOException {
+    final AssessState state = AssessState.read(directory.resolve("assess.properties"));
+
+    assertThat(state.isEmpty()).isTrue();
+    assertThat(state.getAppVersion()).isNull();
+    assertThat(state.getServerIds()).isEmpty();
+  }
+}
@@ -0,0 +1,96 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link AtomicFiles}. */
+final class AtomicFilesTest {
+
+  @Test
+  void updates_properties(@TempDir final Path directory) throws IOException {
+    // GIVEN a properties file
+    final Path file = directory.resolve("nested").resolve("file.properties");
+    final Properties properties = new Properties();
+    properties.setProperty("kept", "1");
+    AtomicFiles.writeProperties(file, properties, "test");
+
+    // WHEN update the properties
+    AtomicFiles.updateProperties(
+        file, "test", updated -> updated.setProperty("added", "2") == null);
+
+    // THEN the file has both the existing and the new properties
+    final Properties read = AtomicFiles.readProperties(file);
+    assertThat(read.getProperty("kept")).isEqualTo("1");
+    assertThat(read.getProperty("added")).isEqualTo("2");
+  }
+
+  @Test
+  void does_not_write_unchanged_properties(@TempDir final Path directory) throws IOException {
+    // GIVEN no properties file
+
+    // WHEN update declines to write
+    final Path file = directory.resolve("file.properties");
+    AtomicFiles.updateProperties(file, "test", properties -> false);
+
+    // THEN the file is not created
+    assertThat(Files.exists(file)).isFalse();
+  }
+
+  @Test
+  void replaces_file_with_text(@TempDir final Path directory) throws IOException {
+    // GIVEN an existing file
+    final Path file = directory.resolve("nested").resolve("file.json");
+    AtomicFiles.write(file, writer -> writer.write("old"));
+
+    // WHEN write the file again
+    AtomicFiles.write(file, writer -> writer.write("{\"caf\u00e9\": 1}"));
+
+    // THEN the file has only the new UTF-8 content, and no temporary file remains
+    assertThat(file).usingCharset(StandardCharsets.UTF_8).hasContent("{\"caf\u00e9\": 1}");
+    try (Stream<Path> files = Files.list(file.getParent())) {
+      assertThat(files).containsExactly(file);
+    }
+  }
+
+  @Test
+  void encodes_unsafe_file_name_characters() {
+    assertThat(AtomicFiles.safeFileName("org/../app 1.2.3"))
+        .isEqualTo("org%2F%2E%2E%2Fapp%201%2E2%2E3");
+    assertThat(AtomicFiles.safeFileName("a-Z_09")).isEqualTo("a-Z_09");
+    assertThat(AtomicFiles.safeFileName("caf\u00e9")).isEqualTo("caf%C3%A9");
+  }
+
+  @Test
+  void derives_distinct_file_names_from_distinct_identifiers() {
+    assertThat(AtomicFiles.safeFileName("1.2")).isNotEqualTo(AtomicFiles.safeFileName("1_2"));
+    assertThat(AtomicFiles.safeFileName("1%2E2")).isNotEqualTo(AtomicFiles.safeFileName("1.2"));
+  }
+}
@@ -0,0 +1,54 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link Backoff}. */
+final class BackoffTest {
+
+  @Test
+  void doubles_delay_up_to_maximum_with_jitter() {
+    final Backoff backoff =
+        new Backoff(Duration.ofSeconds(1), Duration.ofSeconds(3), new Random(0));
+
+    assertThat(backoff.next()).isBetween(750L, 1250L);
+    assertThat(backoff.next()).isBetween(1500L, 2500L);
+    assertThat(backoff.next()).isBetween(2250L, 3750L);
+    assertThat(backoff.next()).isBetween(2250L, 3750L);
+  }
+
+  @Test
+  void starts_again_from_initial_delay_when_reset() {
+    final Backoff backoff =
+        new Backoff(Duration.ofSeconds(1), Duration.ofSeconds(30), new Random(0));
+    backoff.next();
+    backoff.next();
+
+    backoff.reset();
+
+    assertThat(backoff.next()).isBetween(750L, 1250L);
+  }
+}
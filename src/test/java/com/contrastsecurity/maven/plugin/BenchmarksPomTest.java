@@ -0,0 +1,52 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathFactory;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+/**
+ * The benchmarks build separately from the plugin, so that they never ship with it, and cannot
+ * inherit its version.
+ */
+final class BenchmarksPomTest {
+
+  @Test
+  void benchmarks_depend_on_this_version_of_the_plugin() throws Exception {
+    // GIVEN the benchmarks' pom, which depends on the plugin of the same version
+    final Path pom = Paths.get("benchmarks", "pom.xml");
+
+    // WHEN read its version
+    final Document document =
+        DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(pom.toFile());
+    final String version =
+        XPathFactory.newInstance().newXPath().evaluate("/project/version", document);
+
+    // THEN it is the plugin's version
+    assertThat(version).isEqualTo(Version.VERSION);
+  }
+}
@@ -0,0 +1,123 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link BuildMetrics} */
+final class BuildMetricsTest {
+
+  @Test
+  void records_phases_and_counters() throws IOException {
+    // GIVEN metrics for a goal
+    final BuildMetrics metrics = new BuildMetrics("scan", "default");
+
+    // WHEN goal repeats a phase, closing one span twice, and counts the bytes it reads
+    final BuildMetrics.Span first = metrics.span("artifact.upload");
+    first.close();
+    first.close();
+    try (BuildMetrics.Span ignored = metrics.span("artifact.upload")) {
+      metrics.increment(BuildMetrics.HTTP_REQUESTS);
+      metrics.increment(BuildMetrics.HTTP_REQUESTS);
+    }
+    try (InputStream in =
+        metrics.count(new ByteArrayInputStream(new byte[100]), BuildMetrics.BYTES_DOWNLOADED)) {
+      in.read();
+      while (in.read(new byte[16]) != -1) {
+        // discard
+      }
+    }
+
+    // THEN records each span once
+    assertThat(metrics.phaseCount("artifact.upload")).isEqualTo(2);
+    assertThat(metrics.phaseCount("scan.wait")).isZero();
+    assertThat(metrics.counter(BuildMetrics.HTTP_REQUESTS)).isEqualTo(2);
+    assertThat(metrics.counter(BuildMetrics.BYTES_DOWNLOADED)).isEqualTo(100);
+    assertThat(metrics.counter(BuildMetrics.HTTP_RETRIES)).isZero();
+  }
+
+  @Test
+  void writes_metrics_of_every_goal_in_module(@TempDir final Path tmp) throws IOException {
+    // GIVEN metrics of two goals that executed in the same module
+    final BuildMetrics install = new BuildMetrics("install", "default");
+    install.span("agent.download").close();
+    install.add(BuildMetrics.BYTES_DOWNLOADED, 1024);
+    install.finish(true);
+    final BuildMetrics verify = new BuildMetrics("verify", "default");
+    verify.increment(BuildMetrics.HTTP_REQUESTS);
+    verify.finish(false);
+
+    // WHEN each goal writes its metrics
+    final BuildMetrics.Reports reports = new BuildMetrics.Reports();
+    final Path file = tmp.resolve("contrast").resolve("metrics.json");
+    reports.write(file, install, true);
+    reports.write(file, verify, true);
+
+    // THEN JSON describes both goals
+    final JsonArray goals;
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      goals = JsonParser.parseReader(reader).getAsJsonObject().getAsJsonArray("goals");
+    }
+    assertThat(goals).hasSize(2);
+    final JsonObject first = goals.get(0).getAsJsonObject();
+    assertThat(first.get("goal").getAsString()).isEqualTo("install");
+    assertThat(first.get("outcome").getAsString()).isEqualTo("success");
+    assertThat(
+            first
+                .getAsJsonObject("phases")
+                .getAsJsonObject("agent.download")
+                .get("count")
+                .getAsLong())
+        .isEqualTo(1);
+    assertThat(first.getAsJsonObject("counters").get("bytes.downloaded").getAsLong())
+        .isEqualTo(1024);
+    final JsonObject second = goals.get(1).getAsJsonObject();
+    assertThat(second.get("goal").getAsString()).isEqualTo("verify");
+    assertThat(second.get("outcome").getAsString()).isEqualTo("failure");
+
+    // AND OpenMetrics text groups the samples by metric family
+    final List<String> lines = Files.readAllLines(file.resolveSibling("metrics.txt"));
+    assertThat(lines)
+        .contains(
+            "# TYPE contrast_phase_duration_seconds summary",
+            "contrast_phase_duration_seconds_count{goal=\"install\",execution=\"default\","
+                + "phase=\"agent.download\"} 1",
+            "# TYPE contrast_bytes_downloaded counter",
+            "contrast_bytes_downloaded_total{goal=\"install\",execution=\"default\"} 1024",
+            "contrast_http_requests_total{goal=\"verify\",execution=\"default\"} 1")
+        .containsOnlyOnce("# TYPE contrast_goal_duration_seconds gauge")
+        .endsWith("# EOF");
+  }
+}
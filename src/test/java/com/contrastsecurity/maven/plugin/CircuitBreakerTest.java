@@ -0,0 +1,115 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link CircuitBreaker}. */
+final class CircuitBreakerTest {
+
+  private long now;
+  private final CircuitBreaker breaker =
+      new CircuitBreaker(
+          2,
+          Duration.ofSeconds(30),
+          new Clock() {
+            @Override
+            public long millis() {
+              return now;
+            }
+
+            @Override
+            public void sleep(final long millis) {
+              now += millis;
+            }
+          });
+
+  @Test
+  void opens_after_consecutive_failures() {
+    // GIVEN one request failed
+    breaker.onFailure();
+    assertThat(breaker.permit()).isZero();
+
+    // WHEN another request fails
+    breaker.onFailure();
+
+    // THEN withholds requests for the open period
+    assertThat(breaker.permit()).isEqualTo(30_000);
+    now += 10_000;
+    assertThat(breaker.permit()).isEqualTo(20_000);
+  }
+
+  @Test
+  void permits_one_probe_once_open_period_elapses() {
+    // GIVEN open breaker whose open period has elapsed
+    breaker.onFailure();
+    breaker.onFailure();
+    now += 30_000;
+
+    // WHEN requests ask for permission
+    // THEN permits only the first, which probes Contrast
+    assertThat(breaker.permit()).isZero();
+    assertThat(breaker.permit()).isPositive();
+
+    // WHEN the probe fails
+    breaker.onFailure();
+
+    // THEN opens again
+    assertThat(breaker.permit()).isEqualTo(30_000);
+  }
+
+  @Test
+  void permits_another_probe_when_probe_outcome_is_unknown() {
+    // GIVEN open breaker which is probing Contrast
+    breaker.onFailure();
+    breaker.onFailure();
+    now += 30_000;
+    assertThat(breaker.permit()).isZero();
+
+    // WHEN the probe is interrupted
+    breaker.release();
+
+    // THEN permits another probe, while still withholding other requests
+    assertThat(breaker.permit()).isZero();
+    assertThat(breaker.permit()).isPositive();
+    assertThat(breaker.consecutiveFailures()).isEqualTo(2);
+  }
+
+  @Test
+  void closes_when_request_succeeds() {
+    // GIVEN open breaker whose open period has elapsed
+    breaker.onFailure();
+    breaker.onFailure();
+    now += 30_000;
+    assertThat(breaker.permit()).isZero();
+
+    // WHEN the probe succeeds
+    breaker.onSuccess();
+
+    // THEN permits every request
+    assertThat(breaker.permit()).isZero();
+    assertThat(breaker.permit()).isZero();
+    assertThat(breaker.consecutiveFailures()).isZero();
+  }
+}
@@ -0,0 +1,71 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link CodeArtifactManifest}. */
+final class CodeArtifactManifestTest {
+
+  private CodeArtifactManifest manifest;
+
+  @BeforeEach
+  void before(@TempDir final Path directory) {
+    manifest = CodeArtifactManifest.forProject(directory, "organization-id", "project-id");
+  }
+
+  @Test
+  void finds_uploaded_artifact_by_hash() throws IOException {
+    manifest.put("abc123", "code-artifact-id", Instant.now());
+
+    assertThat(manifest.find("abc123")).contains("code-artifact-id");
+    assertThat(manifest.find("def456")).isEmpty();
+  }
+
+  @Test
+  void forgets_removed_artifact() throws IOException {
+    manifest.put("abc123", "code-artifact-id", Instant.now());
+
+    manifest.remove("abc123");
+
+    assertThat(manifest.find("abc123")).isEmpty();
+  }
+
+  @Test
+  void evicts_least_recently_uploaded_artifacts() throws IOException {
+    // GIVEN a manifest which has recorded many uploads
+    final Instant start = Instant.now();
+    for (int i = 0; i < 40; i++) {
+      manifest.put("hash-" + i, "code-artifact-" + i, start.plusSeconds(i));
+    }
+
+    // THEN retains only the most recent uploads
+    assertThat(manifest.find("hash-0")).isEmpty();
+    assertThat(manifest.find("hash-39")).contains("code-artifact-39");
+  }
+}
@@ -0,0 +1,62 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.contrastsecurity.sdk.ContrastSDK;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ContrastConnections}. */
+final class ContrastConnectionsTest {
+
+  @Test
+  void shares_connection_with_same_configuration() throws MojoFailureException {
+    final ContrastConnections connections = new ContrastConnections();
+    final AtomicInteger connects = new AtomicInteger();
+    final ContrastConnections.Connector connector =
+        () -> {
+          connects.incrementAndGet();
+          return mock(ContrastSDK.class);
+        };
+
+    final ContrastSDK first = connections.get(Arrays.asList("url", "user"), connector);
+    final ContrastSDK second = connections.get(Arrays.asList("url", "user"), connector);
+
+    assertThat(second).isSameAs(first);
+    assertThat(connects).hasValue(1);
+  }
+
+  @Test
+  void creates_connection_for_each_configuration() throws MojoFailureException {
+    final ContrastConnections connections = new ContrastConnections();
+    final ContrastConnections.Connector connector = () -> mock(ContrastSDK.class);
+
+    final ContrastSDK first = connections.get(Arrays.asList("url", "user"), connector);
+    final ContrastSDK second = connections.get(Arrays.asList("url", "other-user"), connector);
+
+    assertThat(second).isNotSameAs(first);
+  }
+}
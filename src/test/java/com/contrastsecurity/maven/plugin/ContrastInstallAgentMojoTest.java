@@ -21,13 +21,40 @@ package com.contrastsecurity.maven.plugin;
  */
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import com.contrastsecurity.sdk.ContrastSDK;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.EnvironmentVariables;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 
 public class ContrastInstallAgentMojoTest {
 
@@ -36,6 +63,8 @@ public class ContrastInstallAgentMojoTest {
 
   @Rule public final EnvironmentVariables environmentVariables = new EnvironmentVariables();
 
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   @Before
   public void setUp() {
     installMojo = new ContrastInstallAgentMojo();
@@ -57,14 +86,14 @@ public class ContrastInstallAgentMojoTest {
   @Test
   public void testGenerateAppVersion() {
     installMojo.appVersion = "mycustomversion";
-    AbstractAssessMojo.computedAppVersion = null;
+    installMojo.computedAppVersion = null;
     assertEquals("mycustomversion", installMojo.computeAppVersion(now));
   }
 
   @Test
   public void testGenerateAppVersionNoAppVersion() {
     installMojo.appVersion = null;
-    AbstractAssessMojo.computedAppVersion = null;
+    installMojo.computedAppVersion = null;
     String expectedVersion = new SimpleDateFormat("yyyyMMddHHmmss").format(now);
     assertEquals("caddyshack-" + expectedVersion, installMojo.computeAppVersion(now));
     assertEquals("caddyshack-" + expectedVersion, installMojo.computeAppVersion(now));
@@ -73,7 +102,7 @@ public class ContrastInstallAgentMojoTest {
   @Test
   public void testGenerateAppVersionTravis() {
     installMojo.appVersion = null;
-    AbstractAssessMojo.computedAppVersion = null;
+    installMojo.computedAppVersion = null;
     environmentVariables.set("TRAVIS_BUILD_NUMBER", "19");
     assertEquals("caddyshack-19", installMojo.computeAppVersion(now));
     assertEquals("caddyshack-19", installMojo.computeAppVersion(now));
@@ -82,7 +111,7 @@ public class ContrastInstallAgentMojoTest {
   @Test
   public void testGenerateAppVersionCircle() {
     installMojo.appVersion = null;
-    AbstractAssessMojo.computedAppVersion = null;
+    installMojo.computedAppVersion = null;
     environmentVariables.set("TRAVIS_BUILD_NUMBER", "circle");
     assertEquals("caddyshack-circle", installMojo.computeAppVersion(now));
     assertEquals("caddyshack-circle", installMojo.computeAppVersion(now));
@@ -95,7 +124,7 @@ public class ContrastInstallAgentMojoTest {
     String travisBuildNumber = "travis";
 
     installMojo.appVersion = null;
-    AbstractAssessMojo.computedAppVersion = null;
+    installMojo.computedAppVersion = null;
     environmentVariables.set("TRAVIS_BUILD_NUMBER", travisBuildNumber);
     installMojo.setAppId(appId);
     installMojo.applicationName = appName;
@@ -142,7 +171,7 @@ public class ContrastInstallAgentMojoTest {
 
   @Test
   public void testBuildArgLine() {
-    AbstractAssessMojo.computedAppVersion = "caddyshack-2";
+    installMojo.computedAppVersion = "caddyshack-2";
     String currentArgLine = "";
     String expectedArgLine =
         "-javaagent:/usr/local/bin/contrast.jar -Dcontrast.server=Bushwood -Dcontrast.env=qa -Dcontrast.override.appversion=caddyshack-2 -Dcontrast.reporting.period=200 -Dcontrast.override.appname=caddyshack";
@@ -175,7 +204,7 @@ public class ContrastInstallAgentMojoTest {
 
   @Test
   public void testBuildArgNull() {
-    AbstractAssessMojo.computedAppVersion = "caddyshack-2";
+    installMojo.computedAppVersion = "caddyshack-2";
     String currentArgLine = null;
     String expectedArgLine =
         "-javaagent:/usr/local/bin/contrast.jar -Dcontrast.server=Bushwood -Dcontrast.env=qa -Dcontrast.override.appversion=caddyshack-2 -Dcontrast.reporting.period=200 -Dcontrast.override.appname=caddyshack";
@@ -184,7 +213,7 @@ public class ContrastInstallAgentMojoTest {
 
   @Test
   public void testBuildArgLineAppend() {
-    AbstractAssessMojo.computedAppVersion = "caddyshack-2";
+    installMojo.computedAppVersion = "caddyshack-2";
     String currentArgLine = "-Xmx1024m";
     String expectedArgLine =
         "-Xmx1024m -javaagent:/usr/local/bin/contrast.jar -Dcontrast.server=Bushwood -Dcontrast.env=qa -Dcontrast.override.appversion=caddyshack-2 -Dcontrast.reporting.period=200 -Dcontrast.override.appname=caddyshack";
@@ -198,4 +227,89 @@ public class ContrastInstallAgentMojoTest {
     String expectedArgLine = "-Xmx1024m";
     assertEquals(expectedArgLine, installMojo.buildArgLine(currentArgLine));
   }
+
+  @Test
+  public void testInstallJavaAgentResolvesAgentVersion()
+      throws ArtifactResolutionException, MojoFailureException, IOException {
+    final File agent = temporaryFolder.newFile("contrast-agent-3.8.5.20387.jar");
+    Files.write(agent.toPath(), jar());
+    final Artifact artifact = mock(Artifact.class);
+    when(artifact.getFile()).thenReturn(agent);
+    final ArtifactResult result = mock(ArtifactResult.class);
+    when(result.getArtifact()).thenReturn(artifact);
+    installMojo.repositorySystem = mock(RepositorySystem.class);
+    final ArgumentCaptor<ArtifactRequest> request = ArgumentCaptor.forClass(ArtifactRequest.class);
+    when(installMojo.repositorySystem.resolveArtifact(any(), request.capture())).thenReturn(result);
+    installMojo.agentVersion = "3.8.5.20387";
+
+    assertEquals(agent.toPath(), installMojo.installJavaAgent(null));
+    assertEquals("contrast-agent", request.getValue().getArtifact().getArtifactId());
+    assertEquals("3.8.5.20387", request.getValue().getArtifact().getVersion());
+  }
+
+  @Test
+  public void testInstallJavaAgentRejectsCorruptResolvedAgent()
+      throws ArtifactResolutionException, IOException {
+    final File agent = temporaryFolder.newFile("contrast-agent-3.8.5.20387.jar");
+    final byte[] jar = jar();
+    Files.write(agent.toPath(), Arrays.copyOf(jar, jar.length - 10));
+    final Artifact artifact = mock(Artifact.class);
+    when(artifact.getFile()).thenReturn(agent);
+    final ArtifactResult result = mock(ArtifactResult.class);
+    when(result.getArtifact()).thenReturn(artifact);
+    installMojo.repositorySystem = mock(RepositorySystem.class);
+    when(installMojo.repositorySystem.resolveArtifact(any(), any())).thenReturn(result);
+    installMojo.agentVersion = "3.8.5.20387";
+
+    final MojoFailureException e =
+        assertThrows(MojoFailureException.class, () -> installMojo.installJavaAgent(null));
+    assertTrue(e.getMessage().contains("is corrupt"));
+  }
+
+  @Test
+  public void testInstallJavaAgentSharesAgentAcrossModules() throws Exception {
+    // GIVEN two modules which share the agent, each of which executes with its own clone of the
+    // build's session as it does in Maven
+    final MavenProject root = new MavenProject();
+    root.getBuild().setDirectory(temporaryFolder.newFolder("target").getAbsolutePath());
+    final MavenProject module = new MavenProject();
+    module.getBuild().setDirectory(temporaryFolder.newFolder("module").getAbsolutePath());
+    final MavenSession session = SessionContextTest.session(root, module);
+    final byte[] jar = jar();
+    final ContrastSDK connection = mock(ContrastSDK.class);
+    when(connection.makeRequest(any(), any()))
+        .thenAnswer(invocation -> new ByteArrayInputStream(jar));
+
+    // WHEN both modules install the agent
+    final Path first = sharingMojo(session.clone(), root).installJavaAgent(connection);
+    final Path second = sharingMojo(session.clone(), module).installJavaAgent(connection);
+
+    // THEN the agent is downloaded once, to the root module
+    assertEquals(first, second);
+    assertEquals(root.getBuild().getDirectory(), first.getParent().toString());
+    verify(connection, times(1)).makeRequest(any(), any());
+  }
+
+  private static ContrastInstallAgentMojo sharingMojo(
+      final MavenSession session, final MavenProject project) {
+    session.setCurrentProject(project);
+    final ContrastInstallAgentMojo mojo = new ContrastInstallAgentMojo();
+    mojo.setSession(session);
+    mojo.setProject(project);
+    mojo.setURL("https://app.contrastsecurity.com/Contrast/api");
+    mojo.setOrganizationId("organization-id");
+    mojo.shareAgent = true;
+    return mojo;
+  }
+
+  /** @return contents of a well-formed agent jar */
+  private static byte[] jar() throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (JarOutputStream jar = new JarOutputStream(bytes)) {
+      jar.putNextEntry(new JarEntry("com/contrastsecurity/agent/Agent.class"));
+      jar.write(new byte[1024]);
+      jar.closeEntry();
+    }
+    return bytes.toByteArray();
+  }
 }
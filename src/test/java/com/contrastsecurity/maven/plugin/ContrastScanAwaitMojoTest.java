@@ -0,0 +1,68 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link ContrastScanAwaitMojo} */
+final class ContrastScanAwaitMojoTest {
+
+  private ContrastScanAwaitMojo mojo;
+  private Path outputFile;
+
+  @BeforeEach
+  void before(@TempDir final Path tmp) {
+    mojo = new ContrastScanAwaitMojo();
+    mojo.setOrganizationId("organization-id");
+    outputFile = tmp.resolve("contrast-scan-results.sarif.json");
+    mojo.setOutputPath(outputFile.toFile());
+  }
+
+  @Test
+  void fails_when_scan_goal_has_not_recorded_a_scan() {
+    assertThatThrownBy(mojo::execute)
+        .isInstanceOf(MojoFailureException.class)
+        .hasMessageContaining("contrast-scan-results.scan.properties does not describe a scan");
+  }
+
+  @Test
+  void fails_when_scan_belongs_to_another_organization() throws IOException {
+    // GIVEN the scan goal recorded a scan in another organization
+    final ScanHandle handle = new ScanHandle();
+    handle.setOrganizationId("other-organization-id");
+    handle.setProjectId("project-id");
+    handle.setScanId("scan-id");
+    handle.write(AbstractScanMojo.handlePath(outputFile));
+
+    // WHEN await the scan
+    // THEN fails before connecting to Contrast
+    assertThatThrownBy(mojo::execute)
+        .isInstanceOf(MojoFailureException.class)
+        .hasMessageContaining("belongs to organization other-organization-id");
+  }
+}
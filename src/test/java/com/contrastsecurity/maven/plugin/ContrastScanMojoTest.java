@@ -21,19 +21,44 @@ package com.contrastsecurity.maven.plugin;
  */
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import com.contrastsecurity.sdk.scan.CodeArtifact;
+import com.contrastsecurity.sdk.scan.CodeArtifacts;
+import com.contrastsecurity.sdk.scan.Project;
+import com.contrastsecurity.sdk.scan.Projects;
+import com.contrastsecurity.sdk.scan.Scan;
 import com.contrastsecurity.sdk.scan.ScanSummary;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.Random;
 import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
@@ -140,4 +165,233 @@ final class ContrastScanMojoTest {
     // THEN only prints "completed" line
     verify(console).accept("Scan completed");
   }
+
+  @Test
+  void it_compresses_results_as_they_are_written(@TempDir final Path tmp)
+      throws IOException, MojoFailureException {
+    // GIVEN the plugin is configured to compress results with gzip
+    mojo.setConsoleOutput(true);
+    mojo.setOutputCompression("gzip");
+    final String sarif =
+        "{\"runs\":[{\"results\":[{\"ruleId\":\"sql-injection\",\"baselineState\":\"new\"}]}]}";
+    final Scan scan = mock(Scan.class);
+    when(scan.sarif())
+        .thenReturn(new ByteArrayInputStream(sarif.getBytes(StandardCharsets.UTF_8)));
+
+    // WHEN save results
+    @SuppressWarnings("unchecked")
+    final Consumer<String> console = mock(Consumer.class);
+    final Path outputFile = tmp.resolve("results.sarif.json");
+    mojo.saveResults(scan, outputFile, NO_THRESHOLDS, console);
+
+    // THEN writes only the compressed results, which are identical to the downloaded results
+    assertThat(outputFile).doesNotExist();
+    final Path compressed = tmp.resolve("results.sarif.json.gz");
+    try (InputStream is = new GZIPInputStream(Files.newInputStream(compressed))) {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[1024];
+      int read;
+      while ((read = is.read(buffer)) != -1) {
+        bytes.write(buffer, 0, read);
+      }
+      assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(sarif);
+    }
+    verify(console).accept("New Results\t1");
+  }
+
+  @Test
+  void it_validates_output_compression_before_connecting() {
+    // GIVEN the plugin is configured with an unsupported compression and no Contrast connection
+    mojo.setOutputCompression("zip");
+
+    // WHEN initialize
+    // THEN fails on the compression without connecting to Contrast
+    assertThatThrownBy(mojo::initialize)
+        .isInstanceOf(MojoFailureException.class)
+        .hasMessageContaining("Unsupported outputCompression zip");
+  }
+
+  @Test
+  void it_fails_when_results_exceed_thresholds(@TempDir final Path tmp) throws IOException {
+    // GIVEN scan results with one new error
+    final String sarif =
+        "{\"runs\":[{\"results\":[{\"ruleId\":\"sql-injection\",\"level\":\"error\"}]}]}";
+    final Scan scan = mock(Scan.class);
+    when(scan.sarif())
+        .thenReturn(new ByteArrayInputStream(sarif.getBytes(StandardCharsets.UTF_8)));
+
+    // WHEN save results with a threshold that allows no errors
+    final ScanGate gate =
+        new ScanGate(-1, Collections.singletonMap("error", 0), Collections.emptyMap(), false);
+    @SuppressWarnings("unchecked")
+    final Consumer<String> console = mock(Consumer.class);
+    final Path outputFile = tmp.resolve("results.sarif.json");
+
+    // THEN fails the build after saving the results and the verdict
+    assertThatThrownBy(() -> mojo.saveResults(scan, outputFile, gate, console))
+        .isInstanceOf(MojoFailureException.class)
+        .hasMessageContaining("results.verdict.json");
+    assertThat(outputFile).hasContent(sarif);
+    final byte[] verdict = Files.readAllBytes(tmp.resolve("results.verdict.json"));
+    assertThat(new String(verdict, StandardCharsets.UTF_8)).contains("\"passed\": false");
+    verify(console).accept("1 results with level error exceed the maximum of 0");
+  }
+
+  @Test
+  void it_summarizes_only_the_remaining_results_when_excluding_results(@TempDir final Path tmp)
+      throws IOException, MojoFailureException {
+    // GIVEN results without baseline state, one of which is from an excluded rule
+    mojo.setConsoleOutput(true);
+    mojo.setSarifExcludedRules(Collections.singletonList("xss"));
+    final String sarif =
+        "{\"runs\":[{\"results\":[{\"ruleId\":\"sql-injection\"},{\"ruleId\":\"xss\"}]}]}";
+    final Scan scan = mock(Scan.class);
+    when(scan.sarif())
+        .thenReturn(new ByteArrayInputStream(sarif.getBytes(StandardCharsets.UTF_8)));
+
+    // WHEN save results
+    @SuppressWarnings("unchecked")
+    final Consumer<String> console = mock(Consumer.class);
+    mojo.saveResults(scan, tmp.resolve("results.sarif.json"), NO_THRESHOLDS, console);
+
+    // THEN the summary counts only the result that remains, without Contrast's unfiltered summary
+    verify(console).accept("Excluded 1 results by level or rule");
+    verify(console).accept("Total Results\t1");
+    verify(scan, never()).summary();
+  }
+
+  private static final ScanGate NO_THRESHOLDS =
+      new ScanGate(-1, Collections.emptyMap(), Collections.emptyMap(), false);
+
+  @Test
+  void it_retries_interrupted_uploads(@TempDir final Path tmp)
+      throws IOException, MojoFailureException {
+    // GIVEN an upload which the network interrupts twice
+    final Path file = Files.write(tmp.resolve("app.jar"), new byte[] {1, 2, 3});
+    final CodeArtifact codeArtifact = mock(CodeArtifact.class);
+    final CodeArtifacts codeArtifacts = mock(CodeArtifacts.class);
+    when(codeArtifacts.upload(file))
+        .thenThrow(new SocketException("Connection reset"))
+        .thenThrow(new SocketException("Connection reset"))
+        .thenReturn(codeArtifact);
+    final Project project = mock(Project.class);
+    when(project.codeArtifacts()).thenReturn(codeArtifacts);
+    mojo.setUploadRetries(2);
+    mojo.setRetryPolicy(retryPolicy());
+
+    // WHEN upload the file
+    final CodeArtifact uploaded = mojo.upload(project, file);
+
+    // THEN retries until the upload succeeds
+    assertThat(uploaded).isSameAs(codeArtifact);
+    verify(codeArtifacts, times(3)).upload(file);
+  }
+
+  @Test
+  void it_gives_up_uploading_after_retries(@TempDir final Path tmp) throws IOException {
+    // GIVEN an upload which the network always interrupts
+    final Path file = Files.write(tmp.resolve("app.jar"), new byte[] {1, 2, 3});
+    final CodeArtifacts codeArtifacts = mock(CodeArtifacts.class);
+    when(codeArtifacts.upload(file)).thenThrow(new SocketException("Connection reset"));
+    final Project project = mock(Project.class);
+    when(project.codeArtifacts()).thenReturn(codeArtifacts);
+    mojo.setUploadRetries(2);
+    mojo.setRetryPolicy(retryPolicy());
+
+    // WHEN upload the file THEN fails after the configured number of retries
+    assertThatThrownBy(() -> mojo.upload(project, file))
+        .isInstanceOf(MojoFailureException.class)
+        .hasCauseInstanceOf(SocketException.class);
+    verify(codeArtifacts, times(3)).upload(file);
+  }
+
+  @Test
+  void aggregate_mode_collects_the_scans_of_modules_with_cloned_sessions(@TempDir final Path tmp)
+      throws Exception {
+    // GIVEN two modules that scan their artifacts in aggregate mode, each of which executes with
+    // its own clone of the build's session as it does in Maven
+    final MavenProject a = module("a");
+    final MavenProject b = module("b");
+    final MavenSession session = SessionContextTest.session(a, b);
+    final ContrastScanMojo first = moduleMojo(session.clone(), a, tmp);
+    final ContrastScanMojo second = moduleMojo(session.clone(), b, tmp);
+    first.setAggregate(true);
+    second.setAggregate(true);
+
+    // WHEN the first module defers its scan
+    first.execute();
+
+    // THEN the second module finds the deferred scan, and is the only module left to execute
+    assertThat(second.getAggregator()).isSameAs(first.getAggregator());
+    assertThat(second.getAggregator().missing()).containsExactly("b");
+  }
+
+  @Test
+  void modules_with_cloned_sessions_share_project_lookup(@TempDir final Path tmp) throws Exception {
+    // GIVEN two modules which scan to the same project, each of which executes with its own clone
+    // of the build's session as it does in Maven
+    final MavenProject a = module("a");
+    final MavenProject b = module("b");
+    final MavenSession session = SessionContextTest.session(a, b);
+    final Project project = mock(Project.class);
+    final Projects projects = mock(Projects.class);
+    when(projects.findByName("project-id")).thenReturn(Optional.of(project));
+
+    // WHEN both modules find the project
+    final Project first =
+        moduleMojo(session.clone(), a, tmp).findOrCreateProject(projects, "project-id");
+    final Project second =
+        moduleMojo(session.clone(), b, tmp).findOrCreateProject(projects, "project-id");
+
+    // THEN the modules share one lookup
+    assertThat(first).isSameAs(project);
+    assertThat(second).isSameAs(project);
+    verify(projects, times(1)).findByName("project-id");
+  }
+
+  private static MavenProject module(final String artifactId) {
+    final MavenProject project = new MavenProject();
+    project.setArtifactId(artifactId);
+    return project;
+  }
+
+  private static ContrastScanMojo moduleMojo(
+      final MavenSession session, final MavenProject project, final Path tmp) throws IOException {
+    session.setCurrentProject(project);
+    final MojoExecution execution = mock(MojoExecution.class);
+    when(execution.getExecutionId()).thenReturn("default-cli");
+    final ContrastScanMojo mojo = new ContrastScanMojo();
+    mojo.setSession(session);
+    mojo.setMojoExecution(execution);
+    mojo.setMavenProject(project);
+    mojo.setArtifactPath(Files.createFile(tmp.resolve(project.getArtifactId() + ".jar")).toFile());
+    return mojo;
+  }
+
+  /** @return retry policy which waits on a clock that advances only when sleeping */
+  private static RetryPolicy retryPolicy() {
+    final long[] now = {0};
+    final Clock clock =
+        new Clock() {
+          @Override
+          public long millis() {
+            return now[0];
+          }
+
+          @Override
+          public void sleep(final long millis) {
+            now[0] += millis;
+          }
+        };
+    return new RetryPolicy(
+        1,
+        Duration.ofSeconds(1),
+        Duration.ofSeconds(30),
+        new CircuitBreaker(5, Duration.ofSeconds(30), clock),
+        Duration.ofMinutes(5),
+        new Random(0),
+        clock,
+        new SystemStreamLog(),
+        new BuildMetrics("scan", null));
+  }
 }
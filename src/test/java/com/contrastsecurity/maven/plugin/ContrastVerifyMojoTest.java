@@ -23,17 +23,38 @@ package com.contrastsecurity.maven.plugin;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import com.contrastsecurity.exceptions.HttpResponseException;
 import com.contrastsecurity.http.RuleSeverity;
 import com.contrastsecurity.http.TraceFilterForm;
+import com.contrastsecurity.models.Application;
+import com.contrastsecurity.models.Applications;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+import com.contrastsecurity.sdk.ContrastSDK;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import org.apache.maven.plugin.MojoFailureException;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class ContrastVerifyMojoTest {
 
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private ContrastVerifyMojo verifyContrastMavenPluginMojo;
 
   @Before
@@ -84,10 +105,103 @@ public class ContrastVerifyMojoTest {
   public void testGetTraceFilterFormAppVersionTags() {
     String appVersion = "WebGoat-1";
 
-    AbstractAssessMojo.computedAppVersion = appVersion;
+    verifyContrastMavenPluginMojo.computedAppVersion = appVersion;
     TraceFilterForm traceFilterForm = verifyContrastMavenPluginMojo.getTraceFilterForm(null);
 
     assertEquals(1, traceFilterForm.getAppVersionTags().size());
     assertEquals(appVersion, traceFilterForm.getAppVersionTags().get(0));
   }
+
+  @Test
+  public void testVerifyFailsWithoutInstallState() throws Exception {
+    verifyContrastMavenPluginMojo.setAppName("WebGoat");
+    verifyContrastMavenPluginMojo.setStateDirectory(temporaryFolder.newFolder());
+
+    MojoFailureException e =
+        assertThrows(MojoFailureException.class, verifyContrastMavenPluginMojo::execute);
+    assertTrue(e.getMessage().contains("install goal"));
+  }
+
+  @Test
+  public void testReportTracesPages() throws Exception {
+    ContrastSDK contrast = mockTraces(250);
+    verifyContrastMavenPluginMojo.tracePageSize = 100;
+
+    assertEquals(
+        250, verifyContrastMavenPluginMojo.reportTraces(contrast, "app-id", null, 250, null));
+    verify(contrast, times(3)).getTraces(eq("org-id"), eq("app-id"), any(TraceFilterForm.class));
+  }
+
+  @Test
+  public void testReportTracesFailFast() throws Exception {
+    ContrastSDK contrast = mockTraces(250);
+    verifyContrastMavenPluginMojo.tracePageSize = 100;
+    verifyContrastMavenPluginMojo.failFast = true;
+
+    assertEquals(
+        100, verifyContrastMavenPluginMojo.reportTraces(contrast, "app-id", null, 250, null));
+    verify(contrast, times(1)).getTraces(eq("org-id"), eq("app-id"), any(TraceFilterForm.class));
+  }
+
+  @Test
+  public void testReportTracesWithoutReportsDirectory() throws Exception {
+    ContrastSDK contrast = mockTraces(250);
+    verifyContrastMavenPluginMojo.tracePageSize = 100;
+    verifyContrastMavenPluginMojo.maxLoggedVulnerabilities = 10;
+
+    assertEquals(
+        250, verifyContrastMavenPluginMojo.reportTraces(contrast, "app-id", null, 250, null));
+  }
+
+  @Test
+  public void testGetApplicationIdReplacesStaleIndexedId() throws Exception {
+    verifyContrastMavenPluginMojo.setOrganizationId("org-id");
+    verifyContrastMavenPluginMojo.setCacheDirectory(temporaryFolder.getRoot());
+    verifyContrastMavenPluginMojo.applicationIndexTtlMs = Duration.ofHours(1).toMillis();
+    ApplicationIndex.forOrganization(
+            temporaryFolder.getRoot().toPath(), "org-id", Duration.ofHours(1))
+        .write(Collections.singletonMap("caddyshack", "deleted-app-id"), Instant.now());
+    ContrastSDK contrast = mock(ContrastSDK.class);
+    HttpResponseException notFound = mock(HttpResponseException.class);
+    when(notFound.getCode()).thenReturn(404);
+    when(contrast.getApplication("org-id", "deleted-app-id")).thenThrow(notFound);
+    Application application = mock(Application.class);
+    when(application.getName()).thenReturn("caddyshack");
+    when(application.getId()).thenReturn("app-id");
+    Applications applications = mock(Applications.class);
+    when(applications.getApplications()).thenReturn(Collections.singletonList(application));
+    when(contrast.getApplications("org-id")).thenReturn(applications);
+
+    assertEquals("app-id", verifyContrastMavenPluginMojo.getApplicationId(contrast, "caddyshack"));
+    assertEquals(
+        "app-id",
+        ApplicationIndex.forOrganization(
+                temporaryFolder.getRoot().toPath(), "org-id", Duration.ofHours(1))
+            .find("caddyshack", Instant.now())
+            .get());
+  }
+
+  /** Mocks a Contrast SDK that pages through the given number of traces */
+  private ContrastSDK mockTraces(final int count) throws Exception {
+    verifyContrastMavenPluginMojo.setOrganizationId("org-id");
+    verifyContrastMavenPluginMojo.maxLoggedVulnerabilities = count;
+    ContrastSDK contrast = mock(ContrastSDK.class);
+    when(contrast.getTraces(eq("org-id"), eq("app-id"), any(TraceFilterForm.class)))
+        .thenAnswer(
+            invocation -> {
+              TraceFilterForm form = invocation.getArgument(2);
+              List<Trace> page = new ArrayList<>();
+              int end = Math.min(count, form.getOffset() + form.getLimit());
+              for (int i = form.getOffset(); i < end; i++) {
+                Trace trace = mock(Trace.class);
+                when(trace.getTitle()).thenReturn("Trace " + i);
+                page.add(trace);
+              }
+              Traces traces = mock(Traces.class);
+              when(traces.getCount()).thenReturn(count);
+              when(traces.getTraces()).thenReturn(page);
+              return traces;
+            });
+    return contrast;
+  }
 }
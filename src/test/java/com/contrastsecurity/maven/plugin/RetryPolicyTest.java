@@ -0,0 +1,355 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.contrastsecurity.exceptions.HttpResponseException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link RetryPolicy}. */
+final class RetryPolicyTest {
+
+  private FakeClock clock;
+  private CircuitBreaker breaker;
+  private BuildMetrics metrics;
+  private RetryPolicy policy;
+
+  @BeforeEach
+  void before() {
+    clock = new FakeClock();
+    breaker = new CircuitBreaker(5, Duration.ofSeconds(30), clock);
+    metrics = new BuildMetrics("test", null);
+    policy = policy(3);
+  }
+
+  @Test
+  void retries_idempotent_request_after_network_error() throws IOException {
+    // GIVEN request fails twice due to a network error
+    final AtomicInteger attempts = new AtomicInteger();
+    final RetryPolicy.Call<String> call =
+        () -> {
+          if (attempts.incrementAndGet() < 3) {
+            throw new SocketException("Connection reset");
+          }
+          return "response";
+        };
+
+    // WHEN execute idempotent request
+    final String response = policy.execute("retrieve something", true, call);
+
+    // THEN retries with increasing delays until the request succeeds
+    assertThat(response).isEqualTo("response");
+    assertThat(attempts).hasValue(3);
+    assertThat(clock.now).isBetween(750L + 1500L, 1250L + 2500L);
+    assertThat(metrics.counter(BuildMetrics.HTTP_REQUESTS)).isEqualTo(3);
+    assertThat(metrics.counter(BuildMetrics.HTTP_RETRIES)).isEqualTo(2);
+    assertThat(breaker.consecutiveFailures()).isZero();
+  }
+
+  @Test
+  void retries_idempotent_request_after_timeout() throws IOException {
+    // GIVEN request times out once
+    final AtomicInteger attempts = new AtomicInteger();
+    final RetryPolicy.Call<String> call =
+        () -> {
+          if (attempts.incrementAndGet() == 1) {
+            throw new SocketTimeoutException("Read timed out");
+          }
+          return "response";
+        };
+
+    // WHEN execute idempotent request
+    final String response = policy.execute("retrieve something", true, call);
+
+    // THEN retries, because a timeout is a network error
+    assertThat(response).isEqualTo("response");
+    assertThat(attempts).hasValue(2);
+  }
+
+  @Test
+  void does_not_retry_interrupted_request() {
+    // GIVEN request is interrupted because the build is stopping
+    final AtomicInteger attempts = new AtomicInteger();
+    final RetryPolicy.Call<String> call =
+        () -> {
+          attempts.incrementAndGet();
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException();
+        };
+
+    // WHEN execute idempotent request
+    // THEN fails without retrying
+    try {
+      assertThatThrownBy(() -> policy.execute("retrieve something", true, call))
+          .isInstanceOf(InterruptedIOException.class);
+      assertThat(attempts).hasValue(1);
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  @Test
+  void does_not_retry_non_idempotent_request_after_network_error() {
+    // GIVEN request fails after Contrast may have received it
+    final AtomicInteger attempts = new AtomicInteger();
+    final RetryPolicy.Call<String> call =
+        () -> {
+          attempts.incrementAndGet();
+          throw new SocketException("Connection reset");
+        };
+
+    // WHEN execute non-idempotent request
+    // THEN fails without retrying
+    assertThatThrownBy(() -> policy.execute("create something", false, call))
+        .isInstanceOf(SocketException.class);
+    assertThat(attempts).hasValue(1);
+    assertThat(breaker.consecutiveFailures()).isEqualTo(1);
+  }
+
+  @Test
+  void retries_non_idempotent_request_when_contrast_declines_it() throws IOException {
+    // GIVEN Contrast is temporarily unavailable
+    final HttpResponseException unavailable = httpError(503);
+    final AtomicInteger attempts = new AtomicInteger();
+    final RetryPolicy.Call<String> call =
+        () -> {
+          if (attempts.incrementAndGet() == 1) {
+            throw unavailable;
+          }
+          return "created";
+        };
+
+    // WHEN execute non-idempotent request
+    final String response = policy.execute("create something", false, call);
+
+    // THEN retries, because Contrast did not process the first attempt
+    assertThat(response).isEqualTo("created");
+    assertThat(attempts).hasValue(2);
+  }
+
+  @Test
+  void does_not_retry_client_errors() {
+    // GIVEN request is invalid
+    final HttpResponseException notFound = httpError(404);
+    final AtomicInteger attempts = new AtomicInteger();
+    final RetryPolicy.Call<String> call =
+        () -> {
+          attempts.incrementAndGet();
+          throw notFound;
+        };
+
+    // WHEN execute request
+    // THEN fails without retrying, and without counting against the circuit breaker
+    assertThatThrownBy(() -> policy.execute("retrieve something", true, call)).isSameAs(notFound);
+    assertThat(attempts).hasValue(1);
+    assertThat(breaker.consecutiveFailures()).isZero();
+  }
+
+  @Test
+  void waits_for_circuit_breaker_without_spending_attempts() throws IOException {
+    // GIVEN enough requests failed that the circuit breaker opened
+    openBreaker();
+    final long opened = clock.now;
+
+    // WHEN another goal makes a request with a single attempt
+    final AtomicInteger attempts = new AtomicInteger();
+    final RetryPolicy.Call<String> call =
+        () -> {
+          attempts.incrementAndGet();
+          return "response";
+        };
+    final String response = policy(1).execute("retrieve something else", true, call);
+
+    // THEN waits for the open period, then probes Contrast
+    assertThat(response).isEqualTo("response");
+    assertThat(attempts).hasValue(1);
+    assertThat(clock.now).isEqualTo(opened + 30_000);
+    assertThat(breaker.consecutiveFailures()).isZero();
+  }
+
+  @Test
+  void fails_when_circuit_breaker_withholds_request_for_too_long() {
+    // GIVEN enough requests failed that the circuit breaker opened
+    openBreaker();
+    final long opened = clock.now;
+
+    // WHEN another goal makes a request which waits for the breaker for at most 10 seconds
+    final AtomicInteger attempts = new AtomicInteger();
+    final RetryPolicy.Call<String> call =
+        () -> {
+          attempts.incrementAndGet();
+          return "response";
+        };
+
+    // THEN fails without making the request
+    assertThatThrownBy(
+            () -> policy(3, Duration.ofSeconds(10)).execute("retrieve something else", true, call))
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("Contrast appears unavailable after 5 consecutive requests failed");
+    assertThat(attempts).hasValue(0);
+    assertThat(clock.now).isEqualTo(opened + 10_000);
+  }
+
+  @Test
+  void waits_for_long_probe_without_spending_attempts() throws IOException {
+    // GIVEN another goal is probing Contrast with a request which takes 20 seconds
+    openBreaker();
+    clock.now += 30_000;
+    assertThat(breaker.permit()).isZero();
+    clock.at(clock.now + 20_000, breaker::onSuccess);
+
+    // WHEN make a request with a single attempt
+    final AtomicInteger attempts = new AtomicInteger();
+    final RetryPolicy.Call<String> call =
+        () -> {
+          attempts.incrementAndGet();
+          return "response";
+        };
+    final String response = policy(1).execute("retrieve something else", true, call);
+
+    // THEN waits for the probe to succeed, then makes the request
+    assertThat(response).isEqualTo("response");
+    assertThat(attempts).hasValue(1);
+  }
+
+  @Test
+  void releases_probe_when_request_fails_unexpectedly() {
+    // GIVEN open breaker whose open period has elapsed
+    openBreaker();
+    clock.now += 30_000;
+
+    // WHEN the probe fails with an unexpected exception
+    final IllegalStateException unexpected = new IllegalStateException("Malformed response");
+    final RetryPolicy.Call<String> call =
+        () -> {
+          throw unexpected;
+        };
+
+    // THEN fails, and counts the failure so that the breaker opens again rather than waiting for
+    // the probe forever
+    assertThatThrownBy(() -> policy(1).execute("retrieve something", true, call))
+        .isSameAs(unexpected);
+    assertThat(breaker.consecutiveFailures()).isEqualTo(6);
+    assertThat(breaker.permit()).isEqualTo(30_000);
+  }
+
+  @Test
+  void releases_probe_when_request_is_interrupted() {
+    // GIVEN open breaker whose open period has elapsed
+    openBreaker();
+    clock.now += 30_000;
+
+    // WHEN the probe is interrupted
+    final RetryPolicy.Call<String> interrupted =
+        () -> {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException();
+        };
+    try {
+      assertThatThrownBy(() -> policy(1).execute("retrieve something", true, interrupted))
+          .isInstanceOf(InterruptedIOException.class);
+    } finally {
+      Thread.interrupted();
+    }
+
+    // THEN another request may probe Contrast
+    assertThat(breaker.permit()).isZero();
+    assertThat(breaker.consecutiveFailures()).isEqualTo(5);
+  }
+
+  /** Fails enough requests that the circuit breaker opens */
+  private void openBreaker() {
+    final RetryPolicy.Call<String> failing =
+        () -> {
+          throw new SocketException("Connection reset");
+        };
+    assertThatThrownBy(() -> policy(5).execute("retrieve something", true, failing))
+        .isInstanceOf(SocketException.class);
+  }
+
+  private RetryPolicy policy(final int maxAttempts) {
+    return policy(maxAttempts, Duration.ofMinutes(5));
+  }
+
+  private RetryPolicy policy(final int maxAttempts, final Duration maxBreakerWait) {
+    return new RetryPolicy(
+        maxAttempts,
+        Duration.ofSeconds(1),
+        Duration.ofSeconds(30),
+        breaker,
+        maxBreakerWait,
+        new Random(0),
+        clock,
+        new SystemStreamLog(),
+        metrics);
+  }
+
+  private static HttpResponseException httpError(final int code) {
+    final HttpResponseException e = mock(HttpResponseException.class);
+    when(e.getCode()).thenReturn(code);
+    when(e.getMessage()).thenReturn("HTTP " + code);
+    return e;
+  }
+
+  /** {@link Clock} which advances only when sleeping */
+  private static final class FakeClock implements Clock {
+
+    private long now;
+    private long alarm = Long.MAX_VALUE;
+    private Runnable action;
+
+    /**
+     * @param time time at which to run the action, once the clock reaches it by sleeping
+     * @param action action to run, such as completing another goal's request
+     */
+    void at(final long time, final Runnable action) {
+      this.alarm = time;
+      this.action = action;
+    }
+
+    @Override
+    public long millis() {
+      return now;
+    }
+
+    @Override
+    public void sleep(final long millis) {
+      now += millis;
+      if (now >= alarm) {
+        alarm = Long.MAX_VALUE;
+        action.run();
+      }
+    }
+  }
+}
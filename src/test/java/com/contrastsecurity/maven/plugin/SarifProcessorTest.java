@@ -0,0 +1,109 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link SarifProcessor}. */
+final class SarifProcessorTest {
+
+  private static final String SARIF =
+      "{\"version\":\"2.1.0\",\"runs\":[{\"tool\":{\"driver\":{\"name\":\"Contrast Scan\"}},"
+          + "\"results\":["
+          + "{\"ruleId\":\"sql-injection\",\"level\":\"error\",\"baselineState\":\"new\","
+          + "\"message\":{\"text\":\"<query> & more\"},\"rank\":1.50,\"fingerprint\":null},"
+          + "{\"ruleId\":\"reflected-xss\",\"baselineState\":\"unchanged\"},"
+          + "{\"level\":\"note\",\"ruleId\":\"crypto-bad-mac\",\"baselineState\":\"absent\"}"
+          + "],\"properties\":{\"tags\":[1,true,null]}}]}";
+
+  @Test
+  void counts_results_by_baseline_state() throws IOException {
+    final SarifProcessor.Summary summary =
+        new SarifProcessor(Collections.emptyList(), Collections.emptyList())
+            .process(new StringReader(SARIF), null);
+
+    assertThat(summary.isBaselined()).isTrue();
+    assertThat(summary.totalResults()).isEqualTo(2);
+    assertThat(summary.newResults()).isEqualTo(1);
+    assertThat(summary.fixedResults()).isEqualTo(1);
+    assertThat(summary.excludedResults()).isZero();
+  }
+
+  @Test
+  void counts_results_by_level_and_rule() throws IOException {
+    final SarifProcessor.Summary summary =
+        new SarifProcessor(Collections.emptyList(), Collections.emptyList())
+            .process(new StringReader(SARIF), null);
+
+    assertThat(summary.resultsByLevel(false)).containsOnly(entry("error", 1), entry("warning", 1));
+    assertThat(summary.resultsByRule(false))
+        .containsOnly(entry("sql-injection", 1), entry("reflected-xss", 1));
+    assertThat(summary.resultsByLevel(true)).containsOnly(entry("error", 1));
+    assertThat(summary.resultsByRule(true)).containsOnly(entry("sql-injection", 1));
+  }
+
+  @Test
+  void copies_sarif_exactly_without_filters() throws IOException {
+    final StringWriter filtered = new StringWriter();
+
+    new SarifProcessor(Collections.emptyList(), Collections.emptyList())
+        .process(new StringReader(SARIF), filtered);
+
+    assertThat(filtered).hasToString(SARIF);
+  }
+
+  @Test
+  void filters_results_by_level_and_rule() throws IOException {
+    // GIVEN processor which keeps errors and warnings, except for reflected-xss
+    final SarifProcessor processor =
+        new SarifProcessor(Arrays.asList("error", "warning"), Arrays.asList("reflected-xss"));
+
+    // WHEN process SARIF
+    final StringWriter filtered = new StringWriter();
+    final SarifProcessor.Summary summary = processor.process(new StringReader(SARIF), filtered);
+
+    // THEN counts and writes only the remaining result
+    assertThat(summary.totalResults()).isEqualTo(1);
+    assertThat(summary.excludedResults()).isEqualTo(2);
+    assertThat(filtered.toString())
+        .contains("sql-injection")
+        .doesNotContain("reflected-xss")
+        .doesNotContain("crypto-bad-mac")
+        .endsWith("\"properties\":{\"tags\":[1,true,null]}}]}");
+  }
+
+  @Test
+  void results_without_baseline_state_cannot_be_counted() throws IOException {
+    final SarifProcessor.Summary summary =
+        new SarifProcessor(Collections.emptyList(), Collections.emptyList())
+            .process(new StringReader("{\"runs\":[{\"results\":[{\"ruleId\":\"a\"}]}]}"), null);
+
+    assertThat(summary.isBaselined()).isFalse();
+  }
+}
@@ -0,0 +1,108 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ScanAggregator}. */
+final class ScanAggregatorTest {
+
+  @Test
+  void releases_requests_once_all_modules_have_been_built() {
+    // GIVEN an aggregator expecting three modules
+    final ScanAggregator aggregator =
+        new ScanAggregator(Arrays.asList("first", "second", "last"));
+
+    // WHEN the first two modules add their requests
+    final List<ScanAggregator.Request> first = aggregator.add(request("first"));
+    final List<ScanAggregator.Request> second = aggregator.add(request("second"));
+
+    // THEN neither module should scan
+    assertThat(first).isEmpty();
+    assertThat(second).isEmpty();
+
+    // WHEN the last module adds its request
+    final List<ScanAggregator.Request> last = aggregator.add(request("last"));
+
+    // THEN the last module scans every module's artifact
+    assertThat(last)
+        .extracting(ScanAggregator.Request::module)
+        .containsExactly("first", "second", "last");
+  }
+
+  @Test
+  void releases_requests_when_last_module_is_built_although_a_module_was_skipped() {
+    // GIVEN an aggregator expecting three modules
+    final ScanAggregator aggregator =
+        new ScanAggregator(Arrays.asList("first", "skipped", "last"));
+
+    // WHEN the first and last modules add their requests, but the second module is skipped
+    final List<ScanAggregator.Request> first = aggregator.add(request("first"));
+    final List<ScanAggregator.Request> last = aggregator.add(request("last"));
+
+    // THEN the last module scans the artifacts of the modules which were built
+    assertThat(first).isEmpty();
+    assertThat(last)
+        .extracting(ScanAggregator.Request::module)
+        .containsExactly("first", "last");
+
+    // AND reports the skipped module as missing
+    assertThat(aggregator.missing()).containsExactly("skipped");
+  }
+
+  @Test
+  void releases_requests_when_last_module_does_not_aggregate() {
+    // GIVEN an aggregator expecting two modules
+    final ScanAggregator aggregator = new ScanAggregator(Arrays.asList("first", "last"));
+
+    // WHEN the first module adds its request and the last module scans its own artifact
+    aggregator.add(request("first"));
+    final List<ScanAggregator.Request> last = aggregator.complete("last");
+
+    // THEN the last module scans the first module's artifact
+    assertThat(last).extracting(ScanAggregator.Request::module).containsExactly("first");
+    assertThat(aggregator.missing()).isEmpty();
+  }
+
+  @Test
+  void releases_late_requests_immediately() {
+    // GIVEN an aggregator which the last module has already released, as in a parallel build
+    final ScanAggregator aggregator = new ScanAggregator(Arrays.asList("late", "last"));
+    aggregator.add(request("last"));
+
+    // WHEN a module built after the last module adds its request
+    final List<ScanAggregator.Request> late = aggregator.add(request("late"));
+
+    // THEN that module scans its own artifact
+    assertThat(late).extracting(ScanAggregator.Request::module).containsExactly("late");
+  }
+
+  private static ScanAggregator.Request request(final String module) {
+    return new ScanAggregator.Request(
+        module, "project", "label", Paths.get(module + ".jar"), new File(module + ".sarif.json"));
+  }
+}
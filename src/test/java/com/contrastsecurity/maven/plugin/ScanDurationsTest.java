@@ -0,0 +1,72 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link ScanDurations}. */
+final class ScanDurationsTest {
+
+  private ScanDurations durations;
+
+  @BeforeEach
+  void before(@TempDir final Path directory) {
+    durations = ScanDurations.forProject(directory, "organization-id", "project-id");
+  }
+
+  @Test
+  void has_no_estimate_without_previous_scans() throws IOException {
+    assertThat(durations.estimate(1_000_000)).isEmpty();
+  }
+
+  @Test
+  void estimates_duration_of_previous_scan() throws IOException {
+    durations.record(Duration.ofSeconds(60), 1_000_000);
+
+    assertThat(durations.estimate(1_000_000)).contains(Duration.ofSeconds(60));
+  }
+
+  @Test
+  void scales_estimate_with_artifact_size() throws IOException {
+    durations.record(Duration.ofSeconds(60), 1_000_000);
+
+    assertThat(durations.estimate(1_500_000)).contains(Duration.ofSeconds(90));
+    // scaling is bounded, because scans have a fixed overhead that does not scale with size
+    assertThat(durations.estimate(10_000_000)).contains(Duration.ofSeconds(120));
+  }
+
+  @Test
+  void estimate_follows_recent_scans() throws IOException {
+    // GIVEN a project whose scans recently became slower
+    durations.record(Duration.ofSeconds(60), 1_000_000);
+    durations.record(Duration.ofSeconds(160), 1_000_000);
+
+    // THEN estimate moves toward the most recent duration
+    assertThat(durations.estimate(1_000_000)).contains(Duration.ofSeconds(90));
+  }
+}
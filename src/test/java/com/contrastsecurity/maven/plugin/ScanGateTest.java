@@ -0,0 +1,128 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link ScanGate} */
+final class ScanGateTest {
+
+  private static final String SARIF =
+      "{\"runs\":[{\"results\":["
+          + "{\"ruleId\":\"sql-injection\",\"level\":\"error\",\"baselineState\":\"new\"},"
+          + "{\"ruleId\":\"sql-injection\",\"level\":\"error\",\"baselineState\":\"unchanged\"},"
+          + "{\"ruleId\":\"reflected-xss\",\"baselineState\":\"new\"},"
+          + "{\"ruleId\":\"crypto-bad-mac\",\"level\":\"note\",\"baselineState\":\"absent\"}"
+          + "]}]}";
+
+  @Test
+  void passes_without_thresholds() throws IOException {
+    final ScanGate gate = new ScanGate(-1, Collections.emptyMap(), Collections.emptyMap(), false);
+
+    assertThat(gate.evaluate(summarize(SARIF)).passed()).isTrue();
+  }
+
+  @Test
+  void fails_when_results_exceed_thresholds() throws IOException {
+    // GIVEN thresholds for the total, errors, and SQL injection results
+    final ScanGate gate =
+        new ScanGate(
+            2,
+            Collections.singletonMap("error", 1),
+            Collections.singletonMap("sql-injection", 2),
+            false);
+
+    // WHEN evaluate results
+    final ScanGate.Verdict verdict = gate.evaluate(summarize(SARIF));
+
+    // THEN violates the total and error thresholds, but not the SQL injection threshold
+    assertThat(verdict.passed()).isFalse();
+    assertThat(verdict.violations())
+        .extracting(ScanGate.Violation::toString)
+        .containsExactly(
+            "3 results exceed the maximum of 2",
+            "2 results with level error exceed the maximum of 1");
+  }
+
+  @Test
+  void counts_only_new_results() throws IOException {
+    // GIVEN thresholds which apply only to new results
+    final ScanGate gate =
+        new ScanGate(1, Collections.singletonMap("error", 1), Collections.emptyMap(), true);
+
+    // WHEN evaluate results
+    final ScanGate.Verdict verdict = gate.evaluate(summarize(SARIF));
+
+    // THEN violates only the total threshold
+    assertThat(verdict.violations())
+        .extracting(ScanGate.Violation::toString)
+        .containsExactly("2 new results exceed the maximum of 1");
+  }
+
+  @Test
+  void counts_every_result_as_new_without_baseline() throws IOException {
+    // GIVEN results without baselineState, as in a project's first scan
+    final String sarif = "{\"runs\":[{\"results\":[{\"ruleId\":\"sql-injection\"}]}]}";
+    final ScanGate gate = new ScanGate(0, Collections.emptyMap(), Collections.emptyMap(), true);
+
+    // WHEN evaluate results
+    final ScanGate.Verdict verdict = gate.evaluate(summarize(sarif));
+
+    // THEN the result counts toward the new results threshold
+    assertThat(verdict.passed()).isFalse();
+  }
+
+  @Test
+  void writes_verdict(@TempDir final Path tmp) throws IOException {
+    // GIVEN failed verdict
+    final ScanGate gate =
+        new ScanGate(
+            -1, Collections.emptyMap(), Collections.singletonMap("reflected-xss", 0), false);
+    final ScanGate.Verdict verdict = gate.evaluate(summarize(SARIF));
+
+    // WHEN write verdict
+    final Path file = tmp.resolve("reports").resolve("results.verdict.json");
+    verdict.write(file);
+
+    // THEN writes verdict in JSON
+    final String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    assertThat(json)
+        .contains("\"passed\": false")
+        .contains("\"total\": 3")
+        .contains("\"threshold\": \"rule\"")
+        .contains("\"name\": \"reflected-xss\"")
+        .contains("\"actual\": 1");
+  }
+
+  private static SarifProcessor.Summary summarize(final String sarif) throws IOException {
+    return new SarifProcessor(Collections.emptyList(), Collections.emptyList())
+        .process(new StringReader(sarif), null);
+  }
+}
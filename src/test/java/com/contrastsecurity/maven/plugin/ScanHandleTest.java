@@ -0,0 +1,68 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link ScanHandle} */
+final class ScanHandleTest {
+
+  @Test
+  void reads_empty_handle_when_file_does_not_exist(@TempDir final Path tmp) throws IOException {
+    final ScanHandle handle = ScanHandle.read(tmp.resolve("missing.properties"));
+
+    assertThat(handle.isComplete()).isFalse();
+    assertThat(handle.getStarted()).isNull();
+  }
+
+  @Test
+  void round_trips_handle(@TempDir final Path tmp) throws IOException {
+    // GIVEN handle describing a scan
+    final ScanHandle handle = new ScanHandle();
+    handle.setOrganizationId("organization-id");
+    handle.setProjectId("project-id");
+    handle.setScanId("scan-id");
+    handle.setArtifact("/build/app.war");
+    handle.setSha256("abc123");
+    final Instant started = Instant.ofEpochMilli(1_600_000_000_000L);
+    handle.setStarted(started);
+
+    // WHEN write and read the handle
+    final Path file = tmp.resolve("reports").resolve("results.scan.properties");
+    handle.write(file);
+    final ScanHandle read = ScanHandle.read(file);
+
+    // THEN reads the same handle
+    assertThat(read.isComplete()).isTrue();
+    assertThat(read.getOrganizationId()).isEqualTo("organization-id");
+    assertThat(read.getProjectId()).isEqualTo("project-id");
+    assertThat(read.getScanId()).isEqualTo("scan-id");
+    assertThat(read.getArtifact()).isEqualTo("/build/app.war");
+    assertThat(read.getSha256()).isEqualTo("abc123");
+    assertThat(read.getStarted()).isEqualTo(started);
+  }
+}
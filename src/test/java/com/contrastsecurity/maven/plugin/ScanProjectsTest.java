@@ -0,0 +1,109 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import com.contrastsecurity.sdk.scan.Project;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ScanProjects}. */
+final class ScanProjectsTest {
+
+  private static final List<String> KEY = Arrays.asList("url", "organization-id", "project");
+
+  @Test
+  void resolves_each_project_once() throws Exception {
+    // GIVEN resolver which blocks until released
+    final ScanProjects projects = new ScanProjects();
+    final AtomicInteger resolves = new AtomicInteger();
+    final CountDownLatch release = new CountDownLatch(1);
+    final Project project = mock(Project.class);
+    final ScanProjects.Resolver resolver =
+        () -> {
+          resolves.incrementAndGet();
+          try {
+            release.await();
+          } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return project;
+        };
+
+    // WHEN two modules request the same project concurrently
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final Future<Project> first = executor.submit(() -> projects.get(KEY, resolver));
+      final Future<Project> second = executor.submit(() -> projects.get(KEY, resolver));
+      release.countDown();
+
+      // THEN both receive the project from one resolution
+      assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(project);
+      assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(project);
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(projects.get(KEY, resolver)).isSameAs(project);
+    assertThat(resolves).hasValue(1);
+  }
+
+  @Test
+  void resolves_projects_with_different_names_separately() throws MojoFailureException {
+    final ScanProjects projects = new ScanProjects();
+
+    final Project first = projects.get(KEY, () -> mock(Project.class));
+    final Project second =
+        projects.get(Arrays.asList("url", "organization-id", "other"), () -> mock(Project.class));
+
+    assertThat(second).isNotSameAs(first);
+  }
+
+  @Test
+  void retries_failed_resolution() throws MojoFailureException {
+    // GIVEN resolution that failed
+    final ScanProjects projects = new ScanProjects();
+    assertThatThrownBy(
+            () ->
+                projects.get(
+                    KEY,
+                    () -> {
+                      throw new MojoFailureException("Failed to create project");
+                    }))
+        .isInstanceOf(MojoFailureException.class);
+
+    // WHEN request the project again
+    final Project project = mock(Project.class);
+
+    // THEN resolves the project again
+    assertThat(projects.get(KEY, () -> project)).isSameAs(project);
+  }
+}
@@ -0,0 +1,71 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link SessionContext}. */
+final class SessionContextTest {
+
+  @Test
+  void shares_objects_across_the_module_clones_of_a_session() {
+    // GIVEN the session of a build, which Maven clones for each module that it builds
+    final MavenSession session = session(new MavenProject());
+    final MavenSession first = session.clone();
+    final MavenSession second = session.clone();
+
+    // WHEN each module requests the shared object from its own clone
+    final Object shared = SessionContext.get(first, Shared.class, Shared::new);
+
+    // THEN the modules share one object
+    assertThat(SessionContext.get(second, Shared.class, Shared::new)).isSameAs(shared);
+    assertThat(SessionContext.get(session, Shared.class, Shared::new)).isSameAs(shared);
+  }
+
+  @Test
+  void separates_objects_of_different_builds() {
+    final Shared first = SessionContext.get(session(), Shared.class, Shared::new);
+    final Shared second = SessionContext.get(session(), Shared.class, Shared::new);
+
+    assertThat(second).isNotSameAs(first);
+  }
+
+  /**
+   * @param projects the modules in the build, in build order
+   * @return new session of a build
+   */
+  static MavenSession session(final MavenProject... projects) {
+    final MavenSession session =
+        new MavenSession(
+            null, null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult());
+    session.setProjects(Arrays.asList(projects));
+    return session;
+  }
+
+  private static final class Shared {}
+}
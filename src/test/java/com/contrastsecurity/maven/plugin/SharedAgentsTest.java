@@ -0,0 +1,97 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link SharedAgents}. */
+final class SharedAgentsTest {
+
+  @Test
+  void installs_agent_once_for_every_module(@TempDir final Path tmp) throws MojoFailureException {
+    final SharedAgents agents = new SharedAgents();
+    final AtomicInteger installs = new AtomicInteger();
+    final SharedAgents.Installer installer = () -> install(tmp, installs);
+    final List<Object> key = Arrays.asList("url", "organization", tmp);
+
+    final Path first = agents.get(key, installer);
+    final Path second = agents.get(key, installer);
+
+    assertThat(second).isEqualTo(first);
+    assertThat(installs).hasValue(1);
+  }
+
+  @Test
+  void installs_agent_again_when_deleted(@TempDir final Path tmp)
+      throws MojoFailureException, IOException {
+    final SharedAgents agents = new SharedAgents();
+    final AtomicInteger installs = new AtomicInteger();
+    final SharedAgents.Installer installer = () -> install(tmp, installs);
+    final List<Object> key = Arrays.asList("url", "organization", tmp);
+
+    Files.delete(agents.get(key, installer));
+    final Path agent = agents.get(key, installer);
+
+    assertThat(agent).exists();
+    assertThat(installs).hasValue(2);
+  }
+
+  @Test
+  void does_not_remember_failed_install(@TempDir final Path tmp) throws MojoFailureException {
+    final SharedAgents agents = new SharedAgents();
+    final List<Object> key = Arrays.asList("url", "organization", tmp);
+    assertThatThrownBy(
+            () ->
+                agents.get(
+                    key,
+                    () -> {
+                      throw new MojoFailureException("download failed");
+                    }))
+        .isInstanceOf(MojoFailureException.class);
+
+    final AtomicInteger installs = new AtomicInteger();
+    final Path agent = agents.get(key, () -> install(tmp, installs));
+
+    assertThat(agent).exists();
+    assertThat(installs).hasValue(1);
+  }
+
+  private static Path install(final Path directory, final AtomicInteger installs)
+      throws MojoFailureException {
+    installs.incrementAndGet();
+    try {
+      return Files.write(directory.resolve("contrast.jar"), new byte[] {1, 2, 3});
+    } catch (final IOException e) {
+      throw new MojoFailureException("Unable to write agent", e);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link TeeInputStream}. */
+final class TeeInputStreamTest {
+
+  @Test
+  void copies_bytes_read_and_skipped() throws IOException {
+    final byte[] data = new byte[10_000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+    try (InputStream in = new TeeInputStream(new ByteArrayInputStream(data), copy)) {
+      assertThat(in.read()).isEqualTo(0);
+      assertThat(in.skip(5_000)).isEqualTo(5_000);
+      final byte[] buffer = new byte[8_192];
+      while (in.read(buffer) != -1) {
+        // read the rest
+      }
+    }
+
+    assertThat(copy.toByteArray()).isEqualTo(data);
+  }
+
+  @Test
+  void skips_nothing_when_asked_to_skip_no_bytes() throws IOException {
+    final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+    try (InputStream in = new TeeInputStream(new ByteArrayInputStream(new byte[] {1, 2}), copy)) {
+      assertThat(in.skip(0)).isZero();
+      assertThat(in.skip(-1)).isZero();
+      assertThat(in.read()).isEqualTo(1);
+    }
+
+    assertThat(copy.toByteArray()).containsExactly(1);
+  }
+}
@@ -0,0 +1,137 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link TracePoller}. */
+final class TracePollerTest {
+
+  private FakeClock clock;
+  private TracePoller poller;
+
+  @BeforeEach
+  void before() {
+    clock = new FakeClock();
+    poller =
+        new TracePoller(
+            Duration.ofMillis(500),
+            Duration.ofSeconds(4),
+            Duration.ofSeconds(10),
+            Duration.ofSeconds(1),
+            Duration.ofSeconds(5),
+            2,
+            new Random(0),
+            clock,
+            new SystemStreamLog());
+  }
+
+  @Test
+  void stops_once_count_settles() throws MojoFailureException, InterruptedException {
+    // GIVEN Contrast reports the same number of vulnerabilities every time
+    final Iterator<Integer> counts = Arrays.asList(3, 3, 3, 3, 3, 3).iterator();
+
+    // WHEN poll
+    final int count = poller.poll(counts::next, Integer::intValue);
+
+    // THEN returns well before the maximum wait
+    assertThat(count).isEqualTo(3);
+    assertThat(clock.now).isLessThan(Duration.ofSeconds(10).toMillis());
+    assertThat(counts).hasNext();
+  }
+
+  @Test
+  void keeps_polling_while_count_changes() throws MojoFailureException, InterruptedException {
+    // GIVEN the agent is still reporting vulnerabilities
+    final Iterator<Integer> counts = Arrays.asList(0, 1, 2, 2, 2, 2, 2, 2).iterator();
+
+    // WHEN poll
+    final int count = poller.poll(counts::next, Integer::intValue);
+
+    // THEN waits for the final count
+    assertThat(count).isEqualTo(2);
+  }
+
+  @Test
+  void waits_for_agent_to_report_before_accepting_zero()
+      throws MojoFailureException, InterruptedException {
+    // GIVEN Contrast reports no vulnerabilities until the agent's findings arrive
+    final Iterator<Integer> counts = Arrays.asList(0, 0, 0, 0, 5, 5, 5, 5, 5, 5, 5, 5).iterator();
+
+    // WHEN poll
+    final int count = poller.poll(counts::next, Integer::intValue);
+
+    // THEN does not settle on zero before the empty wait elapses
+    assertThat(count).isEqualTo(5);
+  }
+
+  @Test
+  void settles_on_zero_after_empty_wait() throws MojoFailureException, InterruptedException {
+    // GIVEN the agent found no vulnerabilities
+
+    // WHEN poll
+    final int count = poller.poll(() -> 0, Integer::intValue);
+
+    // THEN settles on zero once the empty wait elapses, before the maximum wait
+    assertThat(count).isZero();
+    assertThat(clock.now)
+        .isGreaterThanOrEqualTo(Duration.ofSeconds(5).toMillis())
+        .isLessThan(Duration.ofSeconds(10).toMillis());
+  }
+
+  @Test
+  void gives_up_after_max_wait() throws MojoFailureException, InterruptedException {
+    // GIVEN the count never settles
+    final int[] next = {0};
+
+    // WHEN poll
+    final int count = poller.poll(() -> next[0]++, Integer::intValue);
+
+    // THEN returns the latest count once the maximum wait has elapsed
+    assertThat(clock.now).isEqualTo(Duration.ofSeconds(10).toMillis());
+    assertThat(count).isEqualTo(next[0] - 1);
+  }
+
+  /** {@link Clock} which advances only when sleeping */
+  private static final class FakeClock implements Clock {
+
+    private long now;
+
+    @Override
+    public long millis() {
+      return now;
+    }
+
+    @Override
+    public void sleep(final long millis) {
+      now += millis;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.contrastsecurity.models.Trace;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link TraceReportRenderer}. */
+final class TraceReportRendererTest {
+
+  @Test
+  void renders_text_report_without_license_markers(@TempDir final Path directory)
+      throws IOException {
+    try (TraceReportRenderer renderer =
+        new TraceReportRenderer(directory, EnumSet.noneOf(TraceReportRenderer.Format.class))) {
+      final CharSequence report = renderer.render(trace());
+
+      assertThat(report.toString())
+          .isEqualTo(
+              "Trace: SQL Injection from (\"id\" parameter) on \"/users\"\n"
+                  + "Trace Uuid: ABCD-1234\n"
+                  + "Trace Severity: High\n"
+                  + "Trace Likelihood: Likely\n");
+    }
+  }
+
+  @Test
+  void writes_report_files(@TempDir final Path directory) throws IOException {
+    // WHEN write two vulnerabilities in every format
+    try (TraceReportRenderer renderer =
+        new TraceReportRenderer(directory, EnumSet.allOf(TraceReportRenderer.Format.class))) {
+      renderer.write(trace());
+      renderer.write(trace());
+    }
+
+    // THEN text report contains both vulnerabilities
+    final String text = read(directory.resolve(TraceReportRenderer.TEXT_FILE_NAME));
+    assertThat(text).contains("Trace Uuid: ABCD-1234").hasLineCount(10);
+
+    // AND JSON report is an array of escaped vulnerabilities
+    final String json = read(directory.resolve(TraceReportRenderer.JSON_FILE_NAME));
+    final String vulnerability =
+        "{\"uuid\":\"ABCD-1234\",\"title\":\"SQL Injection from (\\\"id\\\" parameter) on"
+            + " \\\"/users\\\"\",\"rule\":\"sql-injection\",\"severity\":\"High\","
+            + "\"likelihood\":\"Likely\"}";
+    assertThat(json)
+        .isEqualTo("{\"vulnerabilities\":[" + vulnerability + "," + vulnerability + "]}\n");
+
+    // AND JUnit report counts every vulnerability as a failure
+    final String junit = read(directory.resolve(TraceReportRenderer.JUNIT_FILE_NAME));
+    assertThat(junit)
+        .contains("<testsuite name=\"contrast-verify\" tests=\"2\" failures=\"2\"")
+        .contains("<testcase classname=\"contrast.sql-injection\" name=\"ABCD-1234\">")
+        .contains("message=\"SQL Injection from (&quot;id&quot; parameter) on &quot;/users&quot;")
+        .endsWith("</testsuite>\n");
+    try (Stream<Path> files = Files.list(directory)) {
+      assertThat(files).hasSize(3);
+    }
+  }
+
+  private static Trace trace() {
+    final Trace trace = mock(Trace.class);
+    when(trace.getTitle())
+        .thenReturn(
+            "SQL Injection from {{#unlicensed}}\"id\" parameter{{/unlicensed}} on \"/users\"");
+    when(trace.getUuid()).thenReturn("ABCD-1234");
+    when(trace.getRule()).thenReturn("sql-injection");
+    when(trace.getSeverity()).thenReturn("High");
+    when(trace.getLikelihood()).thenReturn("Likely");
+    return trace;
+  }
+
+  private static String read(final Path file) throws IOException {
+    return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,92 @@
+package com.contrastsecurity.maven.plugin;
+
+/*-
+ * #%L
+ * Contrast Maven Plugin
+ * %%
+ * Copyright (C) 2021 Contrast Security, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.contrastsecurity.models.Trace;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link VerifyWatermark}. */
+final class VerifyWatermarkTest {
+
+  @Test
+  void no_vulnerabilities_are_known_before_first_verify(@TempDir final Path directory)
+      throws IOException {
+    final VerifyWatermark watermark = VerifyWatermark.read(directory, "org-id", "app-id", "app-1");
+
+    assertThat(watermark.previousTimestamp()).isZero();
+    assertThat(watermark.isKnown(trace("a", 1000))).isFalse();
+  }
+
+  @Test
+  void vulnerabilities_evaluated_by_last_verify_are_known(@TempDir final Path directory)
+      throws IOException {
+    // GIVEN a successful verify which evaluated three vulnerabilities
+    final VerifyWatermark first = VerifyWatermark.read(directory, "org-id", "app-id", "app-1");
+    first.advance(trace("a", 1000));
+    first.advance(trace("b", 2000));
+    first.advance(trace("c", 2000));
+    first.write();
+
+    // WHEN read the watermark for the next verify
+    final VerifyWatermark next = VerifyWatermark.read(directory, "org-id", "app-id", "app-1");
+
+    // THEN queries from the latest first seen time, and skips vulnerabilities already evaluated
+    assertThat(next.previousTimestamp()).isEqualTo(2000);
+    assertThat(next.isKnown(trace("a", 1000))).isTrue();
+    assertThat(next.isKnown(trace("c", 2000))).isTrue();
+    assertThat(next.isKnown(trace("d", 2000))).isFalse();
+    assertThat(next.isKnown(trace("e", 3000))).isFalse();
+  }
+
+  @Test
+  void advancing_does_not_change_known_vulnerabilities(@TempDir final Path directory)
+      throws IOException {
+    final VerifyWatermark watermark = VerifyWatermark.read(directory, "org-id", "app-id", "app-1");
+
+    watermark.advance(trace("a", 3000));
+
+    assertThat(watermark.isKnown(trace("b", 2000))).isFalse();
+  }
+
+  @Test
+  void watermarks_are_kept_per_app_version(@TempDir final Path directory) throws IOException {
+    final VerifyWatermark first = VerifyWatermark.read(directory, "org-id", "app-id", "app-1");
+    first.advance(trace("a", 1000));
+    first.write();
+
+    assertThat(VerifyWatermark.read(directory, "org-id", "app-id", "app-2").previousTimestamp())
+        .isZero();
+  }
+
+  private static Trace trace(final String uuid, final long firstTimeSeen) {
+    final Trace trace = mock(Trace.class);
+    when(trace.getUuid()).thenReturn(uuid);
+    when(trace.getFirstTimeSeen()).thenReturn(firstTimeSeen);
+    return trace;
+  }
+}